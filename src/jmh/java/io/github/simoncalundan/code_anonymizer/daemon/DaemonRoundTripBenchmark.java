@@ -0,0 +1,70 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.service.CorpusState;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one request through an {@link AnonymizerDaemon} on a Unix
+ * domain socket, from sending the source to having read the response. The
+ * sample mode reports percentiles, e.g. {@code p0.99}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaemonRoundTripBenchmark {
+    private Path directory;
+    private AnonymizerDaemon daemon;
+    private DaemonClient client;
+    private AnonymizeRequest request;
+
+    @Setup
+    public void startDaemon(CorpusState corpus) throws IOException {
+        directory = Files.createTempDirectory("daemon-benchmark");
+        daemon = AnonymizerDaemon.bind(new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(),
+                AnonymizerMetrics.disabled()), directory.resolve("daemon.sock"));
+        Thread.ofPlatform().daemon().start(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        client = DaemonClient.connect(daemon.getSocketPath());
+        request = new AnonymizeRequest(corpus.source, corpus.fileName, false, true);
+    }
+
+    @TearDown
+    public void stopDaemon() throws IOException {
+        client.close();
+        daemon.close();
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public AnonymizeResponse roundTrip() throws IOException {
+        return client.anonymize(request);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of {@link CodeAnonymizerService#anonymizeCode} for both engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnonymizeBenchmark {
+    @Param({"REGEX", "LEXER"})
+    public AnonymizerEngine engine;
+
+    @Param({"true", "false"})
+    public boolean preserveComments;
+
+    private CodeAnonymizerService service;
+
+    @Setup
+    public void createService() {
+        LanguageInterpreterService languageService = new LanguageInterpreterService();
+        service = new AnonymizerEngines(
+                new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()),
+                new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled())).get(engine);
+    }
+
+    @Benchmark
+    public String anonymizeCode(CorpusState corpus) {
+        return service.anonymizeCode(corpus.source, corpus.fileName, false, preserveComments);
+    }
+}
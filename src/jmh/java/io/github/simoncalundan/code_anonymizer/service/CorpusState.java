@@ -0,0 +1,41 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shape of the generated input, shared by all benchmarks. Override any of the
+ * parameters with {@code -p}, e.g. {@code -p commentRatio=0.5}.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+    /**
+     * {@code java} selects {@link JavaInterpreter}, anything else falls back to {@link DefaultInterpreter}.
+     */
+    @Param({"java", "txt"})
+    public String extension;
+
+    @Param({"16384", "262144"})
+    public int size;
+
+    @Param({"0.5"})
+    public double identifierDensity;
+
+    @Param({"0.2"})
+    public double commentRatio;
+
+    @Param({"0.3"})
+    public double stringRatio;
+
+    public String fileName;
+    public String source;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        fileName = "Generated." + extension;
+        source = new SyntheticCorpus(identifierDensity, commentRatio, stringRatio, 42).generate(size);
+    }
+}
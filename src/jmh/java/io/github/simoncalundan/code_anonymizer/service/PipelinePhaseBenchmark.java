@@ -0,0 +1,80 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each phase of the regex engine in isolation. Every phase gets the
+ * output of the previous phases as input, computed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelinePhaseBenchmark {
+    private CodeAnonymizerServiceImpl service;
+    private CommentStyle commentStyle;
+    private KeywordMatcher keywords;
+    private String commentsExtracted;
+    private String literalsMasked;
+    private String identifiersReplaced;
+    private Map<String, String> placeholders;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparePhaseInputs(CorpusState corpus) {
+        LanguageInterpreterService languageService = new LanguageInterpreterService();
+        LanguageInterpreter interpreter = languageService.getInterpreterForFile(corpus.fileName);
+        service = new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+        commentStyle = interpreter.getCommentStyle();
+        keywords = interpreter.getKeywordMatcher();
+
+        Map<String, Object> extraction = service.extractComments(corpus.source, commentStyle);
+        commentsExtracted = (String) extraction.get("processedCode");
+        placeholders = new HashMap<>();
+        literalsMasked = service.maskStringLiterals(commentsExtracted, false, placeholders);
+        identifiersReplaced = service.replaceIdentifiers(literalsMasked, keywords, new LocalSymbolTable()).code();
+        placeholders.putAll((Map<String, String>) extraction.get("commentMap"));
+    }
+
+    @Benchmark
+    public Map<String, Object> extractComments(CorpusState corpus) {
+        return service.extractComments(corpus.source, commentStyle);
+    }
+
+    @Benchmark
+    public String stripComments(CorpusState corpus) {
+        return service.stripComments(corpus.source, commentStyle, false).code();
+    }
+
+    @Benchmark
+    public String maskStringLiterals() {
+        return service.maskStringLiterals(commentsExtracted, false, new HashMap<>());
+    }
+
+    @Benchmark
+    public String replaceIdentifiers() {
+        return service.replaceIdentifiers(literalsMasked, keywords, new LocalSymbolTable()).code();
+    }
+
+    @Benchmark
+    public String restorePlaceholders() {
+        return CodeAnonymizerServiceImpl.restorePlaceholders(identifiersReplaced, placeholders);
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of anonymizing a single large file with the lexer engine, sequentially
+ * ({@code segmentSize=0}) and in parallel segments. The speedup of the
+ * segments is bounded by the number of cores, so compare the scores on a
+ * machine with several of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentingBenchmark {
+    @Param({"16777216"})
+    public int size;
+
+    @Param({"0", "262144", "1048576"})
+    public int segmentSize;
+
+    private String source;
+    private CodeAnonymizerService service;
+
+    @Setup
+    public void createService() {
+        source = new SyntheticCorpus(0.5, 0.2, 0.3, 42).generate(size);
+        LexerCodeAnonymizerServiceImpl lexerService =
+                new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+        service = segmentSize == 0 ? lexerService
+                : new SegmentingAnonymizerService(lexerService, segmentSize, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public String anonymizeCode() {
+        return service.anonymizeCode(source, "Generated.java", false, false, new LocalSymbolTable());
+    }
+}
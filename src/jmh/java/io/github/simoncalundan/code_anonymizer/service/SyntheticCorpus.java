@@ -0,0 +1,129 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates Java-like source code with a controlled mix of identifiers,
+ * comments and string literals. The same parameters and seed always produce
+ * the same text, so benchmark runs stay comparable between releases.
+ */
+final class SyntheticCorpus {
+    private static final String[] KEYWORDS = {
+            "int", "return", "if", "else", "new", "final", "static", "public", "private", "void", "for", "while"
+    };
+    private static final String[] OPERATORS = {" = ", " + ", " * ", " - ", ", ", " == ", "."};
+    private static final int DISTINCT_IDENTIFIERS = 512;
+    private static final int TOKENS_PER_STATEMENT = 12;
+
+    private final double identifierDensity;
+    private final double commentRatio;
+    private final double stringRatio;
+    private final String[] identifiers = new String[DISTINCT_IDENTIFIERS];
+    private final SplittableRandom random;
+
+    /**
+     * @param identifierDensity share of the tokens of a statement that are identifiers, not keywords or numbers
+     * @param commentRatio      share of the lines that are comments
+     * @param stringRatio       share of the statements that contain a string literal
+     */
+    SyntheticCorpus(double identifierDensity, double commentRatio, double stringRatio, long seed) {
+        this.identifierDensity = checkRatio("identifierDensity", identifierDensity);
+        this.commentRatio = checkRatio("commentRatio", commentRatio);
+        this.stringRatio = checkRatio("stringRatio", stringRatio);
+        this.random = new SplittableRandom(seed);
+        for (int i = 0; i < identifiers.length; i++) {
+            identifiers[i] = randomName();
+        }
+    }
+
+    /**
+     * Returns source code of exactly {@code size} characters.
+     */
+    String generate(int size) {
+        StringBuilder out = new StringBuilder(size + 256);
+        int depth = 1;
+        out.append("class Generated {\n");
+        while (out.length() < size) {
+            indent(out, depth);
+            double roll = random.nextDouble();
+            if (roll < commentRatio) {
+                appendComment(out, depth);
+            } else if (roll < commentRatio + (1 - commentRatio) * 0.05 && depth < 6) {
+                out.append(pick(KEYWORDS)).append(" (").append(identifier()).append(") {\n");
+                depth++;
+            } else if (roll < commentRatio + (1 - commentRatio) * 0.1 && depth > 1) {
+                out.setLength(out.length() - 4);
+                out.append("}\n");
+                depth--;
+            } else {
+                appendStatement(out);
+            }
+        }
+        out.setLength(size);
+        return out.toString();
+    }
+
+    private void appendStatement(StringBuilder out) {
+        int stringAt = random.nextDouble() < stringRatio ? random.nextInt(TOKENS_PER_STATEMENT) : -1;
+        for (int t = 0; t < TOKENS_PER_STATEMENT; t++) {
+            if (t > 0) {
+                out.append(pick(OPERATORS));
+            }
+            if (t == stringAt) {
+                out.append('"').append(pick(KEYWORDS)).append(' ').append(identifier())
+                        .append(" // not a comment \\\"").append(random.nextInt(1000)).append("\\\"\"");
+            } else if (random.nextDouble() < identifierDensity) {
+                out.append(identifier());
+            } else if (random.nextBoolean()) {
+                out.append(pick(KEYWORDS));
+            } else {
+                out.append(random.nextInt(100_000));
+            }
+        }
+        out.append(";\n");
+    }
+
+    private void appendComment(StringBuilder out, int depth) {
+        if (random.nextInt(4) == 0) {
+            out.append("/* ").append(identifier()).append(" is ").append(pick(KEYWORDS)).append('\n');
+            indent(out, depth);
+            out.append(" * see \"").append(identifier()).append("\" for details */\n");
+        } else {
+            out.append("// ").append(identifier()).append(' ').append(pick(KEYWORDS)).append(' ')
+                    .append(identifier()).append('\n');
+        }
+    }
+
+    private String identifier() {
+        return identifiers[random.nextInt(identifiers.length)];
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void indent(StringBuilder out, int depth) {
+        out.append("    ".repeat(depth));
+    }
+
+    /**
+     * Names end with an underscore, so they never collide with a keyword.
+     */
+    private String randomName() {
+        int length = 3 + random.nextInt(12);
+        StringBuilder name = new StringBuilder(length);
+        name.append((char) ('a' + random.nextInt(26)));
+        for (int i = 1; i < length; i++) {
+            int c = random.nextInt(37);
+            name.append(c < 26 ? (char) ('a' + c) : c < 36 ? (char) ('0' + c - 26) : '_');
+        }
+        return name.append('_').toString();
+    }
+
+    private static double checkRatio(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1, was " + value);
+        }
+        return value;
+    }
+}
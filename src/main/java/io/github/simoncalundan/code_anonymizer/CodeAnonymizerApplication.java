@@ -1,30 +1,29 @@
 package io.github.simoncalundan.code_anonymizer;
 
-import io.github.simoncalundan.code_anonymizer.cli.AnonymizeCommand;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.boot.SpringApplication;
+import io.github.simoncalundan.code_anonymizer.cli.AnonymizeCli;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import picocli.CommandLine;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
-@SpringBootApplication
-@Slf4j
-public class CodeAnonymizerApplication implements CommandLineRunner {
-    private final AnonymizeCommand anonymizeCommand;
-    private final CommandLine.IFactory factory;
+import java.util.Arrays;
 
-    public CodeAnonymizerApplication(AnonymizeCommand anonymizeCommand, CommandLine.IFactory factory) {
-        this.anonymizeCommand = anonymizeCommand;
-        this.factory = factory;
-    }
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class CodeAnonymizerApplication {
+    /**
+     * First argument that starts the HTTP server. Any other arguments run the
+     * command line tool, which does not start Spring at all.
+     */
+    public static final String SERVE_COMMAND = "serve";
+    public static final String SERVER_PROFILE = "server";
 
     public static void main(String[] args) {
-        SpringApplication.run(CodeAnonymizerApplication.class, args);
-    }
-
-    @Override
-    public void run(String... args) throws Exception {
-        int exitCode = new CommandLine(anonymizeCommand, factory).execute(args);
-        System.exit(exitCode);
+        if (args.length > 0 && SERVE_COMMAND.equals(args[0])) {
+            new SpringApplicationBuilder(CodeAnonymizerApplication.class)
+                    .profiles(SERVER_PROFILE)
+                    .run(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            AnonymizeCli.main(args);
+        }
     }
 }
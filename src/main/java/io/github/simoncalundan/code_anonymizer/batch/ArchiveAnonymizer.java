@@ -0,0 +1,306 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Anonymizes the source entries of a zip or tar archive into a new archive of
+ * the same format, reading and writing both archives as streams. Nothing is
+ * extracted to disk and neither archive is held in memory as a whole.
+ * <p>
+ * Source entries are read into memory one at a time and anonymized on a work
+ * stealing pool, while the reader moves on to the next entries. Results are
+ * written in the original entry order, and at most a few entries per thread
+ * are in flight, which bounds the memory use. Other entries are copied through
+ * unchanged: directly if nothing is in flight, and otherwise buffered if they
+ * are small or after the entries in flight have been written. All entries take
+ * their names from one shared symbol table, like in directory mode.
+ * <p>
+ * Without include patterns, entries whose file extension belongs to a known
+ * language are anonymized. Entries that are not UTF-8 text are counted as
+ * skipped, and like entries that fail to anonymize they are left out of the
+ * new archive, so their original source is never written. An instance collects
+ * the totals of a single run.
+ */
+@Slf4j
+public class ArchiveAnonymizer {
+    static final int MAX_BUFFERED_COPY = 1024 * 1024;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int ENTRIES_PER_THREAD = 4;
+
+    private final CodeAnonymizerService anonymizerService;
+    private final LanguageInterpreterService languageService;
+    private final BatchOptions options;
+    private final SymbolTable symbolTable;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+
+    private final AtomicInteger files = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public ArchiveAnonymizer(CodeAnonymizerService anonymizerService, LanguageInterpreterService languageService,
+                             BatchOptions options, SymbolTable symbolTable) {
+        this.anonymizerService = anonymizerService;
+        this.languageService = languageService;
+        this.options = options;
+        this.symbolTable = symbolTable;
+        this.includes = options.includes().stream().map(DirectoryAnonymizer::globMatcher).toList();
+        this.excludes = options.excludes().stream().map(DirectoryAnonymizer::globMatcher).toList();
+    }
+
+    /**
+     * Anonymizes {@code source} into {@code target}, both in the given format.
+     */
+    public BatchSummary run(Path source, Path target, ArchiveFormat format) throws IOException {
+        long start = System.nanoTime();
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ExecutorService executor = Executors.newWorkStealingPool(options.threads());
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(source), STREAM_BUFFER_SIZE);
+             OutputStream output = new BufferedOutputStream(Files.newOutputStream(target), STREAM_BUFFER_SIZE)) {
+            switch (format) {
+                case ZIP -> copyZip(input, output, executor);
+                case TAR -> copyTar(input, output, executor);
+                case TAR_GZ -> {
+                    GZIPOutputStream gzip = new GZIPOutputStream(output, STREAM_BUFFER_SIZE);
+                    copyTar(new GZIPInputStream(input, STREAM_BUFFER_SIZE), gzip, executor);
+                    gzip.finish();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new BatchSummary(files.get(), skipped.get(), failed.get(), bytesRead.sum(), bytesWritten.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void copyZip(InputStream input, OutputStream output, ExecutorService executor) throws IOException {
+        ZipInputStream zipInput = new ZipInputStream(input);
+        ZipOutputStream zipOutput = new ZipOutputStream(output);
+        EntryPipeline<ZipEntry> pipeline = new EntryPipeline<>(executor, new EntryWriter<>() {
+            @Override
+            public void write(ZipEntry entry, byte[] content) throws IOException {
+                ZipEntry anonymized = new ZipEntry(entry.getName());
+                anonymized.setTime(entry.getTime());
+                anonymized.setComment(entry.getComment());
+                zipOutput.putNextEntry(anonymized);
+                zipOutput.write(content);
+                zipOutput.closeEntry();
+            }
+
+            @Override
+            public void copy(ZipEntry entry, InputStream content) throws IOException {
+                // Stored entries keep their size and checksum, the compressed size is computed again
+                ZipEntry copied = new ZipEntry(entry);
+                copied.setCompressedSize(-1);
+                zipOutput.putNextEntry(copied);
+                content.transferTo(zipOutput);
+                zipOutput.closeEntry();
+            }
+        });
+        for (ZipEntry entry = zipInput.getNextEntry(); entry != null; entry = zipInput.getNextEntry()) {
+            if (!entry.isDirectory() && isSource(entry.getName())) {
+                pipeline.anonymize(entry, entry.getName(), zipInput.readAllBytes());
+            } else {
+                pipeline.copy(entry, zipInput, entry.getSize());
+            }
+        }
+        pipeline.finish();
+        zipOutput.finish();
+    }
+
+    private void copyTar(InputStream input, OutputStream output, ExecutorService executor) throws IOException {
+        TarArchiveInputStream tarInput = new TarArchiveInputStream(input, StandardCharsets.UTF_8.name());
+        TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(output, StandardCharsets.UTF_8.name());
+        tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        tarOutput.setAddPaxHeadersForNonAsciiNames(true);
+        EntryPipeline<TarArchiveEntry> pipeline = new EntryPipeline<>(executor, new EntryWriter<>() {
+            @Override
+            public void write(TarArchiveEntry entry, byte[] content) throws IOException {
+                // Keeps mode, owner and times of the original entry
+                entry.setSize(content.length);
+                tarOutput.putArchiveEntry(entry);
+                tarOutput.write(content);
+                tarOutput.closeArchiveEntry();
+            }
+
+            @Override
+            public void copy(TarArchiveEntry entry, InputStream content) throws IOException {
+                tarOutput.putArchiveEntry(entry);
+                if (entry.isFile()) {
+                    content.transferTo(tarOutput);
+                }
+                tarOutput.closeArchiveEntry();
+            }
+        });
+        for (TarArchiveEntry entry = tarInput.getNextEntry(); entry != null; entry = tarInput.getNextEntry()) {
+            if (entry.isFile() && isSource(entry.getName())) {
+                pipeline.anonymize(entry, entry.getName(), tarInput.readAllBytes());
+            } else {
+                pipeline.copy(entry, tarInput, entry.isFile() ? entry.getSize() : 0);
+            }
+        }
+        pipeline.finish();
+        tarOutput.finish();
+    }
+
+    boolean isSource(String entryName) {
+        Path path;
+        try {
+            path = Path.of(entryName);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        if (DirectoryAnonymizer.matchesAny(excludes, path)) {
+            return false;
+        }
+        return includes.isEmpty() ? languageService.isKnownFromName(entryName) : DirectoryAnonymizer.matchesAny(includes, path);
+    }
+
+    /**
+     * Returns the anonymized content, or {@code null} if the entry is not
+     * UTF-8 text or anonymizing failed.
+     */
+    private byte[] anonymizeEntry(String entryName, byte[] content) {
+        String sourceCode;
+        try {
+            sourceCode = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content)).toString();
+        } catch (CharacterCodingException e) {
+            log.warn("Leaving out {}, it is not UTF-8 text", entryName);
+            skipped.incrementAndGet();
+            return null;
+        }
+        try {
+            byte[] anonymized = anonymizerService.anonymizeCode(sourceCode, entryName, options.preserveStringLiterals(),
+                    options.preserveComments(), symbolTable).getBytes(StandardCharsets.UTF_8);
+            files.incrementAndGet();
+            bytesRead.add(content.length);
+            bytesWritten.add(anonymized.length);
+            return anonymized;
+        } catch (RuntimeException e) {
+            log.error("Error processing entry {}, leaving it out: {}", entryName, e.getMessage());
+            failed.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Writes entries into the target archive.
+     */
+    private interface EntryWriter<E> {
+        void write(E entry, byte[] content) throws IOException;
+
+        void copy(E entry, InputStream content) throws IOException;
+    }
+
+    /**
+     * Keeps the entries in flight in archive order and writes each one once
+     * it is done and all entries before it are written.
+     */
+    private final class EntryPipeline<E> {
+        private final ExecutorService executor;
+        private final EntryWriter<E> writer;
+        private final int capacity = options.threads() * ENTRIES_PER_THREAD;
+        private final ArrayDeque<InFlight<E>> inFlight = new ArrayDeque<>();
+
+        private EntryPipeline(ExecutorService executor, EntryWriter<E> writer) {
+            this.executor = executor;
+            this.writer = writer;
+        }
+
+        void anonymize(E entry, String entryName, byte[] content) throws IOException {
+            writeUntil(capacity - 1);
+            inFlight.add(new InFlight<>(entry, executor.submit(() -> anonymizeEntry(entryName, content)), false));
+        }
+
+        /**
+         * @param size size of the content, negative if not known
+         */
+        void copy(E entry, InputStream content, long size) throws IOException {
+            if (!inFlight.isEmpty() && size >= 0 && size <= MAX_BUFFERED_COPY) {
+                writeUntil(capacity - 1);
+                inFlight.add(new InFlight<>(entry, CompletableFuture.completedFuture(content.readAllBytes()), true));
+                return;
+            }
+            writeUntil(0);
+            writer.copy(entry, content);
+        }
+
+        void finish() throws IOException {
+            writeUntil(0);
+        }
+
+        /**
+         * Writes the oldest entries until at most {@code remaining} are left.
+         */
+        private void writeUntil(int remaining) throws IOException {
+            while (inFlight.size() > remaining) {
+                InFlight<E> next = inFlight.poll();
+                byte[] content;
+                try {
+                    content = next.content().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while anonymizing an archive", e);
+                } catch (ExecutionException e) {
+                    throw new IOException("Unexpected failure while anonymizing an archive", e.getCause());
+                }
+                if (content == null) {
+                    continue;
+                }
+                if (next.copied()) {
+                    writer.copy(next.entry(), new ByteArrayInputStream(content));
+                } else {
+                    writer.write(next.entry(), content);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param copied whether the content is copied through rather than anonymized
+     */
+    private record InFlight<E>(E entry, Future<byte[]> content, boolean copied) {
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.util.Locale;
+
+/**
+ * Archive formats that can be anonymized entry by entry, recognized by the
+ * suffix of the file name.
+ */
+public enum ArchiveFormat {
+    /**
+     * Zip files, including jar, war and ear files.
+     */
+    ZIP,
+    TAR,
+    TAR_GZ;
+
+    /**
+     * Returns the format of the archive, or {@code null} if the name does
+     * not end in a known archive suffix.
+     */
+    public static ArchiveFormat of(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".zip") || name.endsWith(".jar") || name.endsWith(".war") || name.endsWith(".ear")) {
+            return ZIP;
+        }
+        if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return TAR_GZ;
+        }
+        if (name.endsWith(".tar")) {
+            return TAR;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.util.List;
+
+/**
+ * Settings for anonymizing many files in one run.
+ *
+ * @param includes     glob patterns a file must match, all files when empty
+ * @param excludes     glob patterns that skip a file even when it is included
+ * @param threads      number of worker threads
+ * @param memoryBudget estimated bytes of memory that files being anonymized
+ *                     at the same time may use, see {@link BatchScheduler}
+ */
+public record BatchOptions(List<String> includes,
+                           List<String> excludes,
+                           int threads,
+                           boolean preserveStringLiterals,
+                           boolean preserveComments,
+                           long memoryBudget) {
+
+    public BatchOptions {
+        includes = includes == null ? List.of() : List.copyOf(includes);
+        excludes = excludes == null ? List.of() : List.copyOf(excludes);
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        }
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memoryBudget must be positive, was " + memoryBudget);
+        }
+    }
+
+    /**
+     * Uses {@link BatchScheduler#defaultMemoryBudget()}.
+     */
+    public BatchOptions(List<String> includes, List<String> excludes, int threads, boolean preserveStringLiterals,
+                        boolean preserveComments) {
+        this(includes, excludes, threads, preserveStringLiterals, preserveComments,
+                BatchScheduler.defaultMemoryBudget());
+    }
+}
@@ -0,0 +1,240 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the files of a batch on a fixed number of workers while keeping the
+ * estimated memory of the files in flight below a budget.
+ * <p>
+ * Submitted files wait in a bounded queue, and {@link #submit} blocks while
+ * the queue is full, so the directory walk never runs far ahead of the
+ * workers. Workers always take the largest queued file, and only once its
+ * estimate fits into the unused budget. Starting with the largest files keeps
+ * one big file from being the only work left at the end of a run. A file
+ * estimated above the whole budget runs alone.
+ */
+public final class BatchScheduler {
+    /**
+     * Memory a file needs per byte while it is anonymized: the bytes read,
+     * the decoded string, the tokens and the output.
+     */
+    static final int BYTES_PER_SOURCE_BYTE = 6;
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final int MAX_SAMPLES = 1000;
+    private static final long INITIAL_SAMPLE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long budget;
+    private final int queueCapacity;
+    private final ExecutorService workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            Comparator.comparingLong(Task::weight).reversed().thenComparingLong(Task::sequence));
+    private long sequence;
+    private long bytesInFlight;
+    private boolean finished;
+    private Throwable failure;
+
+    private final long start = System.nanoTime();
+    private long lastChange = start;
+    private int tasks;
+    private int peakQueueDepth;
+    private long peakBytesInFlight;
+    private double queueDepthIntegral;
+    private double bytesInFlightIntegral;
+    private long submitBlockedNanos;
+    private final List<SchedulerStatistics.Sample> samples = new ArrayList<>();
+    private long sampleInterval = INITIAL_SAMPLE_INTERVAL;
+    private long lastSample = start - INITIAL_SAMPLE_INTERVAL;
+
+    BatchScheduler(int threads, long budget, int queueCapacity) {
+        this.budget = budget;
+        this.queueCapacity = queueCapacity;
+        this.workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Half of the maximum heap.
+     */
+    public static long defaultMemoryBudget() {
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * Queues a task, waiting while the queue is full. Tasks submitted after
+     * another task failed are dropped.
+     *
+     * @param sizeBytes size of the file the task anonymizes
+     */
+    void submit(long sizeBytes, Runnable task) throws InterruptedException {
+        long weight = sizeBytes >= budget / BYTES_PER_SOURCE_BYTE
+                ? budget
+                : Math.max(sizeBytes, 1) * BYTES_PER_SOURCE_BYTE;
+        lock.lock();
+        try {
+            if (queue.size() >= queueCapacity) {
+                long blocked = System.nanoTime();
+                while (queue.size() >= queueCapacity && failure == null) {
+                    notFull.await();
+                }
+                submitBlockedNanos += System.nanoTime() - blocked;
+            }
+            if (failure != null) {
+                return;
+            }
+            advance();
+            queue.add(new Task(weight, sequence++, task));
+            tasks++;
+            observe();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all submitted tasks have run.
+     *
+     * @throws ExecutionException with the first exception a task threw
+     */
+    SchedulerStatistics finish() throws InterruptedException, ExecutionException {
+        lock.lock();
+        try {
+            finished = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+        while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            // A large batch, keep waiting
+        }
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            advance();
+            return statistics();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the workers without waiting for queued tasks.
+     */
+    void cancel() {
+        workers.shutdownNow();
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while (true) {
+                    task = queue.peek();
+                    if (task == null && finished) {
+                        return;
+                    }
+                    if (task != null && bytesInFlight + task.weight() <= budget) {
+                        break;
+                    }
+                    changed.await();
+                }
+                advance();
+                queue.poll();
+                bytesInFlight += task.weight();
+                observe();
+                notFull.signal();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable thrown = null;
+            try {
+                task.runnable().run();
+            } catch (Throwable t) {
+                thrown = t;
+            }
+
+            lock.lock();
+            try {
+                advance();
+                bytesInFlight -= task.weight();
+                if (thrown != null && failure == null) {
+                    failure = thrown;
+                    queue.clear();
+                    notFull.signalAll();
+                }
+                observe();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds the time since the last change to the averages. Called with the
+     * lock held, before the queue or the bytes in flight change.
+     */
+    private void advance() {
+        long now = System.nanoTime();
+        queueDepthIntegral += (double) queue.size() * (now - lastChange);
+        bytesInFlightIntegral += (double) bytesInFlight * (now - lastChange);
+        lastChange = now;
+    }
+
+    /**
+     * Updates the peaks and the timeline after a change. The timeline halves
+     * its resolution whenever it is full, so long runs keep a bounded number
+     * of samples that still cover the whole run.
+     */
+    private void observe() {
+        peakQueueDepth = Math.max(peakQueueDepth, queue.size());
+        peakBytesInFlight = Math.max(peakBytesInFlight, bytesInFlight);
+        if (lastChange - lastSample < sampleInterval) {
+            return;
+        }
+        if (samples.size() == MAX_SAMPLES) {
+            for (int i = 0; i < MAX_SAMPLES / 2; i++) {
+                samples.set(i, samples.get(i * 2));
+            }
+            samples.subList(MAX_SAMPLES / 2, MAX_SAMPLES).clear();
+            sampleInterval *= 2;
+        }
+        samples.add(new SchedulerStatistics.Sample(Duration.ofNanos(lastChange - start), queue.size(), bytesInFlight));
+        lastSample = lastChange;
+    }
+
+    private SchedulerStatistics statistics() {
+        long elapsed = Math.max(lastChange - start, 1);
+        return new SchedulerStatistics(tasks, budget, peakQueueDepth, queueDepthIntegral / elapsed,
+                peakBytesInFlight, bytesInFlightIntegral / elapsed, Duration.ofNanos(submitBlockedNanos),
+                List.copyOf(samples));
+    }
+
+    private record Task(long weight, long sequence, Runnable runnable) {
+    }
+}
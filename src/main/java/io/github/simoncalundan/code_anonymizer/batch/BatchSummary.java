@@ -0,0 +1,19 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.time.Duration;
+
+/**
+ * Totals of a batch run.
+ *
+ * @param files   files anonymized successfully
+ * @param skipped files that are not valid UTF-8 text
+ * @param failed  files that could not be read or written
+ */
+public record BatchSummary(int files, int skipped, int failed, long bytesRead, long bytesWritten, Duration elapsed) {
+
+    public String format() {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+        return String.format("Anonymized %d files (%d skipped, %d failed), read %d bytes, wrote %d bytes in %.3f s (%.1f MB/s)",
+                files, skipped, failed, bytesRead, bytesWritten, seconds, bytesRead / seconds / (1024 * 1024));
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.io.ChannelWriter;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Anonymizes every matching file below a directory with a
+ * {@link BatchScheduler} and writes the results into a mirrored directory
+ * tree. All files take their
+ * names from one shared symbol table, so an identifier is renamed the same way
+ * everywhere. Output files are replaced atomically. An instance collects the
+ * totals of a single run.
+ */
+@Slf4j
+public class DirectoryAnonymizer {
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    private final CodeAnonymizerService anonymizerService;
+    private final BatchOptions options;
+    private final SymbolTable symbolTable;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+
+    private final AtomicInteger files = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private SchedulerStatistics schedulerStatistics;
+
+    public DirectoryAnonymizer(CodeAnonymizerService anonymizerService, BatchOptions options, SymbolTable symbolTable) {
+        this.anonymizerService = anonymizerService;
+        this.options = options;
+        this.symbolTable = symbolTable;
+        this.includes = options.includes().stream().map(DirectoryAnonymizer::globMatcher).toList();
+        this.excludes = options.excludes().stream().map(DirectoryAnonymizer::globMatcher).toList();
+    }
+
+    /**
+     * Anonymizes all selected files. Files are handed to the scheduler while
+     * the tree is walked, so the largest file first means the largest file
+     * queued so far.
+     */
+    public BatchSummary run(Path sourceRoot, Path outputRoot) throws IOException {
+        Path source = sourceRoot.toAbsolutePath().normalize();
+        Path output = outputRoot.toAbsolutePath().normalize();
+        return schedule(source, scheduler -> walk(source, output, (relativePath, size) ->
+                submit(scheduler, source, output, relativePath, size)));
+    }
+
+    /**
+     * Anonymizes only the given files, the largest first.
+     *
+     * @param relativePaths files to anonymize, relative to {@code sourceRoot}
+     */
+    public BatchSummary run(Path sourceRoot, Path outputRoot, Collection<Path> relativePaths) throws IOException {
+        Path source = sourceRoot.toAbsolutePath().normalize();
+        Path output = outputRoot.toAbsolutePath().normalize();
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path relativePath : relativePaths) {
+            sizes.put(relativePath, sizeOf(source.resolve(relativePath)));
+        }
+        List<Path> largestFirst = new ArrayList<>(sizes.keySet());
+        largestFirst.sort(Comparator.comparing(sizes::get, Comparator.reverseOrder()));
+        return schedule(source, scheduler -> {
+            for (Path relativePath : largestFirst) {
+                submit(scheduler, source, output, relativePath, sizes.get(relativePath));
+            }
+        });
+    }
+
+    /**
+     * Returns how the queue and the memory budget were used by the last run,
+     * or {@code null} before the first run.
+     */
+    public SchedulerStatistics getSchedulerStatistics() {
+        return schedulerStatistics;
+    }
+
+    /**
+     * Returns the paths of all selected regular files below {@code sourceRoot},
+     * relative to it. The output directory and {@code .git} directories are
+     * not entered.
+     */
+    public List<Path> selectFiles(Path sourceRoot, Path outputRoot) throws IOException {
+        Path source = sourceRoot.toAbsolutePath().normalize();
+        Path output = outputRoot.toAbsolutePath().normalize();
+        List<Path> selected = new ArrayList<>();
+        walk(source, output, (relativePath, size) -> selected.add(relativePath));
+        return selected;
+    }
+
+    private BatchSummary schedule(Path source, Submissions submissions) throws IOException {
+        long start = System.nanoTime();
+        BatchScheduler scheduler = new BatchScheduler(options.threads(), options.memoryBudget(),
+                BatchScheduler.DEFAULT_QUEUE_CAPACITY);
+        try {
+            submissions.submitTo(scheduler);
+            schedulerStatistics = scheduler.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while anonymizing " + source, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unexpected failure while anonymizing " + source, e.getCause());
+        } finally {
+            scheduler.cancel();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Scheduler timeline:\n{}", schedulerStatistics.formatTimeline());
+        }
+
+        return new BatchSummary(files.get(), skipped.get(), failed.get(), bytesRead.sum(), bytesWritten.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void submit(BatchScheduler scheduler, Path source, Path output, Path relativePath, long size)
+            throws InterruptedException {
+        scheduler.submit(size, () -> anonymizeFile(source.resolve(relativePath), output.resolve(relativePath)));
+    }
+
+    private void walk(Path source, Path output, FileConsumer consumer) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                if (dir.startsWith(output) || (dir.getFileName() != null && dir.getFileName().toString().equals(".git"))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Path relativePath = source.relativize(file);
+                if (Files.isRegularFile(file) && isSelected(relativePath)) {
+                    try {
+                        consumer.accept(relativePath, attributes.isRegularFile() ? attributes.size() : sizeOf(file));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while walking " + source);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            // Reported when the file is read
+            return 0;
+        }
+    }
+
+    boolean isSelected(Path relativePath) {
+        return (includes.isEmpty() || matchesAny(includes, relativePath)) && !matchesAny(excludes, relativePath);
+    }
+
+    /**
+     * Writes the anonymized file next to the target and moves it into place
+     * once complete, so a failed write leaves neither a truncated target nor
+     * a partial file behind. A target from an earlier run stays as it was.
+     * Any failure, including one of the engine, only fails this file.
+     */
+    private void anonymizeFile(Path file, Path target) {
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            String sourceCode;
+            try {
+                sourceCode = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+            } catch (CharacterCodingException e) {
+                log.debug("Skipping {}, it is not UTF-8 text", file);
+                skipped.incrementAndGet();
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Path partial = target.resolveSibling("." + target.getFileName() + PARTIAL_SUFFIX);
+            try {
+                ChannelWriter writer = ChannelWriter.toFile(partial);
+                try (writer) {
+                    anonymizerService.anonymizeCode(sourceCode, writer, file.toString(),
+                            options.preserveStringLiterals(), options.preserveComments(), symbolTable);
+                }
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                files.incrementAndGet();
+                bytesRead.add(bytes.length);
+                bytesWritten.add(writer.bytesWritten());
+            } finally {
+                deletePartial(partial);
+            }
+        } catch (IOException e) {
+            log.error("Error processing file {}: {}", file, e.getMessage());
+            failed.incrementAndGet();
+        } catch (RuntimeException e) {
+            // A bug in the engine on one file must not end the batch or the watch loop
+            log.error("Error processing file {}: {}", file, e.toString(), e);
+            failed.incrementAndGet();
+        }
+    }
+
+    private static void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            log.warn("Could not remove {}: {}", partial, e.getMessage());
+        }
+    }
+
+    /**
+     * Patterns without a directory separator are matched against the file
+     * name, so {@code *.java} selects Java files at any depth.
+     */
+    static PathMatcher globMatcher(String pattern) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        if (pattern.contains("/")) {
+            return matcher;
+        }
+        return path -> path.getFileName() != null && matcher.matches(path.getFileName());
+    }
+
+    static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private interface Submissions {
+        void submitTo(BatchScheduler scheduler) throws IOException, InterruptedException;
+    }
+
+    private interface FileConsumer {
+        void accept(Path relativePath, long size) throws InterruptedException;
+    }
+}
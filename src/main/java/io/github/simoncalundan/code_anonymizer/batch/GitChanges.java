@@ -0,0 +1,83 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Asks the {@code git} executable which files of a working tree changed.
+ * Every method fails with an {@link IOException} when the directory is not
+ * inside a working tree or git is not installed.
+ */
+final class GitChanges {
+    private final Path directory;
+
+    GitChanges(Path directory) {
+        this.directory = directory;
+    }
+
+    String headCommit() throws IOException {
+        return git("rev-parse", "--verify", "HEAD").trim();
+    }
+
+    /**
+     * Returns the paths, relative to the directory, that differ between the
+     * commit and the working tree, plus all untracked files that are not
+     * ignored. Renames show up as the old and the new path.
+     */
+    Set<String> changedSince(String commit) throws IOException {
+        Set<String> paths = new LinkedHashSet<>();
+        paths.addAll(split(git("diff", "--name-only", "--relative", "--no-renames", "-z", commit, "--", ".")));
+        paths.addAll(split(git("ls-files", "--others", "--exclude-standard", "-z", "--", ".")));
+        return paths;
+    }
+
+    /**
+     * Returns the untracked files, relative to the directory, that git ignores.
+     * Git never reports changes to them.
+     */
+    Set<String> ignoredFiles() throws IOException {
+        return new LinkedHashSet<>(split(git("ls-files", "--others", "--ignored", "--exclude-standard", "-z", "--", ".")));
+    }
+
+    private String git(String... arguments) throws IOException {
+        List<String> command = new ArrayList<>(arguments.length + 3);
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        String output;
+        try (InputStream stdout = process.getInputStream()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            stdout.transferTo(buffer);
+            output = buffer.toString(StandardCharsets.UTF_8);
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git " + arguments[0] + " failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git " + arguments[0], e);
+        }
+        return output;
+    }
+
+    private static List<String> split(String nulSeparated) {
+        List<String> paths = new ArrayList<>();
+        for (String path : nulSeparated.split("\0")) {
+            if (!path.isEmpty()) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+}
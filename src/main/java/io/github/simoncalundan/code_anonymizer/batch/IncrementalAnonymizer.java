@@ -0,0 +1,253 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Brings a mirrored output tree up to date with as little work as possible.
+ * <p>
+ * The previous run leaves a {@link RunManifest} with the content hash of every
+ * file in the output directory. Files are anonymized again only when their
+ * hash changed. Inside a git working tree, only the files git reports as
+ * changed since the commit of the previous run, those that had uncommitted
+ * changes during it and those git ignores are hashed at all. Outputs of removed files are deleted,
+ * and outputs of files that were only renamed are moved instead of anonymized
+ * again.
+ * <p>
+ * Kept outputs are only consistent with new ones when identifier names stay
+ * stable, so the symbol table of the {@link DirectoryAnonymizer} should be
+ * loaded from and saved to a mapping file around every run.
+ */
+@Slf4j
+public class IncrementalAnonymizer {
+    private final DirectoryAnonymizer directoryAnonymizer;
+    private final String settings;
+
+    /**
+     * @param settings description of every setting that affects the output,
+     *                 a change of settings makes the next run start from scratch
+     */
+    public IncrementalAnonymizer(DirectoryAnonymizer directoryAnonymizer, String settings) {
+        this.directoryAnonymizer = directoryAnonymizer;
+        this.settings = settings;
+    }
+
+    public IncrementalSummary run(Path sourceRoot, Path outputRoot) throws IOException {
+        Path source = sourceRoot.toAbsolutePath().normalize();
+        Path output = outputRoot.toAbsolutePath().normalize();
+        Path manifestFile = output.resolve(RunManifest.FILE_NAME);
+
+        RunManifest previous = Files.exists(manifestFile) ? RunManifest.load(manifestFile) : null;
+        if (previous != null && !settings.equals(previous.settings())) {
+            log.info("Settings changed since the last run, anonymizing all files");
+            previous = null;
+        }
+        Map<String, String> previousFiles = previous == null ? Map.of() : previous.files();
+        GitChanges git = new GitChanges(source);
+        String commit = headCommit(git);
+        Set<String> uncommitted = commit == null ? null : uncommittedFiles(git, commit, source, output);
+
+        String changes;
+        Collection<String> candidates = null;
+        if (previous == null) {
+            changes = "full";
+        } else if (previous.gitCommit() != null && previous.uncommittedFiles() != null && uncommitted != null) {
+            candidates = changedSince(git, previous, commit, uncommitted, source, output);
+            changes = candidates == null ? "manifest" : "git";
+        } else {
+            changes = "manifest";
+        }
+        if (candidates == null) {
+            candidates = directoryAnonymizer.selectFiles(source, output).stream().map(IncrementalAnonymizer::key).toList();
+        }
+
+        Map<String, String> hashes = hashAll(source, candidates);
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            if (!entry.getValue().equals(previousFiles.get(entry.getKey()))
+                    || !Files.exists(output.resolve(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String path : previousFiles.keySet()) {
+            if (!hashes.containsKey(path) && !Files.isRegularFile(source.resolve(path))) {
+                removed.add(path);
+            }
+        }
+
+        int renamed = moveRenamedOutputs(output, previousFiles, hashes, changed, removed);
+        for (String path : removed) {
+            Files.deleteIfExists(output.resolve(path));
+        }
+        for (String path : changed) {
+            if (previousFiles.containsKey(path)) {
+                // Never leave a stale output behind if the file is skipped or fails this time
+                Files.deleteIfExists(output.resolve(path));
+            }
+        }
+
+        BatchSummary batch = directoryAnonymizer.run(source, output, changed.stream().map(Path::of).toList());
+
+        Map<String, String> files = new HashMap<>(previousFiles);
+        files.keySet().removeAll(removed);
+        files.putAll(hashes);
+        for (String path : changed) {
+            if (!Files.exists(output.resolve(path))) {
+                // Skipped or failed, try again next time
+                files.remove(path);
+            }
+        }
+        new RunManifest(settings, commit, uncommitted, files).save(manifestFile);
+
+        int unchanged = files.size() - batch.files() - renamed;
+        return new IncrementalSummary(batch, Math.max(unchanged, 0), removed.size(), renamed, changes);
+    }
+
+    /**
+     * Moves the output of a removed file to a new file with the same content
+     * and extension, and takes both out of the work lists. Returns the number
+     * of moved outputs.
+     */
+    private static int moveRenamedOutputs(Path output, Map<String, String> previousFiles, Map<String, String> hashes,
+                                          List<String> changed, List<String> removed) throws IOException {
+        Map<String, Deque<String>> removedByHash = new HashMap<>();
+        for (String path : removed) {
+            removedByHash.computeIfAbsent(previousFiles.get(path), hash -> new ArrayDeque<>()).add(path);
+        }
+        int renamed = 0;
+        for (int i = changed.size() - 1; i >= 0; i--) {
+            String path = changed.get(i);
+            Deque<String> candidates = removedByHash.get(hashes.get(path));
+            if (previousFiles.containsKey(path) || candidates == null) {
+                continue;
+            }
+            for (String oldPath : candidates) {
+                Path oldOutput = output.resolve(oldPath);
+                if (extensionOf(oldPath).equals(extensionOf(path)) && Files.exists(oldOutput)) {
+                    Path newOutput = output.resolve(path);
+                    Files.createDirectories(newOutput.getParent());
+                    Files.move(oldOutput, newOutput, StandardCopyOption.REPLACE_EXISTING);
+                    candidates.remove(oldPath);
+                    removed.remove(oldPath);
+                    changed.remove(i);
+                    renamed++;
+                    break;
+                }
+            }
+        }
+        return renamed;
+    }
+
+    private static String headCommit(GitChanges git) {
+        try {
+            return git.headCommit();
+        } catch (IOException e) {
+            log.debug("Not using git: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the selected paths that differ from the commit in the working
+     * tree, including deleted ones, or {@code null} if git cannot tell.
+     */
+    private Set<String> uncommittedFiles(GitChanges git, String commit, Path source, Path output) {
+        Set<String> paths;
+        try {
+            paths = git.changedSince(commit);
+        } catch (IOException e) {
+            log.debug("Could not ask git for uncommitted changes: {}", e.getMessage());
+            return null;
+        }
+        Set<String> selected = new HashSet<>();
+        for (String path : paths) {
+            if (isSelected(path, source, output)) {
+                selected.add(path);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the selected files among the paths git reports as changed since
+     * the commit of the previous run, plus the files that had uncommitted
+     * changes during that run, since they may have been reverted since, plus
+     * the files git ignores, since git never reports changes to them. Returns
+     * {@code null} if git cannot tell.
+     */
+    private Collection<String> changedSince(GitChanges git, RunManifest previous, String commit,
+                                            Set<String> uncommitted, Path source, Path output) {
+        Set<String> paths = new LinkedHashSet<>(previous.uncommittedFiles());
+        try {
+            paths.addAll(previous.gitCommit().equals(commit) ? uncommitted : git.changedSince(previous.gitCommit()));
+            paths.addAll(git.ignoredFiles());
+        } catch (IOException e) {
+            log.info("Could not ask git for changes since {}, comparing all files: {}", previous.gitCommit(),
+                    e.getMessage());
+            return null;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String path : paths) {
+            if (isSelected(path, source, output) && Files.isRegularFile(source.resolve(path))) {
+                selected.add(path);
+            }
+        }
+        return selected;
+    }
+
+    private boolean isSelected(String path, Path source, Path output) {
+        return !source.resolve(path).normalize().startsWith(output) && directoryAnonymizer.isSelected(Path.of(path));
+    }
+
+    private static Map<String, String> hashAll(Path source, Collection<String> paths) throws IOException {
+        Map<String, String> hashes = new ConcurrentHashMap<>();
+        try {
+            paths.parallelStream().forEach(path -> hashes.put(path, hash(source.resolve(path))));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return hashes;
+    }
+
+    private static String hash(Path file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String key(Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    private static String extensionOf(String path) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        return dot > slash ? path.substring(dot + 1) : "";
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+/**
+ * Totals of an incremental run.
+ *
+ * @param batch     totals of the files that were anonymized again
+ * @param unchanged files whose output was kept
+ * @param deleted   outputs deleted because their source file is gone
+ * @param renamed   outputs moved because their source file was renamed
+ * @param changes   how changed files were found: {@code git}, {@code manifest} or {@code full} for a first run
+ */
+public record IncrementalSummary(BatchSummary batch, int unchanged, int deleted, int renamed, String changes) {
+
+    public String format() {
+        return batch.format() + System.lineSeparator()
+                + String.format("Incremental (%s): %d unchanged, %d deleted, %d renamed", changes, unchanged, deleted, renamed);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Record of a directory run, kept in the output directory so the next
+ * incremental run can tell which files changed.
+ *
+ * @param settings         settings that affect the output; a run with other settings starts from scratch
+ * @param gitCommit        commit checked out in the source tree during the run, or {@code null}
+ * @param uncommittedFiles selected paths that differed from {@code gitCommit} in the working tree during the run,
+ *                         or {@code null} if git was not used
+ * @param files            content hash of every anonymized file, by path relative to the source root with {@code /} separators
+ */
+record RunManifest(String settings, String gitCommit, Set<String> uncommittedFiles, Map<String, String> files) {
+    static final String FILE_NAME = ".anonymizer-manifest.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static RunManifest load(Path file) throws IOException {
+        RunManifest manifest = MAPPER.readValue(file.toFile(), RunManifest.class);
+        return new RunManifest(manifest.settings(), manifest.gitCommit(), manifest.uncommittedFiles(),
+                manifest.files() == null ? Map.of() : manifest.files());
+    }
+
+    /**
+     * Writes the manifest as JSON, with files ordered by path.
+     */
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), new RunManifest(settings, gitCommit,
+                uncommittedFiles == null ? null : new TreeSet<>(uncommittedFiles), new TreeMap<>(files)));
+    }
+}
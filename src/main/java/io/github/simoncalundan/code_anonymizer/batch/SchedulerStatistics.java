@@ -0,0 +1,38 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * How full the queue and the memory budget of a {@link BatchScheduler} were
+ * during a run. The means are weighted by time.
+ *
+ * @param submitBlocked time the directory walk waited for room in the queue
+ * @param timeline      queue depth and bytes in flight over the run
+ */
+public record SchedulerStatistics(int tasks, long budget, int peakQueueDepth, double meanQueueDepth,
+                                  long peakBytesInFlight, double meanBytesInFlight, Duration submitBlocked,
+                                  List<Sample> timeline) {
+
+    public String format() {
+        return String.format("Scheduler: %d files, queue depth peak %d mean %.1f, memory budget use peak %.1f%% mean %.1f%% of %d MB, walk blocked %.3f s",
+                tasks, peakQueueDepth, meanQueueDepth, peakBytesInFlight * 100.0 / budget,
+                meanBytesInFlight * 100.0 / budget, budget / (1024 * 1024), submitBlocked.toNanos() / 1_000_000_000.0);
+    }
+
+    /**
+     * One line per sample, for plotting the run.
+     */
+    public String formatTimeline() {
+        StringBuilder lines = new StringBuilder("elapsed_ms,queue_depth,bytes_in_flight\n");
+        for (Sample sample : timeline) {
+            lines.append(sample.elapsed().toMillis()).append(',')
+                    .append(sample.queueDepth()).append(',')
+                    .append(sample.bytesInFlight()).append('\n');
+        }
+        return lines.toString();
+    }
+
+    public record Sample(Duration elapsed, int queueDepth, long bytesInFlight) {
+    }
+}
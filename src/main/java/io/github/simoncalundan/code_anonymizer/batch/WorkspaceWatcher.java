@@ -0,0 +1,269 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a mirrored output tree up to date while files below the source
+ * directory change, using a {@link WatchService} on every directory of the
+ * tree.
+ * <p>
+ * Events are collected until the tree has been quiet for the debounce delay,
+ * so the bursts of an editor saving, a formatter or a branch switch become one
+ * update. Continuous changes are still flushed every ten delays. Each update
+ * anonymizes only the changed files with a {@link DirectoryAnonymizer} and
+ * deletes the outputs of removed files and directories. The service and the
+ * symbol table stay the same for all updates, so names remain consistent.
+ * When the watch service loses events, the whole tree is anonymized again
+ * and outputs whose source is gone are deleted.
+ */
+@Slf4j
+public class WorkspaceWatcher implements AutoCloseable {
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    private static final int MAX_DELAY_FACTOR = 10;
+
+    private final CodeAnonymizerService anonymizerService;
+    private final BatchOptions options;
+    private final SymbolTable symbolTable;
+    private final Path source;
+    private final Path output;
+    private final Duration debounce;
+    private final Consumer<BatchSummary> afterUpdate;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * @param afterUpdate called after every update, e.g. to save the symbol table
+     */
+    public WorkspaceWatcher(CodeAnonymizerService anonymizerService, BatchOptions options, SymbolTable symbolTable,
+                            Path sourceRoot, Path outputRoot, Duration debounce,
+                            Consumer<BatchSummary> afterUpdate) throws IOException {
+        this.anonymizerService = anonymizerService;
+        this.options = options;
+        this.symbolTable = symbolTable;
+        this.source = sourceRoot.toAbsolutePath().normalize();
+        this.output = outputRoot.toAbsolutePath().normalize();
+        this.debounce = debounce;
+        this.afterUpdate = afterUpdate;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        registerTree(source, null);
+    }
+
+    /**
+     * Watches until the watcher is closed or the thread is interrupted. The
+     * output is expected to be up to date with the tree as it was when the
+     * watcher was created. Changes made since then are already queued, so the
+     * watcher can be created before an initial run without missing edits made
+     * while that run was busy.
+     */
+    public void run() throws IOException {
+        log.info("Watching {} for changes", source);
+        Set<Path> changed = new LinkedHashSet<>();
+        boolean rescan = false;
+        long firstEvent = 0;
+        long lastEvent = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changed.isEmpty() && !rescan) {
+                    key = watchService.take();
+                } else {
+                    long now = System.nanoTime();
+                    long quietUntil = lastEvent + debounce.toNanos();
+                    long flushAt = Math.min(quietUntil, firstEvent + debounce.toNanos() * MAX_DELAY_FACTOR);
+                    if (now >= flushAt) {
+                        update(changed, rescan);
+                        changed.clear();
+                        rescan = false;
+                        continue;
+                    }
+                    key = watchService.poll(flushAt - now, TimeUnit.NANOSECONDS);
+                    if (key == null) {
+                        continue;
+                    }
+                }
+                if (changed.isEmpty() && !rescan) {
+                    firstEvent = System.nanoTime();
+                }
+                lastEvent = System.nanoTime();
+                rescan |= collect(key, changed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by another thread
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Adds the changed paths of the key to {@code changed} and watches new
+     * directories. Returns whether events were lost.
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (isIgnored(path)) {
+                continue;
+            }
+            changed.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    // Files may have been created before the directory was watched
+                    registerTree(path, changed);
+                } catch (IOException e) {
+                    log.debug("Not watching {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    void update(Set<Path> changed, boolean rescan) throws IOException {
+        DirectoryAnonymizer directoryAnonymizer = new DirectoryAnonymizer(anonymizerService, options, symbolTable);
+        List<Path> files = new ArrayList<>();
+        int removed = 0;
+        if (rescan) {
+            log.info("Change events were lost, anonymizing all files again");
+            files.addAll(directoryAnonymizer.selectFiles(source, output));
+            removed = deleteStaleOutputs(directoryAnonymizer);
+        } else {
+            for (Path path : changed) {
+                Path relativePath = source.relativize(path);
+                if (Files.isRegularFile(path)) {
+                    if (directoryAnonymizer.isSelected(relativePath)) {
+                        files.add(relativePath);
+                    }
+                } else if (!Files.exists(path) && deleteOutput(output.resolve(relativePath).normalize())) {
+                    removed++;
+                }
+            }
+        }
+        BatchSummary summary = directoryAnonymizer.run(source, output, files);
+        if (removed > 0) {
+            log.info("Removed {} outputs", removed);
+        }
+        afterUpdate.accept(summary);
+    }
+
+    /**
+     * Deletes the outputs of selected files that no longer exist below the
+     * source directory, and directories left empty by that whose source
+     * directory is gone. Files that are not selected, such as the run
+     * manifest or files put into the output by hand, are kept.
+     */
+    private int deleteStaleOutputs(DirectoryAnonymizer directoryAnonymizer) throws IOException {
+        if (!Files.isDirectory(output)) {
+            return 0;
+        }
+        List<Path> paths;
+        try (Stream<Path> tree = Files.walk(output)) {
+            paths = tree.filter(path -> !path.equals(output) && !path.startsWith(source))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        }
+        int removed = 0;
+        for (Path path : paths) {
+            Path relativePath = output.relativize(path);
+            if (Files.exists(source.resolve(relativePath))) {
+                continue;
+            }
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> entries = Files.list(path)) {
+                    if (entries.findAny().isEmpty()) {
+                        Files.delete(path);
+                    }
+                }
+            } else if (directoryAnonymizer.isSelected(relativePath)
+                    && !relativePath.toString().equals(RunManifest.FILE_NAME)) {
+                Files.delete(path);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean deleteOutput(Path target) throws IOException {
+        if (!target.startsWith(output) || target.equals(output) || !Files.exists(target)) {
+            return false;
+        }
+        try (Stream<Path> tree = Files.walk(target)) {
+            for (Path path : tree.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Watches the directory and all directories below it, except the output
+     * directory and {@code .git} directories.
+     *
+     * @param files receives the files found below the directory, or {@code null}
+     */
+    private void registerTree(Path root, Set<Path> files) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (isIgnored(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (files != null) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean isIgnored(Path path) {
+        return path.startsWith(output) || (path.getFileName() != null && path.getFileName().toString().equals(".git"));
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+/**
+ * Counts of cache lookups. A cached result that does not fit the symbol table
+ * of the request counts as a miss.
+ */
+public record CacheStatistics(long memoryHits, long diskHits, long misses) {
+
+    public long requests() {
+        return memoryHits + diskHits + misses;
+    }
+
+    public double hitRatio() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) (memoryHits + diskHits) / requests;
+    }
+
+    public String format() {
+        return String.format("Cache: %d hits (%d memory, %d disk), %d misses, %.1f%% hit ratio",
+                memoryHits + diskHits, memoryHits, diskHits, misses, hitRatio() * 100);
+    }
+}
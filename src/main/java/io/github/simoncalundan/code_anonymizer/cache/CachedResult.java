@@ -0,0 +1,41 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+
+import java.util.List;
+
+/**
+ * Output of one anonymization together with the names it took from the
+ * symbol table, in the order they were first requested.
+ *
+ * @param identifiers distinct original identifiers in order of first use
+ * @param names       name the symbol table returned for each identifier
+ */
+public record CachedResult(String anonymizedCode, List<String> identifiers, List<String> names) {
+
+    /**
+     * Requests every name from the symbol table in the original order, which
+     * has the same effect on the table as anonymizing the source again.
+     * Returns whether the table handed out the same names as before, that is
+     * whether the cached output is valid for this table.
+     */
+    boolean replay(SymbolTable symbolTable) {
+        for (int i = 0; i < identifiers.size(); i++) {
+            if (!symbolTable.nameFor(identifiers.get(i)).equals(names.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Approximate heap size in bytes.
+     */
+    long weight() {
+        long chars = anonymizedCode.length();
+        for (int i = 0; i < identifiers.size(); i++) {
+            chars += identifiers.get(i).length() + names.get(i).length();
+        }
+        return 2 * chars + 64L * (identifiers.size() + 1);
+    }
+}
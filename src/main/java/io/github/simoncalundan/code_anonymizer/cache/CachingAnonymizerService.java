@@ -0,0 +1,144 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import io.github.simoncalundan.code_anonymizer.io.PrefixedReader;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the results of another {@link CodeAnonymizerService}, keyed by a hash
+ * of the source, the engine, the interpreter, the name lists and the
+ * preservation flags.
+ * <p>
+ * Results depend on the symbol table they were produced with. Every entry
+ * therefore remembers the names it used, and a hit first requests them from
+ * the table of the current call. If the table hands out different names, for
+ * example because a shared table already assigned them elsewhere, the source
+ * is anonymized again.
+ * <p>
+ * Streaming calls are cached when the source is shorter than
+ * {@link #MAX_CACHED_STREAM_LENGTH}, longer sources are streamed uncached.
+ */
+public class CachingAnonymizerService implements CodeAnonymizerService {
+    public static final long DEFAULT_MEMORY_BYTES = 64L * 1024 * 1024;
+    static final int MAX_CACHED_STREAM_LENGTH = 1024 * 1024;
+    /**
+     * Part of every key, so a build does not read results that an older build
+     * wrote to the disk tier. Packaged builds add their release version. The
+     * number must be bumped by every change that alters the output of an
+     * engine for the same input, since development builds between two
+     * releases share a version.
+     */
+    static final String KEY_VERSION = "2/" + Objects.requireNonNullElse(
+            CachingAnonymizerService.class.getPackage().getImplementationVersion(), "development");
+
+    private final CodeAnonymizerService delegate;
+    private final LanguageInterpreterService languageService;
+    private final MemoryResultCache memoryCache;
+    private final DiskResultCache diskCache;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxMemoryBytes approximate size limit of the in-memory tier
+     * @param cacheDirectory directory of the on-disk tier, or {@code null} to keep results in memory only
+     */
+    public CachingAnonymizerService(CodeAnonymizerService delegate, LanguageInterpreterService languageService,
+                                    long maxMemoryBytes, Path cacheDirectory) {
+        this.delegate = delegate;
+        this.languageService = languageService;
+        this.memoryCache = new MemoryResultCache(maxMemoryBytes);
+        this.diskCache = cacheDirectory == null ? null : new DiskResultCache(cacheDirectory);
+    }
+
+    @Override
+    public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments,
+                                SymbolTable symbolTable) {
+        if (sourceCode == null || sourceCode.isEmpty()) {
+            return delegate.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments, symbolTable);
+        }
+        String key = ContentHash.of(KEY_VERSION, delegate.getClass().getName(),
+                languageService.getInterpreterForFile(fileName, sourceCode).getClass().getName(),
+                languageService.getNameLists().fingerprint(),
+                preserveStringLiterals ? "S" : "s", preserveComments ? "C" : "c", sourceCode);
+
+        CachedResult cached = memoryCache.get(key);
+        if (cached != null && cached.replay(symbolTable)) {
+            memoryHits.increment();
+            return cached.anonymizedCode();
+        }
+        if (cached == null && diskCache != null) {
+            cached = diskCache.get(key);
+            if (cached != null && cached.replay(symbolTable)) {
+                diskHits.increment();
+                memoryCache.put(key, cached);
+                return cached.anonymizedCode();
+            }
+        }
+        misses.increment();
+
+        RecordingSymbolTable recordingTable = new RecordingSymbolTable(symbolTable);
+        String anonymizedCode = delegate.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments,
+                recordingTable);
+        CachedResult result = new CachedResult(anonymizedCode, recordingTable.identifiers, recordingTable.names);
+        memoryCache.put(key, result);
+        if (diskCache != null) {
+            diskCache.put(key, result);
+        }
+        return anonymizedCode;
+    }
+
+    @Override
+    public void anonymize(Reader source, Writer target, String fileName, boolean preserveStringLiterals,
+                          boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        String prefix = PrefixedReader.readPrefix(source, MAX_CACHED_STREAM_LENGTH);
+        if (prefix.length() < MAX_CACHED_STREAM_LENGTH) {
+            target.write(anonymizeCode(prefix, fileName, preserveStringLiterals, preserveComments, symbolTable));
+        } else {
+            delegate.anonymize(new PrefixedReader(prefix, source), target, fileName, preserveStringLiterals,
+                    preserveComments, symbolTable);
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(memoryHits.sum(), diskHits.sum(), misses.sum());
+    }
+
+    /**
+     * Records the names handed out for one call, in order of first request.
+     */
+    private static final class RecordingSymbolTable implements SymbolTable {
+        private final SymbolTable symbolTable;
+        private final Map<String, String> seen = new HashMap<>();
+        private final List<String> identifiers = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        private RecordingSymbolTable(SymbolTable symbolTable) {
+            this.symbolTable = symbolTable;
+        }
+
+        @Override
+        public String nameFor(String identifier) {
+            String name = seen.get(identifier);
+            if (name == null) {
+                name = symbolTable.nameFor(identifier);
+                seen.put(identifier, name);
+                identifiers.add(identifier);
+                names.add(name);
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 based cache keys. Characters are fed to the digest as UTF-16 code
+ * units through a small reusable buffer, so hashing neither encodes nor copies
+ * the whole source.
+ */
+final class ContentHash {
+    private static final int BUFFER_SIZE = 8192;
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(ContentHash::newDigest);
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private ContentHash() {
+    }
+
+    /**
+     * Returns the hex encoded hash of all parts. Parts are length prefixed, so
+     * moving characters from one part to the next changes the hash.
+     */
+    static String of(CharSequence... parts) {
+        MessageDigest digest = DIGESTS.get();
+        byte[] buffer = BUFFERS.get();
+        for (CharSequence part : parts) {
+            int length = part.length();
+            int filled = putInt(buffer, 0, length);
+            for (int i = 0; i < length; i++) {
+                if (filled + 2 > buffer.length) {
+                    digest.update(buffer, 0, filled);
+                    filled = 0;
+                }
+                char c = part.charAt(i);
+                buffer[filled++] = (byte) (c >>> 8);
+                buffer[filled++] = (byte) c;
+            }
+            digest.update(buffer, 0, filled);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static int putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
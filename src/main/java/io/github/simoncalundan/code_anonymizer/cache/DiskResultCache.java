@@ -0,0 +1,59 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * On-disk tier of the result cache, one JSON file per key below a directory,
+ * so results survive between command line runs. Entries are written to a
+ * temporary file first and moved into place, so concurrent runs sharing the
+ * directory never read a partial entry. Unreadable entries count as misses.
+ */
+@Slf4j
+final class DiskResultCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+
+    DiskResultCache(Path directory) {
+        this.directory = directory;
+    }
+
+    CachedResult get(String key) {
+        Path file = fileFor(key);
+        try {
+            return MAPPER.readValue(Files.readAllBytes(file), CachedResult.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable cache entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    void put(String key, CachedResult result) {
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                MAPPER.writeValue(temporary.toFile(), result);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write cache entry {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+}
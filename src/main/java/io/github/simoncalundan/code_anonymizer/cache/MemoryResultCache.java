@@ -0,0 +1,45 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory tier of the result cache. Evicts the least recently used entries
+ * once the approximate size of all entries exceeds the limit.
+ */
+final class MemoryResultCache {
+    private final long maxWeight;
+    private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+
+    MemoryResultCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    synchronized CachedResult get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, CachedResult result) {
+        long resultWeight = result.weight();
+        if (resultWeight > maxWeight) {
+            return;
+        }
+        CachedResult previous = entries.put(key, result);
+        weight += resultWeight - (previous == null ? 0 : previous.weight());
+        Iterator<Map.Entry<String, CachedResult>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+}
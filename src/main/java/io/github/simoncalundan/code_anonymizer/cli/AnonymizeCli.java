@@ -0,0 +1,37 @@
+package io.github.simoncalundan.code_anonymizer.cli;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.metrics.RunStatistics;
+import io.github.simoncalundan.code_anonymizer.service.AnonymizerEngines;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import picocli.CommandLine;
+
+/**
+ * Launches {@link AnonymizeCommand} without a Spring application context. The
+ * services are wired by hand, so startup only pays for the classes the command
+ * actually uses.
+ */
+public final class AnonymizeCli {
+
+    private AnonymizeCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String... args) {
+        LanguageInterpreterService languageService = new LanguageInterpreterService();
+        RunStatistics statistics = new RunStatistics();
+        AnonymizerMetrics metrics = AnonymizerMetrics.collecting(statistics);
+        AnonymizerEngines anonymizerEngines = new AnonymizerEngines(
+                new CodeAnonymizerServiceImpl(languageService, metrics),
+                new LexerCodeAnonymizerServiceImpl(languageService, metrics));
+        return new CommandLine(new AnonymizeCommand(anonymizerEngines, languageService, statistics))
+                .addSubcommand(new DaemonCommand(anonymizerEngines, languageService))
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .execute(args);
+    }
+}
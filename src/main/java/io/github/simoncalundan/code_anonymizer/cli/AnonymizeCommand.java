@@ -1,23 +1,52 @@
 package io.github.simoncalundan.code_anonymizer.cli;
 
+import io.github.simoncalundan.code_anonymizer.batch.ArchiveAnonymizer;
+import io.github.simoncalundan.code_anonymizer.batch.ArchiveFormat;
+import io.github.simoncalundan.code_anonymizer.batch.BatchOptions;
+import io.github.simoncalundan.code_anonymizer.batch.BatchScheduler;
+import io.github.simoncalundan.code_anonymizer.batch.BatchSummary;
+import io.github.simoncalundan.code_anonymizer.batch.DirectoryAnonymizer;
+import io.github.simoncalundan.code_anonymizer.batch.IncrementalAnonymizer;
+import io.github.simoncalundan.code_anonymizer.batch.WorkspaceWatcher;
+import io.github.simoncalundan.code_anonymizer.cache.CachingAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.daemon.DaemonClient;
+import io.github.simoncalundan.code_anonymizer.daemon.DaemonProtocol;
+import io.github.simoncalundan.code_anonymizer.deanonymize.ReverseMapping;
+import io.github.simoncalundan.code_anonymizer.io.ChannelWriter;
+import io.github.simoncalundan.code_anonymizer.io.MappedFileReader;
+import io.github.simoncalundan.code_anonymizer.metrics.RunStatistics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.github.simoncalundan.code_anonymizer.service.AnonymizerEngines;
 import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
-import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.KeyedNames;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.NameLists;
+import io.github.simoncalundan.code_anonymizer.service.SegmentingAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 @Slf4j
-@Component
-@CommandLine.Command(name = "anonymize", description = "Anonymize source code files")
+@CommandLine.Command(name = "anonymize", description = "Anonymize source code files",
+        subcommands = DeanonymizeCommand.class)
 public class AnonymizeCommand implements Runnable {
 
-    private final CodeAnonymizerService anonymizerService;
+    private final AnonymizerEngines anonymizerEngines;
+    private final LanguageInterpreterService languageService;
+    private final RunStatistics runStatistics;
 
-    @CommandLine.Parameters(index = "0", description = "The file to anonymize")
+    @CommandLine.Parameters(index = "0", arity = "0..1", description = "The file, directory or zip, jar or tar archive to anonymize")
     private String filePath;
 
     @CommandLine.Option(names = {"--preserve-strings"},
@@ -28,18 +57,132 @@ public class AnonymizeCommand implements Runnable {
             description = "Strip comments (default: true)")
     private boolean preserveComments = true;
 
+    @CommandLine.Option(names = {"--engine"},
+            description = "Anonymizer engine, one of ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    private AnonymizerEngine engine = AnonymizerEngine.LEXER;
 
-    public AnonymizeCommand(CodeAnonymizerServiceImpl anonymizerService) {
-        this.anonymizerService = anonymizerService;
+    @CommandLine.Option(names = {"-o", "--output"},
+            description = "Output file or archive, or output directory for the mirrored tree when anonymizing a directory")
+    private Path outputPath;
+
+    @CommandLine.Option(names = {"--include"}, split = ",",
+            description = "Glob patterns of files to anonymize in a directory, e.g. *.java or src/**")
+    private String[] includes = {};
+
+    @CommandLine.Option(names = {"--exclude"}, split = ",",
+            description = "Glob patterns of files to skip in a directory")
+    private String[] excludes = {};
+
+    @CommandLine.Option(names = {"--threads"},
+            description = "Worker threads for directory mode (default: number of processors)")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @CommandLine.Option(names = {"--memory-budget"},
+            description = "Megabytes that files anonymized at the same time may use in directory mode (default: half the heap)")
+    private long memoryBudgetMb = BatchScheduler.defaultMemoryBudget() / (1024 * 1024);
+
+    @CommandLine.Option(names = {"--segment-size"},
+            description = "Split files of at least twice this many characters into segments that are anonymized in parallel, lexer engine only")
+    private int segmentSize;
+
+    @CommandLine.Option(names = {"--mapping"},
+            description = "Identifier mapping file, loaded if it exists and written back after the run")
+    private Path mappingPath;
+
+    @CommandLine.Option(names = {"--name-key-file"},
+            description = "Derive every name from an HMAC of the identifier with the secret in this file, so separate runs agree on names")
+    private Path nameKeyFile;
+
+    @CommandLine.Option(names = {"--export-mapping"},
+            description = "Write the names back to the original identifiers in the compact format read by deanonymize")
+    private Path exportMappingPath;
+
+    @CommandLine.Option(names = {"--incremental"},
+            description = "Only anonymize files that changed since the last run into the output directory, requires --mapping")
+    private boolean incremental;
+
+    @CommandLine.Option(names = {"--daemon"},
+            description = "Send a single file to a running daemon instead of anonymizing it in this process")
+    private boolean daemon;
+
+    @CommandLine.Option(names = {"--daemon-socket"},
+            description = "Socket of the daemon (default: the default socket of the daemon command)")
+    private Path daemonSocket;
+
+    @CommandLine.Option(names = {"--watch"},
+            description = "After anonymizing a directory, keep the output up to date while files change")
+    private boolean watch;
+
+    @CommandLine.Option(names = {"--cache-dir"},
+            description = "Directory that keeps results between runs, unchanged files are not anonymized again")
+    private Path cacheDirectory;
+
+    @CommandLine.Option(names = {"--keep-names"}, split = ",",
+            description = "File or classpath:resource listing names to keep unchanged, one per line")
+    private List<String> keepNames = List.of();
+
+    @CommandLine.Option(names = {"--rename-names"}, split = ",",
+            description = "File or classpath:resource listing names to rename even though they are keywords, one per line")
+    private List<String> renameNames = List.of();
+
+    @CommandLine.Option(names = {"--stats"},
+            description = "Print the time of each anonymizer phase, throughput and counts of renamed identifiers, masked literals and comments to standard error")
+    private boolean stats;
+
+    /**
+     * @param runStatistics statistics that the engines of {@code anonymizerEngines} add to once started
+     */
+    public AnonymizeCommand(AnonymizerEngines anonymizerEngines, LanguageInterpreterService languageService,
+                            RunStatistics runStatistics) {
+        this.anonymizerEngines = anonymizerEngines;
+        this.languageService = languageService;
+        this.runStatistics = runStatistics;
     }
 
     @Override
     public void run() {
+        if (stats) {
+            runStatistics.start();
+        }
+        anonymize();
+        if (stats) {
+            System.err.println(runStatistics.format());
+        }
+    }
+
+    private void anonymize() {
+        if (filePath == null) {
+            log.error("Error: Missing the file or directory to anonymize");
+            return;
+        }
         File file = new File(filePath);
         if (!file.exists()) {
             log.error("Error: File does not exist - {}", filePath);
             return;
         }
+        if (daemon) {
+            anonymizeWithDaemon(file.toPath());
+            return;
+        }
+        if (segmentSize < 0 || (segmentSize > 0 && engine != AnonymizerEngine.LEXER)) {
+            log.error("Error: --segment-size must be positive and requires the lexer engine");
+            return;
+        }
+        NameLists nameLists;
+        try {
+            nameLists = NameLists.load(keepNames, renameNames);
+        } catch (IOException e) {
+            log.error("Error: Cannot read name list - {}", e.getMessage());
+            return;
+        }
+        if (!nameLists.isEmpty()) {
+            log.info("Keeping {} listed names and renaming {}", nameLists.keepCount(), nameLists.renameCount());
+        }
+        CodeAnonymizerService anonymizerService = selectedService(nameLists);
+        if (file.isDirectory()) {
+            anonymizeDirectory(file.toPath(), anonymizerService, nameLists);
+            return;
+        }
         if (!file.isFile()) {
             log.error("Error: Path is not a file - {}", filePath);
             return;
@@ -48,19 +191,223 @@ public class AnonymizeCommand implements Runnable {
             log.error("Error: Cannot read file - {}", filePath);
             return;
         }
+        if (incremental || watch) {
+            log.error("Error: --incremental and --watch only apply to directories");
+            return;
+        }
+        ArchiveFormat archiveFormat = ArchiveFormat.of(file.getName());
+        if (archiveFormat != null) {
+            anonymizeArchive(file.toPath(), archiveFormat, anonymizerService);
+            return;
+        }
 
         try {
-            String sourceCode = Files.readString(file.toPath());
-            if (sourceCode.trim().isEmpty()) {
+            if (file.length() == 0) {
                 log.error("Error: File is empty");
                 return;
             }
-            String anonymizedCode = anonymizerService.anonymizeCode(sourceCode,filePath, preserveStringLiterals, preserveComments);
-            System.out.println(anonymizedCode);
+            SharedSymbolTable symbolTable = loadSymbolTable();
+            try (Reader reader = MappedFileReader.open(file.toPath())) {
+                if (outputPath != null) {
+                    try (Writer writer = ChannelWriter.toFile(outputPath)) {
+                        anonymizerService.anonymize(reader, writer, filePath, preserveStringLiterals, preserveComments,
+                                symbolTable);
+                    }
+                } else {
+                    try (Writer writer = ChannelWriter.toStandardOutput()) {
+                        anonymizerService.anonymize(reader, writer, filePath, preserveStringLiterals, preserveComments,
+                                symbolTable);
+                        writer.write(System.lineSeparator());
+                    }
+                }
+            }
+            saveSymbolTable(symbolTable);
+            if (anonymizerService instanceof CachingAnonymizerService cache) {
+                log.info(cache.getStatistics().format());
+            }
             log.info("Code anonymized successfully!");
         } catch (IOException e) {
             log.error("Error processing file: {}", e.getMessage());
             e.printStackTrace();
         }
     }
+
+    private void anonymizeDirectory(Path directory, CodeAnonymizerService anonymizerService, NameLists nameLists) {
+        if (outputPath == null) {
+            log.error("Error: --output is required when anonymizing a directory");
+            return;
+        }
+        if (threads < 1) {
+            log.error("Error: --threads must be at least 1");
+            return;
+        }
+        if (memoryBudgetMb < 1) {
+            log.error("Error: --memory-budget must be at least 1");
+            return;
+        }
+        if (incremental && mappingPath == null) {
+            log.error("Error: --incremental requires --mapping, so unchanged outputs keep their names");
+            return;
+        }
+        BatchOptions options = batchOptions();
+        try {
+            SharedSymbolTable symbolTable = loadSymbolTable();
+            DirectoryAnonymizer directoryAnonymizer = new DirectoryAnonymizer(anonymizerService, options, symbolTable);
+            // Watch before the initial run, so files edited while it runs are updated afterwards
+            try (WorkspaceWatcher watcher = watch ? watcher(directory, anonymizerService, options, symbolTable) : null) {
+                if (incremental) {
+                    String summary = new IncrementalAnonymizer(directoryAnonymizer, incrementalSettings(nameLists))
+                            .run(directory, outputPath)
+                            .format();
+                    saveSymbolTable(symbolTable);
+                    System.out.println(summary);
+                } else {
+                    BatchSummary summary = directoryAnonymizer.run(directory, outputPath);
+                    saveSymbolTable(symbolTable);
+                    System.out.println(summary.format());
+                }
+                if (directoryAnonymizer.getSchedulerStatistics() != null) {
+                    System.out.println(directoryAnonymizer.getSchedulerStatistics().format());
+                }
+                if (anonymizerService instanceof CachingAnonymizerService cache) {
+                    System.out.println(cache.getStatistics().format());
+                }
+                if (watcher != null) {
+                    watcher.run();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error processing directory: {}", e.getMessage());
+        }
+    }
+
+    private BatchOptions batchOptions() {
+        return new BatchOptions(List.of(includes), List.of(excludes), threads, preserveStringLiterals, preserveComments,
+                memoryBudgetMb * 1024 * 1024);
+    }
+
+    private WorkspaceWatcher watcher(Path directory, CodeAnonymizerService anonymizerService, BatchOptions options,
+                                     SharedSymbolTable symbolTable) throws IOException {
+        return new WorkspaceWatcher(anonymizerService, options, symbolTable, directory, outputPath,
+                WorkspaceWatcher.DEFAULT_DEBOUNCE, summary -> {
+            System.out.println(summary.format());
+            try {
+                saveSymbolTable(symbolTable);
+            } catch (IOException e) {
+                log.error("Error saving the mapping: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Forwards the file to a daemon, which uses its own engine and a fresh
+     * symbol table for every request.
+     */
+    private void anonymizeWithDaemon(Path file) {
+        if (!Files.isRegularFile(file) || ArchiveFormat.of(file.toString()) != null) {
+            log.error("Error: --daemon only anonymizes single source files");
+            return;
+        }
+        if (mappingPath != null || cacheDirectory != null || nameKeyFile != null || segmentSize != 0
+                || !keepNames.isEmpty() || !renameNames.isEmpty()) {
+            log.error("Error: --mapping, --cache-dir, --name-key-file, --segment-size, --keep-names and --rename-names do not apply to --daemon");
+            return;
+        }
+        Path socket = daemonSocket != null ? daemonSocket : DaemonProtocol.defaultSocketPath();
+        try (DaemonClient client = DaemonClient.connect(socket)) {
+            AnonymizeResponse response = client.anonymize(new AnonymizeRequest(Files.readString(file), filePath,
+                    preserveStringLiterals, preserveComments));
+            try (Writer writer = outputPath != null ? ChannelWriter.toFile(outputPath) : ChannelWriter.toStandardOutput()) {
+                writer.write(response.anonymizedCode());
+                if (outputPath == null) {
+                    writer.write(System.lineSeparator());
+                }
+            }
+            if (exportMappingPath != null) {
+                ReverseMapping.writeCompact(exportMappingPath, ReverseMapping.invert(response.mapping()));
+            }
+        } catch (IOException e) {
+            log.error("Error: daemon request on {} failed: {}", socket, e.getMessage());
+        }
+    }
+
+    private void anonymizeArchive(Path archive, ArchiveFormat format, CodeAnonymizerService anonymizerService) {
+        if (outputPath == null) {
+            log.error("Error: --output is required when anonymizing an archive");
+            return;
+        }
+        if (threads < 1) {
+            log.error("Error: --threads must be at least 1");
+            return;
+        }
+        if (memoryBudgetMb < 1) {
+            log.error("Error: --memory-budget must be at least 1");
+            return;
+        }
+        if (ArchiveFormat.of(outputPath.toString()) != format) {
+            log.warn("The output is written as {}, the format of the input archive", format);
+        }
+        BatchOptions options = batchOptions();
+        try {
+            SharedSymbolTable symbolTable = loadSymbolTable();
+            BatchSummary summary = new ArchiveAnonymizer(anonymizerService, languageService, options, symbolTable)
+                    .run(archive, outputPath, format);
+            saveSymbolTable(symbolTable);
+            System.out.println(summary.format());
+            if (anonymizerService instanceof CachingAnonymizerService cache) {
+                System.out.println(cache.getStatistics().format());
+            }
+        } catch (IOException e) {
+            log.error("Error processing archive: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Every setting that changes the output of a directory run.
+     */
+    private String incrementalSettings(NameLists nameLists) {
+        String settings = "engine=" + engine + ";preserveStrings=" + preserveStringLiterals + ";preserveComments=" + preserveComments
+                + ";include=" + String.join(",", includes) + ";exclude=" + String.join(",", excludes);
+        return nameLists.isEmpty() ? settings : settings + ";names=" + nameLists.fingerprint();
+    }
+
+    private SharedSymbolTable loadSymbolTable() throws IOException {
+        KeyedNames keyedNames = nameKeyFile == null ? null : KeyedNames.fromFile(nameKeyFile);
+        if (mappingPath != null && Files.exists(mappingPath)) {
+            SharedSymbolTable symbolTable = SharedSymbolTable.load(mappingPath, keyedNames);
+            log.info("Loaded {} identifier mappings from {}", symbolTable.size(), mappingPath);
+            return symbolTable;
+        }
+        return keyedNames == null ? new SharedSymbolTable() : new SharedSymbolTable(keyedNames);
+    }
+
+    private void saveSymbolTable(SharedSymbolTable symbolTable) throws IOException {
+        if (symbolTable.collisions() > 0) {
+            log.warn("{} keyed names collided and were replaced, other runs may name these identifiers differently",
+                    symbolTable.collisions());
+        }
+        if (mappingPath != null) {
+            symbolTable.save(mappingPath);
+        }
+        if (exportMappingPath != null) {
+            if (nameKeyFile == null) {
+                ReverseMapping.writeCompact(exportMappingPath, symbolTable.getNameMapping());
+            } else {
+                // Keyed names are not numbered, which the compact format relies on
+                symbolTable.save(exportMappingPath);
+            }
+        }
+    }
+
+    private CodeAnonymizerService selectedService(NameLists nameLists) {
+        AnonymizerEngines engines = anonymizerEngines.withNameLists(nameLists);
+        CodeAnonymizerService anonymizerService = segmentSize > 0
+                ? new SegmentingAnonymizerService(engines.lexer(), segmentSize, ForkJoinPool.commonPool())
+                : engines.get(engine);
+        if (cacheDirectory == null) {
+            return anonymizerService;
+        }
+        return new CachingAnonymizerService(anonymizerService, languageService.withNameLists(nameLists),
+                CachingAnonymizerService.DEFAULT_MEMORY_BYTES, cacheDirectory);
+    }
 }
@@ -0,0 +1,82 @@
+package io.github.simoncalundan.code_anonymizer.cli;
+
+import io.github.simoncalundan.code_anonymizer.cache.CachingAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.daemon.AnonymizerDaemon;
+import io.github.simoncalundan.code_anonymizer.daemon.DaemonProtocol;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.github.simoncalundan.code_anonymizer.service.AnonymizerEngines;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.NameLists;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs an {@link AnonymizerDaemon} until the process is stopped. Clients use
+ * {@code anonymize --daemon}.
+ */
+@Slf4j
+@CommandLine.Command(name = "daemon",
+        description = "Keep the anonymizer warm and answer requests over a Unix domain socket")
+public class DaemonCommand implements Callable<Integer> {
+
+    private final AnonymizerEngines anonymizerEngines;
+    private final LanguageInterpreterService languageService;
+
+    @CommandLine.Option(names = {"--socket"},
+            description = "Socket path in a directory only the current user can access "
+                    + "(default: code-anonymizer.sock in $XDG_RUNTIME_DIR or in code-anonymizer-<user> in the temporary directory)")
+    private Path socketPath;
+
+    @CommandLine.Option(names = {"--engine"},
+            description = "Anonymizer engine, one of ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    private AnonymizerEngine engine = AnonymizerEngine.LEXER;
+
+    @CommandLine.Option(names = {"--keep-names"}, split = ",",
+            description = "File or classpath:resource listing names to keep unchanged, one per line")
+    private List<String> keepNames = List.of();
+
+    @CommandLine.Option(names = {"--rename-names"}, split = ",",
+            description = "File or classpath:resource listing names to rename even though they are keywords, one per line")
+    private List<String> renameNames = List.of();
+
+    public DaemonCommand(AnonymizerEngines anonymizerEngines, LanguageInterpreterService languageService) {
+        this.anonymizerEngines = anonymizerEngines;
+        this.languageService = languageService;
+    }
+
+    @Override
+    public Integer call() {
+        NameLists nameLists;
+        try {
+            nameLists = NameLists.load(keepNames, renameNames);
+        } catch (IOException e) {
+            log.error("Error: Cannot read name list - {}", e.getMessage());
+            return 1;
+        }
+        CodeAnonymizerService engineService = anonymizerEngines.withNameLists(nameLists).get(engine);
+        CodeAnonymizerService anonymizerService = new CachingAnonymizerService(engineService,
+                languageService.withNameLists(nameLists), CachingAnonymizerService.DEFAULT_MEMORY_BYTES, null);
+        Path socket = socketPath != null ? socketPath : DaemonProtocol.defaultSocketPath();
+        try (AnonymizerDaemon daemon = AnonymizerDaemon.bind(anonymizerService, socket)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    daemon.close();
+                } catch (IOException e) {
+                    log.warn("Could not remove socket {}: {}", socket, e.getMessage());
+                }
+            }));
+            AnonymizerDaemon.warmUp(engineService);
+            daemon.serve();
+            return 0;
+        } catch (IOException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.simoncalundan.code_anonymizer.cli;
+
+import io.github.simoncalundan.code_anonymizer.deanonymize.Deanonymizer;
+import io.github.simoncalundan.code_anonymizer.deanonymize.ReverseMapping;
+import io.github.simoncalundan.code_anonymizer.io.ChannelWriter;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Translates text that uses anonymized names, such as an AI answer about
+ * anonymized code, back to the original identifiers.
+ */
+@Slf4j
+@CommandLine.Command(name = "deanonymize",
+        description = "Replace anonymized names in a text with the original identifiers")
+public class DeanonymizeCommand implements Callable<Integer> {
+
+    @CommandLine.Parameters(index = "0", arity = "0..1",
+            description = "The text to translate (default: standard input)")
+    private Path inputPath;
+
+    @CommandLine.Option(names = {"--mapping"}, required = true,
+            description = "Mapping written by --export-mapping or --mapping")
+    private Path mappingPath;
+
+    @CommandLine.Option(names = {"-o", "--output"},
+            description = "Output file (default: standard output)")
+    private Path outputPath;
+
+    @Override
+    public Integer call() {
+        try {
+            Deanonymizer deanonymizer = Deanonymizer.of(ReverseMapping.load(mappingPath));
+            log.info("Loaded {} names from {}", deanonymizer.size(), mappingPath);
+            try (Reader reader = inputPath != null
+                    ? Files.newBufferedReader(inputPath, StandardCharsets.UTF_8)
+                    : new InputStreamReader(System.in, StandardCharsets.UTF_8)) {
+                try (Writer writer = outputPath != null
+                        ? ChannelWriter.toFile(outputPath)
+                        : ChannelWriter.toStandardOutput()) {
+                    deanonymizer.deanonymize(reader, writer);
+                }
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import io.github.simoncalundan.code_anonymizer.deanonymize.ReverseMapping;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived process that answers anonymization requests over a Unix domain
+ * socket, so editors and hooks reuse warm, JIT-compiled services instead of
+ * starting a JVM for every file. Each connection is served on its own virtual
+ * thread and may send any number of requests, see {@link DaemonProtocol}.
+ * Like {@code /api/anonymize}, every request gets its own symbol table.
+ * <p>
+ * The socket is created in a directory that only the current user can access,
+ * see {@link SocketDirectory}. A socket file left behind by a daemon that is
+ * no longer running is replaced.
+ */
+@Slf4j
+public class AnonymizerDaemon implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int WARM_UP_ROUNDS = 2_000;
+    private static final List<String> WARM_UP_FILES = List.of("Warmup.java", "warmup.py", "warmup.txt");
+    private static final String WARM_UP_SOURCE = """
+            # Comment of a scripting language
+            class Sample { // comment
+                /* block comment */
+                private final String label = "text \\" quoted";
+                int compute(int input) { return input * factor + 'c'; }
+            }
+            """;
+
+    private final CodeAnonymizerService anonymizerService;
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AnonymizerDaemon(CodeAnonymizerService anonymizerService, Path socketPath, ServerSocketChannel server) {
+        this.anonymizerService = anonymizerService;
+        this.socketPath = socketPath;
+        this.server = server;
+    }
+
+    /**
+     * Binds the socket, creating its directory if needed. Requests are
+     * accepted once {@link #serve()} runs.
+     *
+     * @throws IOException if another daemon is listening on the socket, or if
+     *                     the directory of the socket is not private to the
+     *                     current user
+     */
+    public static AnonymizerDaemon bind(CodeAnonymizerService anonymizerService, Path socketPath) throws IOException {
+        SocketDirectory.prepare(socketPath);
+        if (Files.exists(socketPath)) {
+            if (isListening(socketPath)) {
+                throw new IOException("A daemon is already listening on " + socketPath);
+            }
+            log.info("Replacing stale socket {}", socketPath);
+            Files.delete(socketPath);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+            }
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        return new AnonymizerDaemon(anonymizerService, socketPath, server);
+    }
+
+    /**
+     * Runs every code path of the engine a few thousand times, so the first
+     * requests are already served by compiled code. Pass the engine itself
+     * rather than a cache in front of it, which would answer all but the
+     * first rounds without running the engine.
+     */
+    public static void warmUp(CodeAnonymizerService engine) {
+        long start = System.nanoTime();
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            String fileName = WARM_UP_FILES.get(round % WARM_UP_FILES.size());
+            engine.anonymizeCode(WARM_UP_SOURCE, fileName, round % 2 == 0, round % 4 < 2, new LocalSymbolTable());
+        }
+        log.info("Warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Accepts connections until the daemon is closed.
+     */
+    public void serve() throws IOException {
+        log.info("Listening on {}", socketPath);
+        while (server.isOpen()) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (AsynchronousCloseException e) {
+                return;
+            }
+            connections.execute(() -> handle(connection));
+        }
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            server.close();
+            connections.shutdownNow();
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    private void handle(SocketChannel connection) {
+        try (connection) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection), BUFFER_SIZE));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection), BUFFER_SIZE));
+            for (AnonymizeRequest request = DaemonProtocol.readRequest(input); request != null;
+                 request = DaemonProtocol.readRequest(input)) {
+                AnonymizeResponse response;
+                try {
+                    response = anonymize(request);
+                } catch (RuntimeException e) {
+                    log.error("Error anonymizing {}: {}", request.fileName(), e.getMessage());
+                    DaemonProtocol.writeError(output, e.getMessage());
+                    continue;
+                }
+                DaemonProtocol.writeResponse(output, response);
+            }
+        } catch (IOException e) {
+            log.debug("Closing connection: {}", e.getMessage());
+        }
+    }
+
+    private AnonymizeResponse anonymize(AnonymizeRequest request) {
+        LocalSymbolTable symbolTable = new LocalSymbolTable();
+        String anonymizedCode = anonymizerService.anonymizeCode(request.sourceCode(), request.fileName(),
+                request.preserveStringLiteralsOrDefault(), request.preserveCommentsOrDefault(), symbolTable);
+        return new AnonymizeResponse(anonymizedCode, ReverseMapping.invert(symbolTable.getNameMapping()));
+    }
+
+    private static boolean isListening(Path socketPath) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return channel.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
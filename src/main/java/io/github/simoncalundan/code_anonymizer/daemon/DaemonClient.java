@@ -0,0 +1,55 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Connection to an {@link AnonymizerDaemon}. Requests on one client are sent
+ * one after the other, so a client must not be shared between threads.
+ */
+public final class DaemonClient implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    private DaemonClient(SocketChannel channel) {
+        this.channel = channel;
+        this.input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    /**
+     * @throws IOException if no daemon is listening on the socket, or if the
+     *                     socket or its directory is not private to the
+     *                     current user
+     */
+    public static DaemonClient connect(Path socketPath) throws IOException {
+        SocketDirectory.check(socketPath);
+        return new DaemonClient(SocketChannel.open(UnixDomainSocketAddress.of(socketPath)));
+    }
+
+    /**
+     * @throws DaemonProtocol.DaemonException if the daemon failed to anonymize the source
+     */
+    public AnonymizeResponse anonymize(AnonymizeRequest request) throws IOException {
+        DaemonProtocol.writeRequest(output, request);
+        return DaemonProtocol.readResponse(input);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
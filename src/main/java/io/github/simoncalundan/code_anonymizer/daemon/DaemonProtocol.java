@@ -0,0 +1,152 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Messages exchanged with the {@link AnonymizerDaemon}. A connection carries
+ * any number of requests, each answered by one response before the next
+ * request is read. All numbers are big-endian and strings are a 4 byte length
+ * followed by that many bytes of UTF-8.
+ * <pre>
+ * request:  int magic "CAN1", byte flags (1 = preserve strings, 2 = preserve comments),
+ *           string file name, string source code
+ * response: byte status 0, string anonymized code, int count, count times (string name, string original)
+ *       or: byte status 1, string error message
+ * </pre>
+ */
+public final class DaemonProtocol {
+    static final int MAGIC = 0x43414e31;
+    static final int MAX_STRING_BYTES = 256 * 1024 * 1024;
+
+    private static final String SOCKET_FILE_NAME = "code-anonymizer.sock";
+
+    private static final int PRESERVE_STRING_LITERALS = 1;
+    private static final int PRESERVE_COMMENTS = 2;
+    private static final int STATUS_OK = 0;
+    private static final int STATUS_ERROR = 1;
+
+    private DaemonProtocol() {
+    }
+
+    /**
+     * Socket of the current user: {@code code-anonymizer.sock} in
+     * {@code $XDG_RUNTIME_DIR}, or in a {@code code-anonymizer-<user>}
+     * directory of the temporary directory if it is not set. The daemon
+     * creates that directory accessible only to the user.
+     */
+    public static Path defaultSocketPath() {
+        String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+        Path directory = runtimeDirectory != null && !runtimeDirectory.isBlank()
+                ? Path.of(runtimeDirectory)
+                : Path.of(System.getProperty("java.io.tmpdir"), "code-anonymizer-" + System.getProperty("user.name"));
+        return directory.resolve(SOCKET_FILE_NAME);
+    }
+
+    static void writeRequest(DataOutputStream output, AnonymizeRequest request) throws IOException {
+        output.writeInt(MAGIC);
+        int flags = (request.preserveStringLiteralsOrDefault() ? PRESERVE_STRING_LITERALS : 0)
+                | (request.preserveCommentsOrDefault() ? PRESERVE_COMMENTS : 0);
+        output.writeByte(flags);
+        writeString(output, request.fileName());
+        writeString(output, request.sourceCode());
+        output.flush();
+    }
+
+    /**
+     * Returns the next request, or {@code null} when the client closed the
+     * connection.
+     */
+    static AnonymizeRequest readRequest(DataInputStream input) throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            return null;
+        }
+        int magic = first << 24 | input.readUnsignedByte() << 16 | input.readUnsignedShort();
+        if (magic != MAGIC) {
+            throw new IOException("Not an anonymizer request");
+        }
+        int flags = input.readUnsignedByte();
+        String fileName = readString(input);
+        String sourceCode = readString(input);
+        return new AnonymizeRequest(sourceCode, fileName, (flags & PRESERVE_STRING_LITERALS) != 0,
+                (flags & PRESERVE_COMMENTS) != 0);
+    }
+
+    static void writeResponse(DataOutputStream output, AnonymizeResponse response) throws IOException {
+        output.writeByte(STATUS_OK);
+        writeString(output, response.anonymizedCode());
+        output.writeInt(response.mapping().size());
+        for (Map.Entry<String, String> entry : response.mapping().entrySet()) {
+            writeString(output, entry.getKey());
+            writeString(output, entry.getValue());
+        }
+        output.flush();
+    }
+
+    static void writeError(DataOutputStream output, String message) throws IOException {
+        output.writeByte(STATUS_ERROR);
+        writeString(output, message == null ? "Unknown error" : message);
+        output.flush();
+    }
+
+    /**
+     * @throws DaemonException if the daemon reported an error
+     */
+    static AnonymizeResponse readResponse(DataInputStream input) throws IOException {
+        int status = input.readUnsignedByte();
+        if (status == STATUS_ERROR) {
+            throw new DaemonException(readString(input));
+        }
+        if (status != STATUS_OK) {
+            throw new IOException("Not an anonymizer response");
+        }
+        String anonymizedCode = readString(input);
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid mapping size " + count);
+        }
+        Map<String, String> mapping = new HashMap<>(Math.min(count, 1 << 16) * 2);
+        for (int i = 0; i < count; i++) {
+            mapping.put(readString(input), readString(input));
+        }
+        return new AnonymizeResponse(anonymizedCode, mapping);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("Message of " + bytes.length + " bytes exceeds the limit of " + MAX_STRING_BYTES);
+        }
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid message length " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Error reported by the daemon for a single request. The connection can
+     * still be used.
+     */
+    public static final class DaemonException extends IOException {
+        DaemonException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Checks that keep the daemon socket private to its user. The socket lives in
+ * a directory that belongs to the user and that nobody else may enter, so no
+ * other user can connect to it, even while it is being created, or put a
+ * socket of their own in its place.
+ */
+final class SocketDirectory {
+    private static final Set<PosixFilePermission> SHARED_PERMISSIONS = EnumSet.of(
+            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE);
+
+    private SocketDirectory() {
+    }
+
+    /**
+     * Creates the directory of the socket, accessible only to the current
+     * user, unless it exists already, then {@linkplain #check checks} it.
+     */
+    static void prepare(Path socketPath) throws IOException {
+        Path directory = directoryOf(socketPath);
+        if (!Files.exists(directory)) {
+            if (isPosix()) {
+                Files.createDirectories(directory,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+        check(socketPath);
+    }
+
+    /**
+     * @throws IOException if the directory of the socket, or the socket itself
+     *                     if it exists, belongs to another user, or if other
+     *                     users have access to the directory
+     */
+    static void check(Path socketPath) throws IOException {
+        Path directory = directoryOf(socketPath);
+        UserPrincipal user = currentUser();
+        checkOwner(directory, user);
+        if (isPosix()) {
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+            permissions.retainAll(SHARED_PERMISSIONS);
+            if (!permissions.isEmpty()) {
+                throw new IOException("Socket directory " + directory + " must only be accessible to its owner, "
+                        + "but has permissions " + PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+            }
+        }
+        if (Files.exists(socketPath)) {
+            checkOwner(socketPath, user);
+        }
+    }
+
+    private static void checkOwner(Path path, UserPrincipal user) throws IOException {
+        UserPrincipal owner = Files.getOwner(path);
+        if (!owner.equals(user)) {
+            throw new IOException(path + " belongs to " + owner.getName() + " rather than " + user.getName());
+        }
+    }
+
+    private static UserPrincipal currentUser() throws IOException {
+        return FileSystems.getDefault().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    private static Path directoryOf(Path socketPath) {
+        Path directory = socketPath.toAbsolutePath().getParent();
+        if (directory == null) {
+            throw new IllegalArgumentException("Socket path " + socketPath + " has no directory");
+        }
+        return directory;
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.simoncalundan.code_anonymizer.deanonymize;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Replaces anonymized names in arbitrary text, such as the answer of an AI
+ * assistant, with the original identifiers in a single pass.
+ * <p>
+ * All names are compiled into one trie over the identifier characters
+ * {@code [a-zA-Z0-9_]}. Only whole words are replaced, so {@code var1} inside
+ * {@code var12} or {@code myvar1} is left alone. Since every match starts at
+ * the beginning of a word, the Aho-Corasick automaton of the names never needs
+ * a failure transition and reduces to this trie: each character advances the
+ * state of the current word once, and a word stops being tracked as soon as
+ * it leaves the trie. Memory use while streaming is bounded by the longest
+ * name, whatever the length of the text.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class Deanonymizer {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int BUFFER_SIZE = 8192;
+
+    private char[] labels = new char[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private String[] originals = new String[64];
+    private int states = 1;
+    private int maxNameLength;
+
+    private Deanonymizer() {
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+    }
+
+    /**
+     * @param originalsByName original identifier for every anonymized name
+     * @throws IllegalArgumentException if a name is not a single identifier word
+     */
+    public static Deanonymizer of(Map<String, String> originalsByName) {
+        Deanonymizer deanonymizer = new Deanonymizer();
+        originalsByName.forEach(deanonymizer::add);
+        return deanonymizer;
+    }
+
+    public int size() {
+        int count = 0;
+        for (int state = 0; state < states; state++) {
+            if (originals[state] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public String deanonymize(String text) {
+        StringWriter output = new StringWriter(text.length());
+        try {
+            deanonymize(new StringReader(text), output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Copies {@code source} to {@code target}, replacing every known name.
+     * Neither is closed or flushed.
+     */
+    public void deanonymize(Reader source, Writer target) throws IOException {
+        char[] input = new char[BUFFER_SIZE];
+        char[] word = new char[Math.max(maxNameLength, 1)];
+        Output output = new Output(target);
+        int wordLength = 0;
+        int state = NONE;
+        boolean inWord = false;
+
+        int read;
+        while ((read = source.read(input)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                char c = input[i];
+                if (isWordChar(c)) {
+                    if (!inWord) {
+                        inWord = true;
+                        state = ROOT;
+                        wordLength = 0;
+                    }
+                    if (state != NONE) {
+                        state = child(state, c);
+                        if (state != NONE) {
+                            word[wordLength++] = c;
+                            continue;
+                        }
+                        // The word is not a name, write what was held back
+                        output.write(word, wordLength);
+                    }
+                } else if (inWord) {
+                    inWord = false;
+                    endWord(state, word, wordLength, output);
+                }
+                output.write(c);
+            }
+        }
+        if (inWord) {
+            endWord(state, word, wordLength, output);
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes the replacement of a completed word that is still in the trie,
+     * or the word itself if it is only the prefix of a name.
+     */
+    private void endWord(int state, char[] word, int wordLength, Output output) throws IOException {
+        if (state == NONE) {
+            return;
+        }
+        if (originals[state] != null) {
+            output.write(originals[state]);
+        } else {
+            output.write(word, wordLength);
+        }
+    }
+
+    private void add(String name, String original) {
+        if (name.isEmpty() || !name.chars().allMatch(c -> isWordChar((char) c))) {
+            throw new IllegalArgumentException("Not an identifier: " + name);
+        }
+        int state = ROOT;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            int next = child(state, c);
+            if (next == NONE) {
+                next = newState(c);
+                nextSibling[next] = firstChild[state];
+                firstChild[state] = next;
+            }
+            state = next;
+        }
+        originals[state] = original;
+        maxNameLength = Math.max(maxNameLength, name.length());
+    }
+
+    private int child(int state, char c) {
+        for (int child = firstChild[state]; child != NONE; child = nextSibling[child]) {
+            if (labels[child] == c) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int newState(char label) {
+        if (states == labels.length) {
+            int capacity = states * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            originals = Arrays.copyOf(originals, capacity);
+        }
+        int state = states++;
+        labels[state] = label;
+        firstChild[state] = NONE;
+        return state;
+    }
+
+    /**
+     * Collects output characters so the writer is called once per buffer.
+     */
+    private static final class Output {
+        private final Writer target;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int length;
+
+        private Output(Writer target) {
+            this.target = target;
+        }
+
+        void write(char c) throws IOException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = c;
+        }
+
+        void write(char[] chars, int count) throws IOException {
+            if (length + count > buffer.length) {
+                flush();
+            }
+            if (count > buffer.length) {
+                target.write(chars, 0, count);
+                return;
+            }
+            System.arraycopy(chars, 0, buffer, length, count);
+            length += count;
+        }
+
+        void write(String text) throws IOException {
+            if (length + text.length() > buffer.length) {
+                flush();
+            }
+            if (text.length() > buffer.length) {
+                target.write(text);
+                return;
+            }
+            text.getChars(0, text.length(), buffer, length);
+            length += text.length();
+        }
+
+        void flush() throws IOException {
+            target.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.simoncalundan.code_anonymizer.deanonymize;
+
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the mapping from anonymized names back to the original
+ * identifiers.
+ * <p>
+ * The compact format has one line per name: line {@code N} holds the original
+ * identifier of {@code varN}, and is empty if no identifier got that name.
+ * Identifiers never contain line breaks, so no escaping is needed.
+ */
+public final class ReverseMapping {
+    private static final String NAME_PREFIX = "var";
+
+    private ReverseMapping() {
+    }
+
+    /**
+     * Loads a compact mapping, or a JSON mapping written by {@code --mapping}.
+     *
+     * @return the original identifier for every anonymized name
+     */
+    public static Map<String, String> load(Path file) throws IOException {
+        if (isJson(file)) {
+            return invert(SharedSymbolTable.load(file).getNameMapping());
+        }
+        Map<String, String> originalsByName = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int id = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine(), id++) {
+                if (!line.isEmpty()) {
+                    originalsByName.put(NAME_PREFIX + id, line);
+                }
+            }
+        }
+        return originalsByName;
+    }
+
+    /**
+     * Writes the compact format.
+     *
+     * @param nameMapping anonymized name for every original identifier, all names must be {@code varN}
+     */
+    public static void writeCompact(Path file, Map<String, String> nameMapping) throws IOException {
+        String[] originals = new String[0];
+        for (Map.Entry<String, String> entry : nameMapping.entrySet()) {
+            int id = idOf(entry.getValue());
+            if (id > originals.length) {
+                originals = Arrays.copyOf(originals, Math.max(id, originals.length * 2));
+            }
+            originals[id - 1] = entry.getKey();
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        int last = originals.length;
+        while (last > 0 && originals[last - 1] == null) {
+            last--;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < last; i++) {
+                if (originals[i] != null) {
+                    writer.write(originals[i]);
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    public static Map<String, String> invert(Map<String, String> nameMapping) {
+        Map<String, String> originalsByName = new HashMap<>(nameMapping.size() * 2);
+        nameMapping.forEach((original, name) -> originalsByName.put(name, original));
+        return originalsByName;
+    }
+
+    private static int idOf(String name) {
+        if (name.startsWith(NAME_PREFIX) && name.length() > NAME_PREFIX.length()) {
+            try {
+                int id = Integer.parseInt(name.substring(NAME_PREFIX.length()));
+                if (id > 0) {
+                    return id;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException("Name cannot be written in the compact format: " + name);
+    }
+
+    private static boolean isJson(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int c;
+            while ((c = reader.read()) >= 0) {
+                if (!Character.isWhitespace(c)) {
+                    return c == '{';
+                }
+            }
+        }
+        return false;
+    }
+}
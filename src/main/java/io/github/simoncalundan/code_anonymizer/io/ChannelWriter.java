@@ -0,0 +1,173 @@
+package io.github.simoncalundan.code_anonymizer.io;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes UTF-8 into a {@link WritableByteChannel}, encoding straight into a
+ * direct buffer that the channel can hand to the operating system without
+ * another copy. Compared to a {@link java.io.BufferedWriter} over an output
+ * stream there is neither an intermediate byte array nor a lock per write,
+ * and standard output bypasses the synchronized {@link System#out}.
+ * <p>
+ * Unpaired surrogates are replaced, like {@link java.io.OutputStreamWriter}
+ * does. Not thread-safe.
+ */
+public final class ChannelWriter extends Writer {
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private long bytesWritten;
+    private boolean closed;
+
+    /**
+     * @param closeChannel whether {@link #close()} also closes the channel
+     */
+    public ChannelWriter(WritableByteChannel channel, int bufferSize, boolean closeChannel) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize must be at least 16, was " + bufferSize);
+        }
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.chars = CharBuffer.allocate(bufferSize / 4);
+        this.bytes = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Creates or truncates the file and writes into it. Closing the writer
+     * closes the file.
+     */
+    public static ChannelWriter toFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        return new ChannelWriter(channel, DEFAULT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * Writes to the standard output of the process. Closing the writer only
+     * flushes it, standard output stays open.
+     */
+    public static ChannelWriter toStandardOutput() {
+        FileChannel channel = new FileOutputStream(FileDescriptor.out).getChannel();
+        return new ChannelWriter(channel, DEFAULT_BUFFER_SIZE, false);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put((char) c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int count = Math.min(length, chars.remaining());
+            chars.put(buffer, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+            int count = Math.min(length, chars.remaining());
+            chars.put(text, offset, offset + count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Hands everything written so far to the channel, except the first half
+     * of a surrogate pair whose second half has not been written yet.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encode(false);
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+        } finally {
+            closed = true;
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Number of bytes handed to the channel so far.
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        CoderResult result;
+        while ((result = encoder.encode(chars, bytes, endOfInput)).isOverflow()) {
+            drain();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        bytesWritten += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+    }
+}
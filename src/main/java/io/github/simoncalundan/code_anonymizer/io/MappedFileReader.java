@@ -0,0 +1,100 @@
+package io.github.simoncalundan.code_anonymizer.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a UTF-8 file through memory mapped windows instead of copying it into
+ * heap buffers. Only one window of the file is mapped at a time, so files of
+ * any size can be read. Malformed input is reported as an exception.
+ */
+public class MappedFileReader extends Reader {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int CHAR_BUFFER_SIZE = 16 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE).flip();
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean finished;
+
+    private MappedFileReader(FileChannel channel, long windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        // A window must be able to hold at least one complete character
+        this.windowSize = Math.max(windowSize, 8);
+    }
+
+    public static MappedFileReader open(Path file) throws IOException {
+        return open(file, WINDOW_SIZE);
+    }
+
+    static MappedFileReader open(Path file, long windowSize) throws IOException {
+        return new MappedFileReader(FileChannel.open(file, StandardOpenOption.READ), windowSize);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (!chars.hasRemaining()) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int count = Math.min(length, chars.remaining());
+        chars.get(buffer, offset, count);
+        return count;
+    }
+
+    private boolean fill() throws IOException {
+        if (finished) {
+            return false;
+        }
+        chars.clear();
+        while (chars.position() == 0) {
+            if (window == null || !window.hasRemaining() || window.remaining() < 4 && !isLastWindow()) {
+                // Map the next window, starting at the first byte not decoded yet
+                long position = window == null ? 0 : windowStart + window.position();
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+                windowStart = position;
+            }
+            boolean endOfInput = isLastWindow();
+            CoderResult result = decoder.decode(window, chars, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput && !window.hasRemaining()) {
+                decoder.flush(chars);
+                finished = true;
+                break;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private boolean isLastWindow() {
+        return windowStart + window.capacity() >= size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
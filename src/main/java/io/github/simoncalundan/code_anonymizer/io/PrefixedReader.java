@@ -0,0 +1,52 @@
+package io.github.simoncalundan.code_anonymizer.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads characters that were already taken from a reader, followed by the
+ * rest of that reader. Lets a caller look at the beginning of a stream and
+ * still hand the whole stream on.
+ */
+public final class PrefixedReader extends Reader {
+    private final CharSequence prefix;
+    private final Reader rest;
+    private int position;
+
+    public PrefixedReader(CharSequence prefix, Reader rest) {
+        this.prefix = prefix;
+        this.rest = rest;
+    }
+
+    /**
+     * Reads up to {@code limit} characters, fewer only at the end of the input.
+     */
+    public static String readPrefix(Reader reader, int limit) throws IOException {
+        StringBuilder prefix = new StringBuilder(Math.min(limit, 8192));
+        char[] buffer = new char[Math.min(limit, 8192)];
+        int read;
+        while (prefix.length() < limit
+                && (read = reader.read(buffer, 0, Math.min(buffer.length, limit - prefix.length()))) >= 0) {
+            prefix.append(buffer, 0, read);
+        }
+        return prefix.toString();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (position < prefix.length()) {
+            int count = Math.min(length, prefix.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = prefix.charAt(position + i);
+            }
+            position += count;
+            return count;
+        }
+        return rest.read(buffer, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rest.close();
+    }
+}
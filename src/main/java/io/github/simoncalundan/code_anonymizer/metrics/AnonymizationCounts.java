@@ -0,0 +1,20 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+/**
+ * What one anonymization did to a file.
+ *
+ * @param inputSize           characters read
+ * @param placeholdersCreated placeholders the regex engine created for comments and string literals
+ * @param literalsMasked      string literals replaced by a numbered {@code "varN"}
+ * @param commentsPreserved   comments copied to the output
+ * @param commentsStripped    comments removed from the output
+ */
+public record AnonymizationCounts(long inputSize, int identifiersRenamed, int placeholdersCreated, int literalsMasked,
+                                  int commentsPreserved, int commentsStripped) {
+
+    public AnonymizationCounts plus(AnonymizationCounts other) {
+        return new AnonymizationCounts(inputSize + other.inputSize, identifiersRenamed + other.identifiersRenamed,
+                placeholdersCreated + other.placeholdersCreated, literalsMasked + other.literalsMasked,
+                commentsPreserved + other.commentsPreserved, commentsStripped + other.commentsStripped);
+    }
+}
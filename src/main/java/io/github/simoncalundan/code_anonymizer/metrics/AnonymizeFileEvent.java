@@ -0,0 +1,46 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one anonymized file, from the start of the
+ * anonymization to the end of its last phase.
+ */
+@Name("io.github.simoncalundan.code_anonymizer.File")
+@Label("Anonymize File")
+@Category("Code Anonymizer")
+@Description("One file anonymized by an engine")
+@StackTrace(false)
+class AnonymizeFileEvent extends Event {
+    @Label("File")
+    String fileName;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Language")
+    String language;
+
+    @Label("Interpreter")
+    String interpreter;
+
+    @Label("Input Characters")
+    long inputSize;
+
+    @Label("Identifiers Renamed")
+    int identifiersRenamed;
+
+    @Label("Literals Masked")
+    int literalsMasked;
+
+    @Label("Comments Preserved")
+    int commentsPreserved;
+
+    @Label("Comments Stripped")
+    int commentsStripped;
+}
@@ -0,0 +1,27 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one {@link AnonymizerPhase} of a file.
+ */
+@Name("io.github.simoncalundan.code_anonymizer.Phase")
+@Label("Anonymizer Phase")
+@Category("Code Anonymizer")
+@Description("One phase of anonymizing a file")
+@StackTrace(false)
+class AnonymizePhaseEvent extends Event {
+    @Label("File")
+    String fileName;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,254 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+import io.github.simoncalundan.code_anonymizer.cache.CacheStatistics;
+import io.github.simoncalundan.code_anonymizer.cache.CachingAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer instrumentation of the anonymizer engines.
+ * <p>
+ * Every anonymization is tracked by a {@link Recording}. Phase timers and
+ * size summaries are looked up once, so a recording only reads the clock and
+ * updates meters. A recording also adds to the {@link RunStatistics} of the
+ * command line tool while they are collecting, and commits flight recorder
+ * events for the file and each phase while a flight recording asks for them.
+ * When there is nothing to record, {@link #start} hands out a shared
+ * recording that does nothing.
+ */
+@Component
+public class AnonymizerMetrics {
+    private static final AnonymizerMetrics DISABLED = new AnonymizerMetrics(null);
+
+    private final MeterRegistry registry;
+    private final RunStatistics statistics;
+    private final Map<AnonymizerEngine, EngineMeters> engineMeters = new EnumMap<>(AnonymizerEngine.class);
+    private final Map<FileCounterKey, Counter> fileCounters = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry registry to publish to, or {@code null} to disable metrics
+     */
+    @Autowired
+    public AnonymizerMetrics(MeterRegistry registry) {
+        this(registry, null);
+    }
+
+    private AnonymizerMetrics(MeterRegistry registry, RunStatistics statistics) {
+        this.registry = registry;
+        this.statistics = statistics;
+        if (registry != null) {
+            for (AnonymizerEngine engine : AnonymizerEngine.values()) {
+                engineMeters.put(engine, new EngineMeters(registry, tagOf(engine)));
+            }
+        }
+    }
+
+    public static AnonymizerMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Metrics without a registry that add to {@code statistics} once they
+     * have been started.
+     */
+    public static AnonymizerMetrics collecting(RunStatistics statistics) {
+        return new AnonymizerMetrics(null, statistics);
+    }
+
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * Starts tracking one anonymization. The first phase starts now.
+     *
+     * @param interpreter name of the interpreter that handles the file
+     * @param language    language of the file, from a bounded set of values
+     * @param fileName    name of the file, only used for flight recorder events
+     */
+    public Recording start(AnonymizerEngine engine, String interpreter, String language, String fileName) {
+        AnonymizeFileEvent fileEvent = new AnonymizeFileEvent();
+        boolean recordEvents = fileEvent.isEnabled();
+        boolean collectStatistics = statistics != null && statistics.isCollecting();
+        if (registry == null && !collectStatistics && !recordEvents) {
+            return Recording.NOOP;
+        }
+        if (recordEvents) {
+            fileEvent.fileName = fileName;
+            fileEvent.engine = tagOf(engine);
+            fileEvent.language = language;
+            fileEvent.interpreter = interpreter;
+        }
+        return new ActiveRecording(registry != null ? engineMeters(engine, interpreter, language) : null,
+                collectStatistics ? statistics : null, recordEvents ? fileEvent : null);
+    }
+
+    private EngineMeters engineMeters(AnonymizerEngine engine, String interpreter, String language) {
+        fileCounters.computeIfAbsent(new FileCounterKey(engine, interpreter, language), key ->
+                Counter.builder("anonymizer.files")
+                        .description("Files anonymized")
+                        .tag("engine", tagOf(key.engine()))
+                        .tag("interpreter", key.interpreter())
+                        .tag("language", key.language())
+                        .register(registry)).increment();
+        return engineMeters.get(engine);
+    }
+
+    /**
+     * Publishes the hit and miss counts of a result cache.
+     */
+    public void monitor(CachingAnonymizerService cache) {
+        if (registry == null) {
+            return;
+        }
+        cacheCounter(cache, "memory-hit", CacheStatistics::memoryHits);
+        cacheCounter(cache, "disk-hit", CacheStatistics::diskHits);
+        cacheCounter(cache, "miss", CacheStatistics::misses);
+    }
+
+    private void cacheCounter(CachingAnonymizerService cache, String result, ToDoubleFunction<CacheStatistics> count) {
+        FunctionCounter.builder("anonymizer.cache.requests", cache, c -> count.applyAsDouble(c.getStatistics()))
+                .description("Result cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static String tagOf(AnonymizerEngine engine) {
+        return engine.name().toLowerCase(Locale.ROOT);
+    }
+
+    private record FileCounterKey(AnonymizerEngine engine, String interpreter, String language) {
+    }
+
+    /**
+     * Measurements of a single anonymization.
+     */
+    public interface Recording {
+        Recording NOOP = new Recording() {
+        };
+
+        /**
+         * Ends the given phase, which started when the previous one ended.
+         */
+        default void endPhase(AnonymizerPhase phase) {
+        }
+
+        default void finish(AnonymizationCounts counts) {
+        }
+    }
+
+    /**
+     * Records into whichever of the meters, the statistics and the events are
+     * not {@code null}.
+     */
+    private static final class ActiveRecording implements Recording {
+        private final EngineMeters meters;
+        private final RunStatistics statistics;
+        private final AnonymizeFileEvent fileEvent;
+        private AnonymizePhaseEvent phaseEvent;
+        private long phaseStart = System.nanoTime();
+
+        private ActiveRecording(EngineMeters meters, RunStatistics statistics, AnonymizeFileEvent fileEvent) {
+            this.meters = meters;
+            this.statistics = statistics;
+            this.fileEvent = fileEvent;
+            if (fileEvent != null) {
+                fileEvent.begin();
+                phaseEvent = new AnonymizePhaseEvent();
+                phaseEvent.begin();
+            }
+        }
+
+        @Override
+        public void endPhase(AnonymizerPhase phase) {
+            long now = System.nanoTime();
+            if (meters != null) {
+                meters.phases.get(phase).record(now - phaseStart, TimeUnit.NANOSECONDS);
+            }
+            if (statistics != null) {
+                statistics.recordPhase(phase, now - phaseStart);
+            }
+            if (phaseEvent != null) {
+                phaseEvent.end();
+                if (phaseEvent.shouldCommit()) {
+                    phaseEvent.fileName = fileEvent.fileName;
+                    phaseEvent.engine = fileEvent.engine;
+                    phaseEvent.phase = phase.getTag();
+                    phaseEvent.commit();
+                }
+                // The next phase starts where this one ended
+                phaseEvent = new AnonymizePhaseEvent();
+                phaseEvent.begin();
+            }
+            phaseStart = now;
+        }
+
+        @Override
+        public void finish(AnonymizationCounts counts) {
+            if (meters != null) {
+                meters.inputSize.record(counts.inputSize());
+                meters.identifiersRenamed.record(counts.identifiersRenamed());
+                meters.placeholdersCreated.record(counts.placeholdersCreated());
+            }
+            if (statistics != null) {
+                statistics.record(counts);
+            }
+            if (fileEvent != null) {
+                fileEvent.end();
+                if (fileEvent.shouldCommit()) {
+                    fileEvent.inputSize = counts.inputSize();
+                    fileEvent.identifiersRenamed = counts.identifiersRenamed();
+                    fileEvent.literalsMasked = counts.literalsMasked();
+                    fileEvent.commentsPreserved = counts.commentsPreserved();
+                    fileEvent.commentsStripped = counts.commentsStripped();
+                    fileEvent.commit();
+                }
+            }
+        }
+    }
+
+    private static final class EngineMeters {
+        private final Map<AnonymizerPhase, Timer> phases = new EnumMap<>(AnonymizerPhase.class);
+        private final DistributionSummary inputSize;
+        private final DistributionSummary identifiersRenamed;
+        private final DistributionSummary placeholdersCreated;
+
+        private EngineMeters(MeterRegistry registry, String engine) {
+            for (AnonymizerPhase phase : AnonymizerPhase.values()) {
+                phases.put(phase, Timer.builder("anonymizer.phase")
+                        .description("Time spent in one phase of an anonymization")
+                        .tag("engine", engine)
+                        .tag("phase", phase.getTag())
+                        .register(registry));
+            }
+            inputSize = summary(registry, "anonymizer.input.size", "chars", "Size of the anonymized sources", engine);
+            identifiersRenamed = summary(registry, "anonymizer.identifiers.renamed", "identifiers",
+                    "Identifiers renamed per file", engine);
+            placeholdersCreated = summary(registry, "anonymizer.placeholders.created", "placeholders",
+                    "Placeholders created for comments and string literals per file", engine);
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, String baseUnit,
+                                                   String description, String engine) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit(baseUnit)
+                    .tag("engine", engine)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+/**
+ * Timed phases of an anonymization. The regex engine goes through the first
+ * four, the lexer engine does all the work in a single {@link #REWRITE} pass.
+ */
+public enum AnonymizerPhase {
+    COMMENTS("comments"),
+    LITERALS("literals"),
+    IDENTIFIERS("identifiers"),
+    RESTORE("restore"),
+    REWRITE("rewrite");
+
+    private final String tag;
+
+    AnonymizerPhase(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
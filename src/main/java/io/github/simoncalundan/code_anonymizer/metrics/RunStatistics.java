@@ -0,0 +1,105 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals over all anonymizations of one command line run, for
+ * {@code --stats}. Nothing is collected until {@link #start()} is called.
+ * <p>
+ * Phase times are summed over all worker threads, so with several threads
+ * they add up to more than the wall clock time of the run.
+ */
+public final class RunStatistics {
+    private final Map<AnonymizerPhase, LongAdder> phaseNanos = new EnumMap<>(AnonymizerPhase.class);
+    private final LongAdder files = new LongAdder();
+    private final LongAdder inputSize = new LongAdder();
+    private final LongAdder identifiersRenamed = new LongAdder();
+    private final LongAdder literalsMasked = new LongAdder();
+    private final LongAdder commentsPreserved = new LongAdder();
+    private final LongAdder commentsStripped = new LongAdder();
+    private volatile boolean collecting;
+    private long start;
+
+    public RunStatistics() {
+        for (AnonymizerPhase phase : AnonymizerPhase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    public void start() {
+        start = System.nanoTime();
+        collecting = true;
+    }
+
+    public boolean isCollecting() {
+        return collecting;
+    }
+
+    void recordPhase(AnonymizerPhase phase, long nanos) {
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    void record(AnonymizationCounts counts) {
+        files.increment();
+        inputSize.add(counts.inputSize());
+        identifiersRenamed.add(counts.identifiersRenamed());
+        literalsMasked.add(counts.literalsMasked());
+        commentsPreserved.add(counts.commentsPreserved());
+        commentsStripped.add(counts.commentsStripped());
+    }
+
+    public long files() {
+        return files.sum();
+    }
+
+    public long phaseNanos(AnonymizerPhase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public long identifiersRenamed() {
+        return identifiersRenamed.sum();
+    }
+
+    public long literalsMasked() {
+        return literalsMasked.sum();
+    }
+
+    public long commentsPreserved() {
+        return commentsPreserved.sum();
+    }
+
+    public long commentsStripped() {
+        return commentsStripped.sum();
+    }
+
+    /**
+     * Formats the totals so far. Phases the engine never went through are left
+     * out. Files answered from a result cache are not anonymized and do not
+     * count.
+     */
+    public String format() {
+        double wallSeconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        long totalNanos = 0;
+        for (LongAdder nanos : phaseNanos.values()) {
+            totalNanos += nanos.sum();
+        }
+        long chars = inputSize.sum();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Statistics: %d files, %d chars in %.3f s (%.2f M chars/s)%n",
+                files.sum(), chars, wallSeconds, chars / wallSeconds / 1_000_000));
+        for (Map.Entry<AnonymizerPhase, LongAdder> phase : phaseNanos.entrySet()) {
+            long nanos = phase.getValue().sum();
+            if (nanos == 0) {
+                continue;
+            }
+            double seconds = nanos / 1_000_000_000.0;
+            report.append(String.format("  %-12s %9.3f s %6.1f%% %9.2f M chars/s%n", phase.getKey().getTag(), seconds,
+                    nanos * 100.0 / totalNanos, chars / seconds / 1_000_000));
+        }
+        report.append(String.format("  identifiers renamed %d, string literals masked %d, comments preserved %d, comments stripped %d",
+                identifiersRenamed.sum(), literalsMasked.sum(), commentsPreserved.sum(), commentsStripped.sum()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request to anonymize a single source file. The file name only selects the
+ * language interpreter.
+ */
+public record AnonymizeRequest(@NotNull String sourceCode,
+                               @NotBlank String fileName,
+                               Boolean preserveStringLiterals,
+                               Boolean preserveComments) {
+
+    public boolean preserveStringLiteralsOrDefault() {
+        return preserveStringLiterals == null || preserveStringLiterals;
+    }
+
+    public boolean preserveCommentsOrDefault() {
+        return preserveComments == null || preserveComments;
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import java.util.Map;
+
+/**
+ * @param mapping original identifier for every anonymized name, pass it to
+ *                {@code /api/deanonymize} to translate an answer back
+ */
+public record AnonymizeResponse(String anonymizedCode, Map<String, String> mapping) {
+}
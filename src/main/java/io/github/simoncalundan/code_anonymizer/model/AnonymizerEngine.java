@@ -0,0 +1,12 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+public enum AnonymizerEngine {
+    /**
+     * Single pass lexer based engine.
+     */
+    LEXER,
+    /**
+     * Original regex and placeholder based engine.
+     */
+    REGEX
+}
@@ -0,0 +1,23 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Request to anonymize several files, for example a changeset, with one
+ * identifier mapping shared by all of them.
+ */
+public record BatchAnonymizeRequest(@NotEmpty List<@Valid SourceFile> files,
+                                    Boolean preserveStringLiterals,
+                                    Boolean preserveComments) {
+
+    public boolean preserveStringLiteralsOrDefault() {
+        return preserveStringLiterals == null || preserveStringLiterals;
+    }
+
+    public boolean preserveCommentsOrDefault() {
+        return preserveComments == null || preserveComments;
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anonymized files in request order. Paths are returned unchanged.
+ *
+ * @param mapping original identifier for every anonymized name in any of the files
+ */
+public record BatchAnonymizeResponse(List<SourceFile> files, Map<String, String> mapping) {
+}
@@ -0,0 +1,14 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+
+/**
+ * Request to translate text, such as an AI answer about anonymized code, back
+ * to the original identifiers.
+ *
+ * @param mapping original identifier for every anonymized name, as returned by the anonymize endpoints
+ */
+public record DeanonymizeRequest(@NotNull String text, @NotNull Map<String, String> mapping) {
+}
@@ -0,0 +1,4 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+public record DeanonymizeResponse(String text) {
+}
@@ -0,0 +1,7 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record SourceFile(@NotBlank String path, @NotNull String content) {
+}
@@ -0,0 +1,116 @@
+package io.github.simoncalundan.code_anonymizer.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The string and char literals of a language, as the delimiters that open and
+ * close them. A literal opens with the longest delimiter that matches, so
+ * {@code """} is a text block rather than an empty string followed by a quote.
+ * <p>
+ * String literals may span lines and are masked when string literals are not
+ * preserved. Char literals end at the line they start on and are always kept.
+ */
+public enum StringStyle {
+    JAVA_STYLE(List.of(
+            Delimiter.string("\"\"\"", "\"\"\"", Escape.BACKSLASH),
+            Delimiter.string("\"", "\"", Escape.BACKSLASH),
+            Delimiter.charLiteral("'"))),
+    PYTHON_STYLE(pythonDelimiters()),
+    JAVASCRIPT_STYLE(List.of(
+            Delimiter.string("\"", "\"", Escape.BACKSLASH),
+            Delimiter.string("'", "'", Escape.BACKSLASH),
+            // Expressions inside ${...} are part of the literal
+            Delimiter.string("`", "`", Escape.BACKSLASH))),
+    GO_STYLE(List.of(
+            Delimiter.string("\"", "\"", Escape.BACKSLASH),
+            Delimiter.string("`", "`", Escape.NONE),
+            Delimiter.charLiteral("'"))),
+    CSHARP_STYLE(List.of(
+            Delimiter.string("\"\"\"", "\"\"\"", Escape.NONE),
+            Delimiter.string("$\"\"\"", "\"\"\"", Escape.NONE),
+            Delimiter.string("\"", "\"", Escape.BACKSLASH),
+            Delimiter.string("$\"", "\"", Escape.BACKSLASH),
+            Delimiter.string("@\"", "\"", Escape.DOUBLED),
+            Delimiter.string("$@\"", "\"", Escape.DOUBLED),
+            Delimiter.string("@$\"", "\"", Escape.DOUBLED),
+            Delimiter.charLiteral("'"))),
+    DEFAULT(List.of(
+            Delimiter.string("\"", "\"", Escape.BACKSLASH),
+            Delimiter.charLiteral("'")));
+
+    private final List<Delimiter> delimiters;
+
+    StringStyle(List<Delimiter> delimiters) {
+        List<Delimiter> longestFirst = new ArrayList<>(delimiters);
+        longestFirst.sort(Comparator.comparingInt((Delimiter delimiter) -> delimiter.open().length()).reversed());
+        this.delimiters = List.copyOf(longestFirst);
+    }
+
+    /**
+     * All delimiters, longest opening delimiter first.
+     */
+    public List<Delimiter> getDelimiters() {
+        return delimiters;
+    }
+
+    /**
+     * Single, double and triple quoted strings, with every string prefix in
+     * either case, e.g. {@code r'...'}, {@code f"..."} or {@code Rb"""..."""}.
+     */
+    private static List<Delimiter> pythonDelimiters() {
+        List<Delimiter> delimiters = new ArrayList<>();
+        for (String prefix : List.of("", "r", "u", "b", "f", "br", "rb", "fr", "rf")) {
+            for (String quote : List.of("'''", "\"\"\"", "'", "\"")) {
+                for (String casedPrefix : casings(prefix)) {
+                    delimiters.add(Delimiter.string(casedPrefix + quote, quote, Escape.BACKSLASH));
+                }
+            }
+        }
+        return delimiters;
+    }
+
+    private static List<String> casings(String prefix) {
+        List<String> casings = new ArrayList<>(List.of(prefix));
+        for (int i = 0; i < prefix.length(); i++) {
+            List<String> next = new ArrayList<>();
+            for (String casing : casings) {
+                next.add(casing);
+                next.add(casing.substring(0, i) + casing.substring(i, i + 1).toUpperCase(Locale.ROOT)
+                        + casing.substring(i + 1));
+            }
+            casings = next;
+        }
+        return casings;
+    }
+
+    /**
+     * How a closing delimiter is kept from ending a literal.
+     */
+    public enum Escape {
+        /** A backslash escapes the next character. */
+        BACKSLASH,
+        /** The closing delimiter written twice stands for itself, like {@code ""} in C# verbatim strings. */
+        DOUBLED,
+        /** Nothing, the first closing delimiter ends the literal. */
+        NONE
+    }
+
+    /**
+     * @param open        delimiter that opens the literal, including any prefix
+     * @param close       delimiter that closes the literal
+     * @param charLiteral whether this is a char literal rather than a string
+     */
+    public record Delimiter(String open, String close, Escape escape, boolean charLiteral) {
+
+        static Delimiter string(String open, String close, Escape escape) {
+            return new Delimiter(open, close, escape, false);
+        }
+
+        static Delimiter charLiteral(String quote) {
+            return new Delimiter(quote, quote, Escape.BACKSLASH, true);
+        }
+    }
+}
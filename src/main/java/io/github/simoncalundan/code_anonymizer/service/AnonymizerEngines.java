@@ -0,0 +1,39 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import org.springframework.stereotype.Service;
+
+/**
+ * Looks up the {@link CodeAnonymizerService} implementing an engine.
+ */
+@Service
+public class AnonymizerEngines {
+    private final CodeAnonymizerServiceImpl regexAnonymizerService;
+    private final LexerCodeAnonymizerServiceImpl lexerAnonymizerService;
+
+    public AnonymizerEngines(CodeAnonymizerServiceImpl regexAnonymizerService,
+                             LexerCodeAnonymizerServiceImpl lexerAnonymizerService) {
+        this.regexAnonymizerService = regexAnonymizerService;
+        this.lexerAnonymizerService = lexerAnonymizerService;
+    }
+
+    public CodeAnonymizerService get(AnonymizerEngine engine) {
+        return engine == AnonymizerEngine.REGEX ? regexAnonymizerService : lexerAnonymizerService;
+    }
+
+    public LexerCodeAnonymizerServiceImpl lexer() {
+        return lexerAnonymizerService;
+    }
+
+    /**
+     * Engines that also keep and rename the names of {@code nameLists}, with
+     * the same metrics. Returns these engines if the lists are empty.
+     */
+    public AnonymizerEngines withNameLists(NameLists nameLists) {
+        if (nameLists.isEmpty()) {
+            return this;
+        }
+        return new AnonymizerEngines(regexAnonymizerService.withNameLists(nameLists),
+                lexerAnonymizerService.withNameLists(nameLists));
+    }
+}
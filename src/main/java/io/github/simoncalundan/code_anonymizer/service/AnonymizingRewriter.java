@@ -0,0 +1,218 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizationCounts;
+import io.github.simoncalundan.code_anonymizer.service.lexer.TokenHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the anonymized tokens of a lexer straight into an output buffer. When
+ * comments are stripped, lines left blank are dropped and every remaining line
+ * is terminated by a line break, like the regex engine does.
+ * <p>
+ * With a {@link Writer} attached, completed output is handed to the writer as
+ * soon as the buffer grows past a threshold, so the buffer only ever holds a
+ * little more than the threshold, even for a minified file on a single line.
+ */
+final class AnonymizingRewriter implements TokenHandler {
+    private static final int FLUSH_THRESHOLD = 16 * 1024;
+
+    private final StringBuilder output;
+    private final Writer writer;
+    private final KeywordMatcher keywords;
+    private final IdentifierCache names;
+    private final boolean preserveStringLiterals;
+    private final boolean preserveComments;
+    private char[] flushBuffer;
+    private int stringCounter;
+    private int identifiersRenamed;
+    private int literalsMasked;
+    private int commentsPreserved;
+    private int commentsStripped;
+    private long inputLength;
+    private int lineStart;
+    private boolean lineHasContent;
+
+    AnonymizingRewriter(int capacity, Writer writer, KeywordMatcher keywords, SymbolTable symbolTable,
+                        boolean preserveStringLiterals, boolean preserveComments) {
+        this(capacity, writer, keywords, symbolTable, preserveStringLiterals, preserveComments, 1);
+    }
+
+    /**
+     * @param firstStringNumber number of the first string literal, for rewriting
+     *                          a part of a source that starts after other literals
+     */
+    AnonymizingRewriter(int capacity, Writer writer, KeywordMatcher keywords, SymbolTable symbolTable,
+                        boolean preserveStringLiterals, boolean preserveComments, int firstStringNumber) {
+        this.stringCounter = firstStringNumber;
+        this.output = new StringBuilder(capacity);
+        this.writer = writer;
+        this.keywords = keywords;
+        this.names = new IdentifierCache(symbolTable);
+        this.preserveStringLiterals = preserveStringLiterals;
+        this.preserveComments = preserveComments;
+    }
+
+    @Override
+    public void code(CharSequence source, int start, int end) {
+        inputLength += end - start;
+        output.append(source, start, end);
+        if (!preserveComments && !lineHasContent) {
+            for (int i = start; i < end; i++) {
+                if (source.charAt(i) > ' ') {
+                    lineHasContent = true;
+                    break;
+                }
+            }
+        }
+        flushIfNeeded();
+    }
+
+    @Override
+    public void identifier(CharSequence source, int start, int end) {
+        inputLength += end - start;
+        if (keywords.matches(source, start, end)) {
+            output.append(source, start, end);
+        } else {
+            output.append(names.nameFor(source, start, end));
+            identifiersRenamed++;
+        }
+        lineHasContent = true;
+        flushIfNeeded();
+    }
+
+    @Override
+    public void stringLiteral(CharSequence source, int start, int end) {
+        inputLength += end - start;
+        if (preserveStringLiterals) {
+            output.append(source, start, end);
+        } else {
+            output.append("\"var").append(stringCounter).append('"');
+            literalsMasked++;
+        }
+        stringCounter++;
+        lineHasContent = true;
+        flushIfNeeded();
+    }
+
+    @Override
+    public void stringLiteralContinued(CharSequence source, int start, int end) {
+        inputLength += end - start;
+        if (preserveStringLiterals) {
+            output.append(source, start, end);
+            flushIfNeeded();
+        }
+    }
+
+    @Override
+    public void charLiteral(CharSequence source, int start, int end) {
+        inputLength += end - start;
+        output.append(source, start, end);
+        lineHasContent = true;
+        flushIfNeeded();
+    }
+
+    @Override
+    public void comment(CharSequence source, int start, int end, boolean block) {
+        if (preserveComments) {
+            commentsPreserved++;
+        } else {
+            commentsStripped++;
+        }
+        commentContinued(source, start, end, block);
+    }
+
+    @Override
+    public void commentContinued(CharSequence source, int start, int end, boolean block) {
+        inputLength += end - start;
+        if (preserveComments) {
+            output.append(source, start, end);
+            flushIfNeeded();
+            return;
+        }
+        if (block) {
+            // Keep the line structure so code around the comment stays on its own lines
+            for (int i = start; i < end; i++) {
+                if (source.charAt(i) == '\n') {
+                    lineBreak();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void newline() {
+        inputLength++;
+        lineBreak();
+    }
+
+    private void lineBreak() {
+        if (preserveComments) {
+            output.append('\n');
+            flushIfNeeded();
+            return;
+        }
+        if (lineHasContent) {
+            output.append('\n');
+        } else {
+            output.setLength(lineStart);
+        }
+        lineStart = output.length();
+        lineHasContent = false;
+        flushIfNeeded();
+    }
+
+    /**
+     * Completes the output. Returns the anonymized code, or an empty string
+     * when the output was handed to a writer.
+     */
+    String finish() {
+        if (!preserveComments) {
+            lineBreak();
+        }
+        if (writer == null) {
+            return output.toString();
+        }
+        flush(output.length());
+        return "";
+    }
+
+    long inputLength() {
+        return inputLength;
+    }
+
+    int identifiersRenamed() {
+        return identifiersRenamed;
+    }
+
+    AnonymizationCounts counts() {
+        return new AnonymizationCounts(inputLength, identifiersRenamed, 0, literalsMasked, commentsPreserved,
+                commentsStripped);
+    }
+
+    private void flushIfNeeded() {
+        if (writer != null && output.length() >= FLUSH_THRESHOLD) {
+            // A line still being written is dropped again if comments are stripped and it has no code yet
+            flush(preserveComments || lineHasContent ? output.length() : lineStart);
+        }
+    }
+
+    private void flush(int length) {
+        if (length == 0) {
+            return;
+        }
+        if (flushBuffer == null || flushBuffer.length < length) {
+            flushBuffer = new char[Math.max(length, FLUSH_THRESHOLD * 2)];
+        }
+        output.getChars(0, length, flushBuffer, 0);
+        try {
+            writer.write(flushBuffer, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        output.delete(0, length);
+        lineStart -= Math.min(lineStart, length);
+    }
+}
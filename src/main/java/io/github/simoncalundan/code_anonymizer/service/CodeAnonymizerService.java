@@ -1,5 +1,41 @@
 package io.github.simoncalundan.code_anonymizer.service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
 public interface CodeAnonymizerService {
-    String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments);
+    default String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments) {
+        return anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments, new LocalSymbolTable());
+    }
+
+    /**
+     * Anonymizes the source, taking identifier names from the given symbol
+     * table so several files can share one consistent mapping.
+     */
+    String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments,
+                         SymbolTable symbolTable);
+
+    /**
+     * Anonymizes a source that is already in memory into {@code target}, which
+     * is neither closed nor flushed. The default implementation builds the
+     * whole result first, engines that can write while they rewrite override it.
+     */
+    default void anonymizeCode(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                               boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        target.write(anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments, symbolTable));
+    }
+
+    /**
+     * Anonymizes everything read from {@code source} into {@code target}. Neither
+     * is closed or flushed. The default implementation reads the whole source
+     * into memory, engines that can stream override it.
+     */
+    default void anonymize(Reader source, Writer target, String fileName, boolean preserveStringLiterals,
+                           boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        StringWriter sourceCode = new StringWriter();
+        source.transferTo(sourceCode);
+        target.write(anonymizeCode(sourceCode.toString(), fileName, preserveStringLiterals, preserveComments, symbolTable));
+    }
 }
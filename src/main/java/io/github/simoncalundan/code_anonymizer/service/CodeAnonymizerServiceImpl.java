@@ -1,39 +1,61 @@
 package io.github.simoncalundan.code_anonymizer.service;
 
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizationCounts;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerPhase;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
 import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.Set;
 
 @Service
 @Slf4j
 public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
+    private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("(\"(?:[^\"\\\\]|\\\\.)*\")");
+    // Every shape of placeholder the phases below create
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("‹\\d+›|§(?:LIT_|STR|¤COMMENT¤)\\d+§");
+
     private final LanguageInterpreterService languageService;
+    private final AnonymizerMetrics metrics;
+    private final Map<CommentStyle, Pattern> commentPatterns = new EnumMap<>(CommentStyle.class);
 
-    public CodeAnonymizerServiceImpl(LanguageInterpreterService languageService) {
+    public CodeAnonymizerServiceImpl(LanguageInterpreterService languageService, AnonymizerMetrics metrics) {
         this.languageService = languageService;
+        this.metrics = metrics;
+        for (CommentStyle style : CommentStyle.values()) {
+            commentPatterns.put(style, compileCommentPattern(style));
+        }
     }
 
-    @Override
-    public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments) {
-        LanguageInterpreter interpreter = languageService.getInterpreterForFile(fileName);
-        log.info("Interpreter gathered from file {}", interpreter);
-        Set<String> keywords = interpreter.getReservedKeywords();
-        log.info("Starting code anonymization (preserveStringLiterals: {}, preserveComments: {})", preserveStringLiterals, preserveComments);
+    CodeAnonymizerServiceImpl withNameLists(NameLists nameLists) {
+        return new CodeAnonymizerServiceImpl(languageService.withNameLists(nameLists), metrics);
+    }
 
+    @Override
+    public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments,
+                                SymbolTable symbolTable) {
         if (sourceCode == null || sourceCode.isEmpty()) {
             log.warn("Received empty or null source code");
             return "";
         }
+        String language = languageService.getLanguageForFile(fileName, sourceCode);
+        LanguageInterpreter interpreter = languageService.getInterpreter(language);
+        log.debug("Anonymizing {} with {} (preserveStringLiterals: {}, preserveComments: {})",
+                fileName, interpreter, preserveStringLiterals, preserveComments);
+        KeywordMatcher keywords = languageService.getKeywordMatcher(interpreter);
+        AnonymizerMetrics.Recording recording = metrics.start(AnonymizerEngine.REGEX,
+                interpreter.getClass().getSimpleName(), language, fileName);
 
         // Handle comments based on preservation flag
         Map<String, String> commentMap = new HashMap<>();
         String processedCode = sourceCode;
+        int commentsStripped = 0;
 
         if (preserveComments) {
             // Extract and preserve comments while handling string literals
@@ -42,63 +64,31 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
             commentMap = (Map<String, String>) extractionResult.get("commentMap");
         } else {
             // Strip comments completely
-            processedCode = stripComments(sourceCode, interpreter.getCommentStyle(), false);
+            Rewritten stripped = stripComments(sourceCode, interpreter.getCommentStyle(), false);
+            processedCode = stripped.code();
+            commentsStripped = stripped.count();
         }
+        recording.endPhase(AnonymizerPhase.COMMENTS);
 
         // Process string literals
         Map<String, String> stringLiterals = new HashMap<>();
-        Pattern stringLiteralPattern = Pattern.compile("(\"(?:[^\"\\\\]|\\\\.)*\")");
-        Matcher stringMatcher = stringLiteralPattern.matcher(processedCode);
-        StringBuffer stringProcessedCode = new StringBuffer();
-        int stringCounter = 1;
-
-        while (stringMatcher.find()) {
-            String literal = stringMatcher.group(1);
-            String placeholder = "‹" + stringCounter++ + "›";
-            if (preserveStringLiterals) {
-                stringLiterals.put(placeholder, literal);
-            } else {
-                stringLiterals.put(placeholder, "\"var" + (stringCounter - 1) + "\"");
-            }
-            stringMatcher.appendReplacement(stringProcessedCode, Matcher.quoteReplacement(placeholder));
-        }
-        stringMatcher.appendTail(stringProcessedCode);
-        processedCode = stringProcessedCode.toString();
+        processedCode = maskStringLiterals(processedCode, preserveStringLiterals, stringLiterals);
+        recording.endPhase(AnonymizerPhase.LITERALS);
 
         // Anonymize identifiers
-        Map<String, String> nameMapping = new HashMap<>();
-        int counter = 1;
-        Pattern identifierPattern = Pattern.compile(
-                "\\b(?!(?:" + String.join("|", keywords) + ")\\b)" +
-                        "(?<!§¤)([a-zA-Z_][a-zA-Z0-9_]*)\\b"
-        );
-
-        Matcher matcher = identifierPattern.matcher(processedCode);
-        StringBuffer result = new StringBuffer();
-        while (matcher.find()) {
-            String originalName = matcher.group(1);
-            if (!nameMapping.containsKey(originalName)) {
-                String anonymizedName = "var" + counter++;
-                nameMapping.put(originalName, anonymizedName);
-            }
-            matcher.appendReplacement(result, Matcher.quoteReplacement(nameMapping.get(originalName)));
-        }
-        matcher.appendTail(result);
-        String finalCode = result.toString();
+        Rewritten renamed = replaceIdentifiers(processedCode, keywords, symbolTable);
+        String finalCode = renamed.code();
+        recording.endPhase(AnonymizerPhase.IDENTIFIERS);
 
-        // Restore string literals
-        for (Map.Entry<String, String> entry : stringLiterals.entrySet()) {
-            finalCode = finalCode.replace(entry.getKey(), entry.getValue());
-        }
-
-        // Restore comments if they were preserved
+        // Restore string literals, and comments if they were preserved
+        finalCode = restorePlaceholders(finalCode, stringLiterals);
         if (preserveComments) {
-            for (Map.Entry<String, String> entry : commentMap.entrySet()) {
-                finalCode = finalCode.replace(entry.getKey(), entry.getValue());
-            }
+            finalCode = restorePlaceholders(finalCode, commentMap);
         }
-
-        log.info("File successfully anonymized!");
+        recording.endPhase(AnonymizerPhase.RESTORE);
+        recording.finish(new AnonymizationCounts(sourceCode.length(), renamed.count(),
+                stringLiterals.size() + commentMap.size(), preserveStringLiterals ? 0 : stringLiterals.size(),
+                commentMap.size(), commentsStripped));
         return finalCode;
     }
 
@@ -106,7 +96,7 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
      * Extracts comments from code while properly handling string literals.
      * Returns a map containing the processed code and the extracted comments.
      */
-    private Map<String, Object> extractComments(String code, CommentStyle style) {
+    Map<String, Object> extractComments(String code, CommentStyle style) {
         Map<String, String> commentMap = new HashMap<>();
         Map<String, String> literalMap = new HashMap<>();
 
@@ -114,7 +104,7 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
         final String COMMENT_PREFIX = "§¤COMMENT¤";
 
         // Phase 1: Mask string literals to prevent false positives in comments
-        Matcher litMatcher = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"").matcher(code);
+        Matcher litMatcher = STRING_LITERAL_PATTERN.matcher(code);
         StringBuffer litBuffer = new StringBuffer();
         int litCounter = 0;
 
@@ -128,13 +118,7 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
         String maskedCode = litBuffer.toString();
 
         // Phase 2: Extract comments from the code with masked string literals
-        Pattern commentPattern = style.getMultiLineStart() != null ?
-                Pattern.compile("(?:" + Pattern.quote(style.getSingleLine()) + ".*)|(?s:" +
-                        Pattern.quote(style.getMultiLineStart()) + ".*?" +
-                        Pattern.quote(style.getMultiLineEnd()) + ")") :
-                Pattern.compile(Pattern.quote(style.getSingleLine()) + ".*");
-
-        Matcher commentMatcher = commentPattern.matcher(maskedCode);
+        Matcher commentMatcher = commentPatterns.get(style).matcher(maskedCode);
         StringBuffer commentBuffer = new StringBuffer();
         int commentCounter = 0;
 
@@ -147,10 +131,7 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
         commentMatcher.appendTail(commentBuffer);
 
         // Phase 3: Restore string literals in the comment-masked code
-        String processedCode = commentBuffer.toString();
-        for (Map.Entry<String, String> entry : literalMap.entrySet()) {
-            processedCode = processedCode.replace(entry.getKey(), entry.getValue());
-        }
+        String processedCode = restorePlaceholders(commentBuffer.toString(), literalMap);
 
         Map<String, Object> result = new HashMap<>();
         result.put("processedCode", processedCode);
@@ -158,14 +139,17 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
         return result;
     }
 
-    private String stripComments(String code, CommentStyle style, boolean preserveComments) {
+    /**
+     * Removes comments and the lines they leave blank. The count of the result
+     * is the number of removed comments.
+     */
+    Rewritten stripComments(String code, CommentStyle style, boolean preserveComments) {
         if (preserveComments) {
-            return code;
+            return new Rewritten(code, 0);
         }
         // First handle string literals to avoid processing comments inside strings
         Map<String, String> literalMap = new HashMap<>();
-        Pattern literalPattern = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"");
-        Matcher litMatcher = literalPattern.matcher(code);
+        Matcher litMatcher = STRING_LITERAL_PATTERN.matcher(code);
         StringBuffer tempBuffer = new StringBuffer();
         int litIndex = 0;
         while (litMatcher.find()) {
@@ -180,6 +164,7 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
         StringBuilder result = new StringBuilder();
         String[] lines = codeWithoutLiterals.split("\n");
         boolean inMultiLineComment = false;
+        int stripped = 0;
         for (String line : lines) {
             if (!inMultiLineComment) {
                 // Check for single line comments
@@ -187,11 +172,13 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
                 if (commentIndex != -1) {
                     // Keep only the code before the comment
                     line = line.substring(0, commentIndex);
+                    stripped++;
                 }
                 // Check for start of multi-line comment
                 if (style.getMultiLineStart() != null) {
                     int multiLineStart = line.indexOf(style.getMultiLineStart());
                     if (multiLineStart != -1) {
+                        stripped++;
                         int multiLineEnd = line.indexOf(style.getMultiLineEnd(), multiLineStart);
                         if (multiLineEnd != -1) {
                             // Single-line block comment
@@ -221,11 +208,111 @@ public class CodeAnonymizerServiceImpl implements CodeAnonymizerService {
             }
         }
         // Restore string literals
-        String processedCode = result.toString();
-        for (Map.Entry<String, String> entry : literalMap.entrySet()) {
-            processedCode = processedCode.replace(entry.getKey(), entry.getValue());
+        return new Rewritten(restorePlaceholders(result.toString(), literalMap), stripped);
+    }
+
+    /**
+     * Replaces every string literal with a placeholder and records the text to
+     * restore for it in {@code stringLiterals}: the literal itself, or a
+     * numbered {@code "varN"} when literals are not preserved.
+     */
+    String maskStringLiterals(String code, boolean preserveStringLiterals, Map<String, String> stringLiterals) {
+        Matcher stringMatcher = STRING_LITERAL_PATTERN.matcher(code);
+        StringBuilder stringProcessedCode = new StringBuilder(code.length());
+        int stringCounter = 1;
+
+        while (stringMatcher.find()) {
+            String literal = stringMatcher.group(1);
+            String placeholder = "‹" + stringCounter++ + "›";
+            if (preserveStringLiterals) {
+                stringLiterals.put(placeholder, literal);
+            } else {
+                stringLiterals.put(placeholder, "\"var" + (stringCounter - 1) + "\"");
+            }
+            stringMatcher.appendReplacement(stringProcessedCode, Matcher.quoteReplacement(placeholder));
+        }
+        stringMatcher.appendTail(stringProcessedCode);
+        return stringProcessedCode.toString();
+    }
+
+    /**
+     * Renames every identifier that is not a keyword through the symbol table.
+     * The count of the result is the number of renamed occurrences.
+     * <p>
+     * Identifiers are runs of {@code [a-zA-Z0-9_]} that do not start with a
+     * digit, except the marker word of comment placeholders. They are looked
+     * up as slices of the code, so repeated identifiers allocate nothing.
+     */
+    Rewritten replaceIdentifiers(String code, KeywordMatcher keywords, SymbolTable symbolTable) {
+        IdentifierCache names = new IdentifierCache(symbolTable);
+        StringBuilder result = new StringBuilder(code.length() + 16);
+        int length = code.length();
+        int copied = 0;
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+            if (!isWordPart(c)) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < length && isWordPart(code.charAt(end))) {
+                end++;
+            }
+            if ((c < '0' || c > '9') && !isCommentPlaceholder(code, i) && !keywords.matches(code, i, end)) {
+                result.append(code, copied, i).append(names.nameFor(code, i, end));
+                copied = end;
+                count++;
+            }
+            i = end;
+        }
+        result.append(code, copied, length);
+        return new Rewritten(result.toString(), count);
+    }
+
+    private static boolean isWordPart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isCommentPlaceholder(String code, int wordStart) {
+        return wordStart >= 2 && code.charAt(wordStart - 2) == '§' && code.charAt(wordStart - 1) == '¤';
+    }
+
+    /**
+     * Replaces every placeholder that has an entry in {@code placeholders} with
+     * its text, in a single pass over the code. Replacing one placeholder at a
+     * time would copy the whole code once per placeholder.
+     */
+    static String restorePlaceholders(String code, Map<String, String> placeholders) {
+        if (placeholders.isEmpty()) {
+            return code;
+        }
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(code);
+        StringBuilder result = new StringBuilder(code.length() + 16);
+        int copied = 0;
+        while (matcher.find()) {
+            String text = placeholders.get(matcher.group());
+            if (text != null) {
+                result.append(code, copied, matcher.start()).append(text);
+                copied = matcher.end();
+            }
         }
-        return processedCode;
+        result.append(code, copied, code.length());
+        return result.toString();
+    }
+
+    private static Pattern compileCommentPattern(CommentStyle style) {
+        return style.getMultiLineStart() != null ?
+                Pattern.compile("(?:" + Pattern.quote(style.getSingleLine()) + ".*)|(?s:" +
+                        Pattern.quote(style.getMultiLineStart()) + ".*?" +
+                        Pattern.quote(style.getMultiLineEnd()) + ")") :
+                Pattern.compile(Pattern.quote(style.getSingleLine()) + ".*");
     }
 
+    /**
+     * Code rewritten by one phase, and how many changes the phase made.
+     */
+    record Rewritten(String code, int count) {
+    }
 }
\ No newline at end of file
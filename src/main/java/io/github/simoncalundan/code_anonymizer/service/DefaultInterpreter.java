@@ -2,8 +2,8 @@ package io.github.simoncalundan.code_anonymizer.service;
 
 
 import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
 
-import java.util.HashSet;
 import java.util.Set;
 
 public class DefaultInterpreter implements LanguageInterpreter {
@@ -37,21 +37,38 @@ public class DefaultInterpreter implements LanguageInterpreter {
             // Common collections
             "List", "Map", "Set", "Array"
     );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(DEFAULT_KEYWORDS);
 
     @Override
     public Set<String> getReservedKeywords() {
         return DEFAULT_KEYWORDS;
     }
 
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
     @Override
     public CommentStyle getCommentStyle() {
         return CommentStyle.DEFAULT;
     }
 
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.DEFAULT;
+    }
+
     @Override
     public boolean isValidIdentifier(String name) {
-        return name != null && !name.isEmpty() &&
-                Character.isJavaIdentifierStart(name.charAt(0)) &&
-                name.chars().allMatch(Character::isJavaIdentifierPart);
+        if (name == null || name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,89 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+/**
+ * Remembers the names a {@link SymbolTable} handed out during one pass over a
+ * source, keyed by slices of that source.
+ * <p>
+ * The table uses open addressing and is kept at most half full, like
+ * {@link KeywordMatcher}. Looking up an identifier that was seen before hashes
+ * the slice in place and allocates nothing; only the first occurrence of an
+ * identifier creates its string and asks the symbol table. The symbol table
+ * therefore still sees every distinct identifier, in order of first use.
+ * <p>
+ * Not thread-safe, create one per pass.
+ */
+final class IdentifierCache {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final SymbolTable symbolTable;
+    private String[] identifiers = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    IdentifierCache(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Returns the name of the identifier between {@code start} (inclusive)
+     * and {@code end} (exclusive).
+     */
+    String nameFor(CharSequence source, int start, int end) {
+        int hash = KeywordMatcher.hash(source, start, end);
+        int slot = hash & mask;
+        for (String identifier; (identifier = identifiers[slot]) != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equals(identifier, source, start, end)) {
+                return names[slot];
+            }
+        }
+        String identifier = source.subSequence(start, end).toString();
+        String name = symbolTable.nameFor(identifier);
+        identifiers[slot] = identifier;
+        names[slot] = name;
+        hashes[slot] = hash;
+        if (++size * 2 > identifiers.length) {
+            grow();
+        }
+        return name;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        String[] oldIdentifiers = identifiers;
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        int capacity = oldIdentifiers.length * 2;
+        identifiers = new String[capacity];
+        names = new String[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldIdentifiers.length; i++) {
+            if (oldIdentifiers[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (identifiers[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                identifiers[slot] = oldIdentifiers[i];
+                names[slot] = oldNames[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private static boolean equals(String identifier, CharSequence source, int start, int end) {
+        if (identifier.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            if (identifier.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,11 +1,11 @@
 package io.github.simoncalundan.code_anonymizer.service;
 
 import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
-import org.springframework.stereotype.Service;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
 
 import java.util.Set;
 
-@Service
+@LanguageExtensions("java")
 public class JavaInterpreter implements LanguageInterpreter {
     private static final Set<String> KEYWORDS = Set.of(
             // Control flow
@@ -46,24 +46,41 @@ public class JavaInterpreter implements LanguageInterpreter {
             // Literal values
             "true", "false", "null"
     );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(KEYWORDS);
 
     @Override
     public Set<String> getReservedKeywords() {
         return KEYWORDS;
     }
 
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
     @Override
     public CommentStyle getCommentStyle() {
         return CommentStyle.JAVA_STYLE;
     }
 
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.JAVA_STYLE;
+    }
+
     @Override
     public boolean isValidIdentifier(String name) {
         if (name == null || name.isEmpty() || KEYWORDS.contains(name)) {
             return false;
         }
-        char firstChar = name.charAt(0);
-        return Character.isJavaIdentifierStart(firstChar) &&
-                name.chars().allMatch(Character::isJavaIdentifierPart);
+        if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,114 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Derives anonymized names from an HMAC-SHA256 of the original identifier
+ * under a secret key, e.g. {@code vq3k7dmr2xa5f}. The name of an identifier
+ * only depends on the key, so separate processes that share the key agree on
+ * every name without sharing a symbol table, and nobody without the key can
+ * recompute a name from a guessed identifier.
+ * <p>
+ * Names carry {@value #DEFAULT_LENGTH} base32 characters, that is 60 bits of
+ * the hash, so collisions stay unlikely up to tens of millions of distinct
+ * identifiers. A symbol table that still finds a name
+ * taken asks for the next {@code attempt}, which hashes the identifier
+ * together with the attempt number.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class KeyedNames {
+    public static final int DEFAULT_LENGTH = 12;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "v";
+    private static final char[] BASE32 = "abcdefghijklmnopqrstuvwxyz234567".toCharArray();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final int length;
+
+    public KeyedNames(byte[] key) {
+        this(key, DEFAULT_LENGTH);
+    }
+
+    /**
+     * @param length number of hash characters per name, at most 51
+     */
+    KeyedNames(byte[] key, int length) {
+        if (key.length == 0) {
+            throw new IllegalArgumentException("The key must not be empty");
+        }
+        if (length < 1 || length > 51) {
+            throw new IllegalArgumentException("length must be between 1 and 51, was " + length);
+        }
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.length = length;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        // Fail on construction rather than on the first name
+        macs.get();
+    }
+
+    /**
+     * Reads the key from a file. Surrounding whitespace is ignored, so a key
+     * written with {@code echo} works like one written without a line break.
+     */
+    public static KeyedNames fromFile(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        int start = 0;
+        int end = content.length;
+        while (start < end && Character.isWhitespace(content[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(content[end - 1])) {
+            end--;
+        }
+        if (start == end) {
+            throw new IOException("Key file is empty: " + file);
+        }
+        return new KeyedNames(Arrays.copyOfRange(content, start, end));
+    }
+
+    /**
+     * Returns the name of the identifier for the given attempt, starting at
+     * 0. Later attempts are only needed after a collision.
+     */
+    public String nameFor(String identifier, int attempt) {
+        Mac mac = macs.get();
+        mac.update(identifier.getBytes(StandardCharsets.UTF_8));
+        if (attempt > 0) {
+            // The separator keeps attempts apart from identifiers that end in the same bytes
+            mac.update((byte) 0);
+            mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(attempt).array());
+        }
+        byte[] hash = mac.doFinal();
+
+        char[] name = new char[PREFIX.length() + length];
+        PREFIX.getChars(0, PREFIX.length(), name, 0);
+        int bit = 0;
+        for (int i = PREFIX.length(); i < name.length; i++, bit += 5) {
+            int index = bit / 8;
+            int window = (hash[index] & 0xff) << 8 | (index + 1 < hash.length ? hash[index + 1] & 0xff : 0);
+            name[i] = BASE32[(window >>> (11 - bit % 8)) & 0x1f];
+        }
+        return new String(name);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.util.Collection;
+
+/**
+ * Immutable keyword set that is compiled once and answers membership queries
+ * for a slice of a {@link CharSequence} without allocating.
+ * <p>
+ * Keywords are stored in an open addressing table kept at most half full, so
+ * a lookup costs one hash over the slice plus, on average, a single compare.
+ * This keeps identifier classification linear in the identifier length no
+ * matter how many keywords an interpreter declares.
+ * <p>
+ * Sets of at least {@value #FILTER_THRESHOLD} words, such as the names of a
+ * whole public API, no longer fit into the CPU caches. They get a Bloom
+ * filter in front of the table, with {@value #FILTER_BITS_PER_WORD} bits per
+ * word and two probes derived from the same hash, so most identifiers that
+ * are not in the set are rejected after reading two words of a small bit set.
+ */
+public final class KeywordMatcher {
+    static final int FILTER_THRESHOLD = 4096;
+    static final int FILTER_BITS_PER_WORD = 8;
+
+    private final char[][] keywords;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+    private final long[] filter;
+    private final int filterMask;
+    private final int filterShift;
+
+    private KeywordMatcher(Collection<String> words) {
+        int capacity = Integer.highestOneBit(Math.max(words.size(), 1) * 2 - 1) << 1;
+        this.keywords = new char[capacity][];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (String word : words) {
+            int hash = hash(word, 0, word.length());
+            int slot = hash & mask;
+            boolean duplicate = false;
+            while (keywords[slot] != null) {
+                if (hashes[slot] == hash && equals(keywords[slot], word, 0, word.length())) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                keywords[slot] = word.toCharArray();
+                hashes[slot] = hash;
+                count++;
+            }
+        }
+        this.size = count;
+
+        if (count < FILTER_THRESHOLD) {
+            this.filter = null;
+            this.filterMask = 0;
+            this.filterShift = 0;
+            return;
+        }
+        int filterBits = Integer.highestOneBit(count * FILTER_BITS_PER_WORD - 1) << 1;
+        this.filter = new long[filterBits >>> 6];
+        this.filterMask = filterBits - 1;
+        this.filterShift = Integer.numberOfLeadingZeros(filterBits) + 1;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (keywords[slot] != null) {
+                setBit(hashes[slot] & filterMask);
+                setBit((hashes[slot] * 0x9E3779B9) >>> filterShift);
+            }
+        }
+    }
+
+    public static KeywordMatcher of(Collection<String> keywords) {
+        return new KeywordMatcher(keywords);
+    }
+
+    public boolean matches(CharSequence word) {
+        return matches(word, 0, word.length());
+    }
+
+    /**
+     * Returns whether the characters between {@code start} (inclusive) and
+     * {@code end} (exclusive) form one of the keywords.
+     */
+    public boolean matches(CharSequence source, int start, int end) {
+        int hash = hash(source, start, end);
+        if (filter != null && !(isSet(hash & filterMask) && isSet((hash * 0x9E3779B9) >>> filterShift))) {
+            return false;
+        }
+        for (int slot = hash & mask; keywords[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equals(keywords[slot], source, start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void setBit(int bit) {
+        filter[bit >>> 6] |= 1L << bit;
+    }
+
+    private boolean isSet(int bit) {
+        return (filter[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    static int hash(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(char[] keyword, CharSequence source, int start, int end) {
+        if (keyword.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            if (keyword[i] != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
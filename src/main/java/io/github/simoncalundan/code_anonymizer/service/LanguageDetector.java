@@ -0,0 +1,248 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guesses the language of a file whose name does not tell, from the first
+ * {@link #PREFIX_LENGTH} characters of its content. Languages are reported as
+ * the file extension of their interpreter, e.g. {@code py}.
+ * <p>
+ * The first lines are checked for a shebang ({@code #!/usr/bin/env python3})
+ * and for Emacs or Vim modelines ({@code -*- mode: python -*-},
+ * {@code vim: set ft=python:}), which decide on their own. Otherwise the
+ * identifiers of the prefix are scored against words that are typical for
+ * each language, and the best language wins if it is clearly ahead.
+ * <p>
+ * Scoring is the expensive part, so its outcome is cached per path pattern:
+ * files in the same directory with the same extension, or without one, are
+ * assumed to be written in the same language. Shebangs and modelines are still
+ * read for every file, as scripts without an extension often sit next to each
+ * other in different languages. Since only the prefix is looked at, detection
+ * costs the same for files of any size.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class LanguageDetector {
+    public static final int PREFIX_LENGTH = 4096;
+
+    private static final int MODELINE_LINES = 5;
+    private static final int MIN_SCORE = 4;
+    private static final int MAX_CACHED_PATTERNS = 10_000;
+    private static final String UNDETECTED = "";
+
+    private static final Map<String, String> SHEBANG_PROGRAMS = Map.of(
+            "python", "py",
+            "pypy", "py",
+            "node", "js",
+            "nodejs", "js",
+            "bun", "js",
+            "deno", "ts",
+            "ts-node", "ts",
+            "tsx", "ts");
+
+    private static final Map<String, String> MODES = Map.ofEntries(
+            Map.entry("python", "py"),
+            Map.entry("java", "java"),
+            Map.entry("javascript", "js"),
+            Map.entry("js", "js"),
+            Map.entry("typescript", "ts"),
+            Map.entry("go", "go"),
+            Map.entry("csharp", "cs"),
+            Map.entry("cs", "cs"));
+
+    private static final List<Signature> SIGNATURES = List.of(
+            new Signature("py", Set.of("def", "elif", "self", "None", "True", "False", "lambda", "pass",
+                    "__init__", "__name__", "nonlocal", "except", "print", "cls")),
+            new Signature("java", Set.of("public", "private", "protected", "void", "static", "final", "extends",
+                    "implements", "throws", "package", "String", "System", "Override", "boolean")),
+            new Signature("js", Set.of("function", "const", "let", "require", "module", "exports", "console",
+                    "undefined", "export", "prototype", "document", "window", "typeof")),
+            new Signature("go", Set.of("func", "chan", "defer", "nil", "struct", "fmt", "go", "iota",
+                    "make", "err", "range", "interface")),
+            new Signature("cs", Set.of("namespace", "using", "override", "readonly", "Console", "get", "set",
+                    "async", "Task", "var", "sealed", "internal")));
+
+    private final Set<String> languages;
+    private final Map<String, String> decisionsByPattern = new ConcurrentHashMap<>();
+
+    /**
+     * @param languages languages that may be reported, others are never detected
+     */
+    public LanguageDetector(Set<String> languages) {
+        this.languages = Set.copyOf(languages);
+    }
+
+    /**
+     * Returns the detected language, or {@code null} if the content does not
+     * give it away.
+     *
+     * @param content the content, or at least its first {@link #PREFIX_LENGTH} characters
+     */
+    public String detect(String fileName, CharSequence content) {
+        int limit = Math.min(content.length(), PREFIX_LENGTH);
+        String declared = declaredLanguage(content, limit);
+        if (declared != null) {
+            return languages.contains(declared) ? declared : null;
+        }
+        String pattern = patternOf(fileName);
+        String decision = decisionsByPattern.get(pattern);
+        if (decision == null) {
+            decision = scoredLanguage(content, limit);
+            if (decisionsByPattern.size() < MAX_CACHED_PATTERNS) {
+                decisionsByPattern.put(pattern, decision);
+            }
+        }
+        return decision.equals(UNDETECTED) ? null : decision;
+    }
+
+    int cachedPatterns() {
+        return decisionsByPattern.size();
+    }
+
+    /**
+     * Directory plus extension, e.g. {@code src/*.txt}, or {@code bin/*} for
+     * files without one.
+     */
+    static String patternOf(String fileName) {
+        int separator = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        int dot = fileName.lastIndexOf('.');
+        String directory = fileName.substring(0, separator + 1);
+        return dot > separator + 1 ? directory + "*" + fileName.substring(dot).toLowerCase(Locale.ROOT) : directory + "*";
+    }
+
+    /**
+     * Language named by a shebang or a modeline in the first lines, or
+     * {@code null}.
+     */
+    private static String declaredLanguage(CharSequence content, int limit) {
+        int lineStart = 0;
+        for (int line = 0; line < MODELINE_LINES && lineStart < limit; line++) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && content.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            String text = content.subSequence(lineStart, lineEnd).toString();
+            String language = line == 0 && text.startsWith("#!") ? shebangLanguage(text) : modelineLanguage(text);
+            if (language != null) {
+                return language;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+
+    private static String shebangLanguage(String line) {
+        String[] words = line.substring(2).trim().split("\\s+");
+        String program = programName(words[0]);
+        if (program.equals("env")) {
+            program = "";
+            for (int i = 1; i < words.length; i++) {
+                if (!words[i].startsWith("-") && !words[i].contains("=")) {
+                    program = programName(words[i]);
+                    break;
+                }
+            }
+        }
+        // python3, python3.12 and similar
+        String base = program.replaceAll("[0-9.]+$", "");
+        // Other interpreters, such as sh or ruby, still decide that the file is not one of ours
+        return SHEBANG_PROGRAMS.getOrDefault(base, UNDETECTED);
+    }
+
+    private static String programName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String modelineLanguage(String line) {
+        int emacs = line.indexOf("-*-");
+        if (emacs >= 0) {
+            int end = line.indexOf("-*-", emacs + 3);
+            String settings = line.substring(emacs + 3, end < 0 ? line.length() : end).trim();
+            if (!settings.contains(":")) {
+                return MODES.get(settings.toLowerCase(Locale.ROOT));
+            }
+            for (String setting : settings.split(";")) {
+                String[] keyValue = setting.split(":", 2);
+                if (keyValue.length == 2 && keyValue[0].trim().equalsIgnoreCase("mode")) {
+                    return MODES.get(keyValue[1].trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        int vim = Math.max(line.indexOf("vim:"), line.indexOf("vi:"));
+        if (vim >= 0) {
+            for (String setting : line.substring(vim).split("[\\s:]+")) {
+                int equals = setting.indexOf('=');
+                if (equals > 0) {
+                    String key = setting.substring(0, equals);
+                    if (key.equals("ft") || key.equals("filetype") || key.equals("syntax")) {
+                        return MODES.get(setting.substring(equals + 1).toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private String scoredLanguage(CharSequence content, int limit) {
+        int[] scores = new int[SIGNATURES.size()];
+        int i = 0;
+        while (i < limit) {
+            char c = content.charAt(i);
+            if (isWordStart(c)) {
+                int end = i + 1;
+                while (end < limit && isWordPart(content.charAt(end))) {
+                    end++;
+                }
+                for (int s = 0; s < scores.length; s++) {
+                    if (SIGNATURES.get(s).words.matches(content, i, end)) {
+                        scores[s]++;
+                    }
+                }
+                i = end;
+            } else if (c >= '0' && c <= '9') {
+                while (i < limit && isWordPart(content.charAt(i))) {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+
+        int best = -1;
+        int runnerUp = 0;
+        for (int s = 0; s < scores.length; s++) {
+            if (!languages.contains(SIGNATURES.get(s).language)) {
+                continue;
+            }
+            if (best < 0 || scores[s] > scores[best]) {
+                runnerUp = best < 0 ? 0 : scores[best];
+                best = s;
+            } else if (scores[s] > runnerUp) {
+                runnerUp = scores[s];
+            }
+        }
+        // Require a clear lead, many words are shared between the C-like languages
+        if (best < 0 || scores[best] < MIN_SCORE || scores[best] < runnerUp * 3 / 2) {
+            return UNDETECTED;
+        }
+        return SIGNATURES.get(best).language;
+    }
+
+    private static boolean isWordStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWordPart(char c) {
+        return isWordStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private record Signature(String language, KeywordMatcher words) {
+        Signature(String language, Set<String> words) {
+            this(language, KeywordMatcher.of(words));
+        }
+    }
+}
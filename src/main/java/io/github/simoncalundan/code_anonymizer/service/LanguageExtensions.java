@@ -0,0 +1,20 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * File extensions handled by a {@link LanguageInterpreter} plugin, without the
+ * leading dot and in lower case. Declared on the class, so
+ * {@link LanguageInterpreterRegistry} can route files to an interpreter before
+ * it is instantiated.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface LanguageExtensions {
+    String[] value();
+}
@@ -1,13 +1,26 @@
 package io.github.simoncalundan.code_anonymizer.service;
 
 import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
 
 import java.util.Set;
 
 public interface LanguageInterpreter {
     Set<String> getReservedKeywords();
 
+    /**
+     * Keyword matcher compiled from {@link #getReservedKeywords()}. Implementations
+     * build it once and return the same instance on every call.
+     */
+    KeywordMatcher getKeywordMatcher();
+
     CommentStyle getCommentStyle();
 
+    /**
+     * Delimiters of the string and char literals, which the lexer engine
+     * masks or keeps as a whole instead of renaming the words inside them.
+     */
+    StringStyle getStringStyle();
+
     boolean isValidIdentifier(String name);
 }
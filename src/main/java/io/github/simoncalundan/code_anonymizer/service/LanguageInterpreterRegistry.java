@@ -0,0 +1,119 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Maps file extensions to the {@link LanguageInterpreter} plugins found
+ * through {@link ServiceLoader}.
+ * <p>
+ * The registry reads the {@link LanguageExtensions} of every provider class
+ * once, without instantiating it. An interpreter is created the first time a
+ * file of one of its extensions is looked up, and that instance is shared from
+ * then on, so its keyword and comment tables are built once per process and
+ * only for languages that are actually used. Files without a plugin share a
+ * single {@link DefaultInterpreter}.
+ * <p>
+ * To add a language, implement {@link LanguageInterpreter}, annotate it with
+ * {@link LanguageExtensions} and list it in
+ * {@code META-INF/services/io.github.simoncalundan.code_anonymizer.service.LanguageInterpreter}.
+ * When two plugins claim the same extension, the first one on the class path
+ * wins.
+ */
+@Slf4j
+public final class LanguageInterpreterRegistry {
+    private static final LanguageInterpreter DEFAULT_INTERPRETER = new DefaultInterpreter();
+
+    private final Map<String, LazyInterpreter> interpretersByExtension;
+
+    private LanguageInterpreterRegistry(Map<String, LazyInterpreter> interpretersByExtension) {
+        this.interpretersByExtension = interpretersByExtension;
+    }
+
+    /**
+     * The registry of the plugins on the class path, discovered on first use.
+     */
+    public static LanguageInterpreterRegistry shared() {
+        return Shared.INSTANCE;
+    }
+
+    static LanguageInterpreterRegistry load(ServiceLoader<LanguageInterpreter> loader) {
+        Map<String, LazyInterpreter> interpretersByExtension = new HashMap<>();
+        loader.stream().forEach(provider -> {
+            Class<? extends LanguageInterpreter> type = provider.type();
+            LanguageExtensions extensions = type.getAnnotation(LanguageExtensions.class);
+            if (extensions == null) {
+                throw new IllegalStateException("Language interpreter " + type.getName()
+                        + " is not annotated with @" + LanguageExtensions.class.getSimpleName());
+            }
+            LazyInterpreter interpreter = new LazyInterpreter(provider);
+            for (String extension : extensions.value()) {
+                LazyInterpreter existing = interpretersByExtension.putIfAbsent(extension.toLowerCase(Locale.ROOT), interpreter);
+                if (existing != null) {
+                    log.warn("Extension {} of {} is already handled by {}", extension, type.getName(), existing.type().getName());
+                }
+            }
+        });
+        return new LanguageInterpreterRegistry(Map.copyOf(interpretersByExtension));
+    }
+
+    public LanguageInterpreter forExtension(String extension) {
+        LazyInterpreter interpreter = interpretersByExtension.get(extension);
+        return interpreter != null ? interpreter.get() : DEFAULT_INTERPRETER;
+    }
+
+    public boolean supports(String extension) {
+        return interpretersByExtension.containsKey(extension);
+    }
+
+    public Set<String> extensions() {
+        return interpretersByExtension.keySet();
+    }
+
+    public LanguageInterpreter defaultInterpreter() {
+        return DEFAULT_INTERPRETER;
+    }
+
+    /**
+     * Instantiates the provider on the first call and returns the same
+     * interpreter afterwards.
+     */
+    private static final class LazyInterpreter implements Supplier<LanguageInterpreter> {
+        private final ServiceLoader.Provider<LanguageInterpreter> provider;
+        private volatile LanguageInterpreter interpreter;
+
+        private LazyInterpreter(ServiceLoader.Provider<LanguageInterpreter> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public LanguageInterpreter get() {
+            LanguageInterpreter result = interpreter;
+            if (result == null) {
+                synchronized (this) {
+                    result = interpreter;
+                    if (result == null) {
+                        result = provider.get();
+                        interpreter = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        Class<? extends LanguageInterpreter> type() {
+            return provider.type();
+        }
+    }
+
+    private static final class Shared {
+        private static final LanguageInterpreterRegistry INSTANCE =
+                load(ServiceLoader.load(LanguageInterpreter.class, LanguageInterpreterRegistry.class.getClassLoader()));
+    }
+}
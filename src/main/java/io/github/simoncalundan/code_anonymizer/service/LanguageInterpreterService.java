@@ -2,18 +2,117 @@ package io.github.simoncalundan.code_anonymizer.service;
 
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Selects the {@link LanguageInterpreter} for a file, using the plugins of a
+ * {@link LanguageInterpreterRegistry}. The file extension decides when an
+ * interpreter handles it, otherwise a {@link LanguageDetector} looks at the
+ * beginning of the content.
+ * <p>
+ * Engines classify identifiers with {@link #getKeywordMatcher}, which also
+ * applies the {@link NameLists} of the service.
+ */
 @Service
 public class LanguageInterpreterService {
-    private final Map<String, LanguageInterpreter> interpreters = Map.of(
-            "java", new JavaInterpreter()
-//            "js", new JavaScriptInterpreter(),
-//            "py", new PythonInterpreter()
-    );
+    public static final String OTHER_LANGUAGE = "other";
+
+    private final LanguageInterpreterRegistry registry;
+    private final LanguageDetector detector;
+    private final NameLists nameLists;
+    private final Map<LanguageInterpreter, KeywordMatcher> keywordMatchers = new ConcurrentHashMap<>();
+
+    public LanguageInterpreterService() {
+        this(LanguageInterpreterRegistry.shared());
+    }
+
+    public LanguageInterpreterService(LanguageInterpreterRegistry registry) {
+        this(registry, new LanguageDetector(registry.extensions()), NameLists.NONE);
+    }
+
+    private LanguageInterpreterService(LanguageInterpreterRegistry registry, LanguageDetector detector,
+                                       NameLists nameLists) {
+        this.registry = registry;
+        this.detector = detector;
+        this.nameLists = nameLists;
+    }
+
+    /**
+     * Returns a service for the same languages that also keeps and renames
+     * the names of {@code nameLists}, or this service if the lists are empty.
+     */
+    public LanguageInterpreterService withNameLists(NameLists nameLists) {
+        return nameLists.isEmpty() ? this : new LanguageInterpreterService(registry, detector, nameLists);
+    }
+
+    public NameLists getNameLists() {
+        return nameLists;
+    }
+
+    /**
+     * Keywords of the interpreter adjusted by the name lists. The merged
+     * matcher of each interpreter is compiled on first use.
+     */
+    public KeywordMatcher getKeywordMatcher(LanguageInterpreter interpreter) {
+        if (nameLists.isEmpty()) {
+            return interpreter.getKeywordMatcher();
+        }
+        return keywordMatchers.computeIfAbsent(interpreter, nameLists::keywordsOf);
+    }
 
     public LanguageInterpreter getInterpreterForFile(String fileName) {
-        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
-        return interpreters.getOrDefault(extension, new DefaultInterpreter());
+        return registry.forExtension(extensionOf(fileName));
+    }
+
+    /**
+     * Like {@link #getInterpreterForFile(String)}, but detects the language
+     * from the content when the extension is unknown.
+     */
+    public LanguageInterpreter getInterpreterForFile(String fileName, CharSequence content) {
+        return getInterpreter(getLanguageForFile(fileName, content));
+    }
+
+    /**
+     * @param language a language returned by {@link #getLanguageForFile}
+     */
+    public LanguageInterpreter getInterpreter(String language) {
+        return registry.forExtension(language);
+    }
+
+    /**
+     * Returns the file extension when a dedicated interpreter handles it, and
+     * {@code "other"} otherwise, which keeps metric tags bounded.
+     */
+    public String getLanguageForFile(String fileName) {
+        String extension = extensionOf(fileName);
+        return registry.supports(extension) ? extension : OTHER_LANGUAGE;
+    }
+
+    /**
+     * Like {@link #getLanguageForFile(String)}, but detects the language from
+     * the content when the extension is unknown. Only the first
+     * {@link LanguageDetector#PREFIX_LENGTH} characters are looked at.
+     */
+    public String getLanguageForFile(String fileName, CharSequence content) {
+        String language = getLanguageForFile(fileName);
+        if (!language.equals(OTHER_LANGUAGE)) {
+            return language;
+        }
+        String detected = detector.detect(fileName, content);
+        return detected != null ? detected : OTHER_LANGUAGE;
+    }
+
+    /**
+     * Whether the language of the file is known from its name alone, so
+     * {@link #getLanguageForFile(String, CharSequence)} does not need the content.
+     */
+    public boolean isKnownFromName(String fileName) {
+        return registry.supports(extensionOf(fileName));
+    }
+
+    private static String extensionOf(String fileName) {
+        return fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
     }
 }
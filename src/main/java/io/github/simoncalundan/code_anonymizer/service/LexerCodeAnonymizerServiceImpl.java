@@ -0,0 +1,158 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.io.PrefixedReader;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerPhase;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.service.lexer.SourceLexer;
+import io.github.simoncalundan.code_anonymizer.service.lexer.StreamingLexer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Anonymizer engine that rewrites the source in a single forward pass over the
+ * tokens of {@link SourceLexer}, instead of masking and restoring placeholders.
+ * <p>
+ * The output matches {@link CodeAnonymizerServiceImpl}, except that single
+ * quoted literals are copied unchanged, quotes or comment markers inside
+ * literals and comments are no longer misinterpreted, and every block comment
+ * on a line is stripped rather than only the first one.
+ * <p>
+ * {@link #anonymize(Reader, Writer, String, boolean, boolean, SymbolTable)}
+ * streams through {@link StreamingLexer}, so memory use does not depend on
+ * the size of the input.
+ */
+@Service
+@Slf4j
+public class LexerCodeAnonymizerServiceImpl implements CodeAnonymizerService {
+    private static final int STREAMING_OUTPUT_CAPACITY = 32 * 1024;
+
+    private final LanguageInterpreterService languageService;
+    private final AnonymizerMetrics metrics;
+    private final Map<Syntax, SourceLexer> lexers = new ConcurrentHashMap<>();
+    private final Map<Syntax, StreamingLexer> streamingLexers = new ConcurrentHashMap<>();
+
+    public LexerCodeAnonymizerServiceImpl(LanguageInterpreterService languageService, AnonymizerMetrics metrics) {
+        this.languageService = languageService;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments,
+                                SymbolTable symbolTable) {
+        if (sourceCode == null || sourceCode.isEmpty()) {
+            log.warn("Received empty or null source code");
+            return "";
+        }
+        String language = languageService.getLanguageForFile(fileName, sourceCode);
+        LanguageInterpreter interpreter = languageService.getInterpreter(language);
+        log.debug("Anonymizing {} with {} (preserveStringLiterals: {}, preserveComments: {})",
+                fileName, interpreter, preserveStringLiterals, preserveComments);
+
+        AnonymizerMetrics.Recording recording = start(language, interpreter, fileName);
+        AnonymizingRewriter rewriter = new AnonymizingRewriter(sourceCode.length() + 16, null,
+                languageService.getKeywordMatcher(interpreter), symbolTable, preserveStringLiterals, preserveComments);
+        lexer(interpreter).lex(sourceCode, rewriter);
+        String anonymizedCode = rewriter.finish();
+        finish(recording, rewriter);
+        return anonymizedCode;
+    }
+
+    @Override
+    public void anonymizeCode(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                              boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        if (sourceCode == null || sourceCode.isEmpty()) {
+            log.warn("Received empty or null source code");
+            return;
+        }
+        String language = languageService.getLanguageForFile(fileName, sourceCode);
+        LanguageInterpreter interpreter = languageService.getInterpreter(language);
+        log.debug("Anonymizing {} into a writer with {} (preserveStringLiterals: {}, preserveComments: {})",
+                fileName, interpreter, preserveStringLiterals, preserveComments);
+
+        AnonymizerMetrics.Recording recording = start(language, interpreter, fileName);
+        AnonymizingRewriter rewriter = new AnonymizingRewriter(STREAMING_OUTPUT_CAPACITY, target,
+                languageService.getKeywordMatcher(interpreter), symbolTable, preserveStringLiterals, preserveComments);
+        try {
+            lexer(interpreter).lex(sourceCode, rewriter);
+            rewriter.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finish(recording, rewriter);
+    }
+
+    @Override
+    public void anonymize(Reader source, Writer target, String fileName, boolean preserveStringLiterals,
+                          boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        String language;
+        if (languageService.isKnownFromName(fileName)) {
+            language = languageService.getLanguageForFile(fileName);
+        } else {
+            // Only the beginning is needed to detect the language, the rest is still streamed
+            String prefix = PrefixedReader.readPrefix(source, LanguageDetector.PREFIX_LENGTH);
+            language = languageService.getLanguageForFile(fileName, prefix);
+            source = new PrefixedReader(prefix, source);
+        }
+        LanguageInterpreter interpreter = languageService.getInterpreter(language);
+        log.debug("Streaming {} with {} (preserveStringLiterals: {}, preserveComments: {})",
+                fileName, interpreter, preserveStringLiterals, preserveComments);
+
+        AnonymizerMetrics.Recording recording = start(language, interpreter, fileName);
+        AnonymizingRewriter rewriter = new AnonymizingRewriter(STREAMING_OUTPUT_CAPACITY, target,
+                languageService.getKeywordMatcher(interpreter), symbolTable, preserveStringLiterals, preserveComments);
+        try {
+            streamingLexer(interpreter).lex(source, rewriter);
+            rewriter.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finish(recording, rewriter);
+    }
+
+    LexerCodeAnonymizerServiceImpl withNameLists(NameLists nameLists) {
+        return new LexerCodeAnonymizerServiceImpl(languageService.withNameLists(nameLists), metrics);
+    }
+
+    LanguageInterpreterService languageService() {
+        return languageService;
+    }
+
+    /**
+     * The lexer for the comment and string style of the interpreter, shared by
+     * all interpreters with the same styles.
+     */
+    SourceLexer lexer(LanguageInterpreter interpreter) {
+        return lexers.computeIfAbsent(Syntax.of(interpreter),
+                syntax -> new SourceLexer(syntax.commentStyle(), syntax.stringStyle()));
+    }
+
+    private StreamingLexer streamingLexer(LanguageInterpreter interpreter) {
+        return streamingLexers.computeIfAbsent(Syntax.of(interpreter),
+                syntax -> new StreamingLexer(syntax.commentStyle(), syntax.stringStyle()));
+    }
+
+    AnonymizerMetrics.Recording start(String language, LanguageInterpreter interpreter, String fileName) {
+        return metrics.start(AnonymizerEngine.LEXER, interpreter.getClass().getSimpleName(), language, fileName);
+    }
+
+    private static void finish(AnonymizerMetrics.Recording recording, AnonymizingRewriter rewriter) {
+        recording.endPhase(AnonymizerPhase.REWRITE);
+        recording.finish(rewriter.counts());
+    }
+
+    private record Syntax(CommentStyle commentStyle, StringStyle stringStyle) {
+        static Syntax of(LanguageInterpreter interpreter) {
+            return new Syntax(interpreter.getCommentStyle(), interpreter.getStringStyle());
+        }
+    }
+}
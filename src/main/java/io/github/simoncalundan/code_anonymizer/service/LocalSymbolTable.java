@@ -0,0 +1,30 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Symbol table for a single file, names are numbered in order of first use.
+ * Not thread-safe.
+ */
+public class LocalSymbolTable implements SymbolTable {
+    private final Map<String, String> nameMapping = new HashMap<>();
+    private int counter = 1;
+
+    @Override
+    public String nameFor(String identifier) {
+        String name = nameMapping.get(identifier);
+        if (name == null) {
+            name = VariableNames.of(counter++);
+            nameMapping.put(identifier, name);
+        }
+        return name;
+    }
+
+    /**
+     * Returns a copy of the mapping from original identifier to anonymized name.
+     */
+    public Map<String, String> getNameMapping() {
+        return Map.copyOf(nameMapping);
+    }
+}
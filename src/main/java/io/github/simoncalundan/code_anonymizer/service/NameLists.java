@@ -0,0 +1,170 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Names to keep unchanged on top of the keywords of every interpreter, and
+ * names to rename even though an interpreter declares them as keywords.
+ * <p>
+ * A list is a file, or a resource on the class path when its location starts
+ * with {@value #CLASSPATH_PREFIX}, with one name per line. Blank lines and
+ * lines starting with {@code #} are ignored. Every part of a qualified name
+ * such as {@code java.util.concurrent.ConcurrentHashMap} is listed, so imports
+ * of a kept type stay intact as well. A name on both lists is renamed.
+ * <p>
+ * The lists are merged into the {@link KeywordMatcher} of each interpreter
+ * once, by {@link LanguageInterpreterService#getKeywordMatcher}, so
+ * classifying an identifier stays a single lookup however long the lists are.
+ */
+public final class NameLists {
+    public static final String CLASSPATH_PREFIX = "classpath:";
+    public static final NameLists NONE = new NameLists(Set.of(), Set.of());
+
+    private final Set<String> keep;
+    private final Set<String> rename;
+    private final String fingerprint;
+
+    private NameLists(Set<String> keep, Set<String> rename) {
+        this.keep = keep;
+        this.rename = rename;
+        this.fingerprint = keep.isEmpty() && rename.isEmpty() ? "" : fingerprint(keep, rename);
+    }
+
+    /**
+     * @param keepLocations   lists of names to keep unchanged
+     * @param renameLocations lists of names to rename even if they are keywords
+     */
+    public static NameLists load(Collection<String> keepLocations, Collection<String> renameLocations)
+            throws IOException {
+        if (keepLocations.isEmpty() && renameLocations.isEmpty()) {
+            return NONE;
+        }
+        return new NameLists(read(keepLocations), read(renameLocations));
+    }
+
+    static NameLists of(Collection<String> keep, Collection<String> rename) {
+        return new NameLists(Set.copyOf(keep), Set.copyOf(rename));
+    }
+
+    public boolean isEmpty() {
+        return keep.isEmpty() && rename.isEmpty();
+    }
+
+    public int keepCount() {
+        return keep.size();
+    }
+
+    public int renameCount() {
+        return rename.size();
+    }
+
+    /**
+     * SHA-256 of both lists independent of their order, for cache keys and
+     * run settings. Empty when there are no lists.
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Compiles the keywords of the interpreter without the names to rename,
+     * plus the names to keep.
+     */
+    KeywordMatcher keywordsOf(LanguageInterpreter interpreter) {
+        List<String> words = new ArrayList<>(interpreter.getReservedKeywords().size() + keep.size());
+        for (String keyword : interpreter.getReservedKeywords()) {
+            if (!rename.contains(keyword)) {
+                words.add(keyword);
+            }
+        }
+        for (String name : keep) {
+            if (!rename.contains(name)) {
+                words.add(name);
+            }
+        }
+        return KeywordMatcher.of(words);
+    }
+
+    private static Set<String> read(Collection<String> locations) throws IOException {
+        Set<String> names = new HashSet<>();
+        for (String location : locations) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(location), StandardCharsets.UTF_8))) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.strip();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    for (String part : line.split("\\.", -1)) {
+                        if (!isIdentifier(part)) {
+                            throw new IOException(location + ":" + lineNumber + ": not a name: " + line);
+                        }
+                        names.add(part);
+                    }
+                }
+            }
+        }
+        return Set.copyOf(names);
+    }
+
+    private static InputStream open(String location) throws IOException {
+        if (!location.startsWith(CLASSPATH_PREFIX)) {
+            return Files.newInputStream(Path.of(location));
+        }
+        String resource = location.substring(CLASSPATH_PREFIX.length());
+        if (resource.startsWith("/")) {
+            resource = resource.substring(1);
+        }
+        InputStream stream = NameLists.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new FileNotFoundException("No class path resource " + resource);
+        }
+        return stream;
+    }
+
+    private static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fingerprint(Set<String> keep, Set<String> rename) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (String name : new TreeSet<>(keep)) {
+            digest.update(("+" + name + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        for (String name : new TreeSet<>(rename)) {
+            digest.update(("-" + name + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,329 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.io.PrefixedReader;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizationCounts;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerPhase;
+import io.github.simoncalundan.code_anonymizer.service.lexer.SourceLexer;
+import io.github.simoncalundan.code_anonymizer.service.lexer.TokenHandler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Anonymizes large sources with the lexer engine in segments that are
+ * processed in parallel on a {@link ForkJoinPool}. Sources shorter than two
+ * segments are handed to the engine unchanged. The output, including the
+ * names taken from the symbol table and the numbers of replaced string
+ * literals, is identical to a sequential run.
+ * <p>
+ * The source is split at line starts near every multiple of the segment size,
+ * preferably blank or unindented lines, so segments usually start at a
+ * top-level declaration. The segments are lexed in parallel to collect their
+ * identifiers, which also confirms that no split point lies inside a comment
+ * or literal, see {@link #split}. Handing those to the symbol table in
+ * segment order reproduces the order of first use of a sequential run, so
+ * every identifier gets the same name. Finally the segments are rewritten in
+ * parallel with the merged names and written out in order.
+ * <p>
+ * Streamed sources that are long enough to be split are read into memory.
+ */
+@Slf4j
+public class SegmentingAnonymizerService implements CodeAnonymizerService {
+    // How far past a multiple of the segment size to look for a top-level line
+    private static final int MAX_SEARCH_WINDOW = 16 * 1024;
+
+    private final LexerCodeAnonymizerServiceImpl engine;
+    private final int segmentSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param segmentSize approximate number of characters per segment
+     */
+    public SegmentingAnonymizerService(LexerCodeAnonymizerServiceImpl engine, int segmentSize, ForkJoinPool pool) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be positive, was " + segmentSize);
+        }
+        this.engine = engine;
+        this.segmentSize = segmentSize;
+        this.pool = pool;
+    }
+
+    @Override
+    public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals, boolean preserveComments,
+                                SymbolTable symbolTable) {
+        if (!isSplit(sourceCode)) {
+            return engine.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments, symbolTable);
+        }
+        StringWriter output = new StringWriter(sourceCode.length() + 16);
+        try {
+            anonymizeSegments(sourceCode, output, fileName, preserveStringLiterals, preserveComments, symbolTable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    @Override
+    public void anonymizeCode(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                              boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        if (!isSplit(sourceCode)) {
+            engine.anonymizeCode(sourceCode, target, fileName, preserveStringLiterals, preserveComments, symbolTable);
+            return;
+        }
+        anonymizeSegments(sourceCode, target, fileName, preserveStringLiterals, preserveComments, symbolTable);
+    }
+
+    @Override
+    public void anonymize(Reader source, Writer target, String fileName, boolean preserveStringLiterals,
+                          boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        int limit = 2 * segmentSize;
+        String prefix = PrefixedReader.readPrefix(source, limit);
+        if (prefix.length() < limit) {
+            engine.anonymizeCode(prefix, target, fileName, preserveStringLiterals, preserveComments, symbolTable);
+            return;
+        }
+        StringWriter sourceCode = new StringWriter(prefix.length() * 2);
+        sourceCode.write(prefix);
+        source.transferTo(sourceCode);
+        anonymizeSegments(sourceCode.toString(), target, fileName, preserveStringLiterals, preserveComments, symbolTable);
+    }
+
+    private boolean isSplit(String sourceCode) {
+        return sourceCode != null && sourceCode.length() >= 2L * segmentSize;
+    }
+
+    private void anonymizeSegments(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                                   boolean preserveComments, SymbolTable symbolTable) throws IOException {
+        LanguageInterpreterService languageService = engine.languageService();
+        String language = languageService.getLanguageForFile(fileName, sourceCode);
+        LanguageInterpreter interpreter = languageService.getInterpreter(language);
+        SourceLexer lexer = engine.lexer(interpreter);
+        KeywordMatcher keywords = languageService.getKeywordMatcher(interpreter);
+        AnonymizerMetrics.Recording recording = engine.start(language, interpreter, fileName);
+
+        List<Segment> segments = split(sourceCode, lexer, keywords);
+        log.debug("Anonymizing {} in {} segments", fileName, segments.size());
+
+        Map<String, String> names = new HashMap<>();
+        for (Segment segment : segments) {
+            for (String identifier : segment.identifiers()) {
+                if (!names.containsKey(identifier)) {
+                    names.put(identifier, symbolTable.nameFor(identifier));
+                }
+            }
+        }
+
+        List<AnonymizingRewriter> rewriters = inParallel(segments, segment -> {
+            CharSequence source = segment.source(sourceCode);
+            AnonymizingRewriter rewriter = new AnonymizingRewriter(source.length() + 16, null, keywords, names::get,
+                    preserveStringLiterals, preserveComments, segment.firstStringNumber());
+            lexer.lex(source, rewriter);
+            return rewriter;
+        });
+
+        AnonymizationCounts counts = new AnonymizationCounts(0, 0, 0, 0, 0, 0);
+        for (AnonymizingRewriter rewriter : rewriters) {
+            target.write(rewriter.finish());
+            counts = counts.plus(rewriter.counts());
+        }
+        recording.endPhase(AnonymizerPhase.REWRITE);
+        recording.finish(counts);
+    }
+
+    private <S, T> List<T> inParallel(List<S> items, Function<S, T> work) {
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(items.size());
+        for (S item : items) {
+            tasks.add(pool.submit(() -> work.apply(item)));
+        }
+        List<T> results = new ArrayList<>(items.size());
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Splits the source into segments of roughly {@code segmentSize}
+     * characters that each start at the beginning of a line in code, and
+     * collects the identifiers of every segment on the way.
+     * <p>
+     * The split points are guessed without lexing: from every multiple of the
+     * segment size, a short scan looks for the next blank or unindented line.
+     * All segments are then lexed in parallel as if each guess was right. A
+     * guess is right when the segment before it ends with a line break in
+     * code, since a comment or literal that runs past the line break would be
+     * reported as the last token instead. A segment that ends in the middle of
+     * a comment or literal is merged with the next one and lexed again.
+     */
+    List<Segment> split(String sourceCode, SourceLexer lexer, KeywordMatcher keywords) {
+        List<Integer> starts = guessSegmentStarts(sourceCode, segmentSize);
+        List<int[]> ranges = new ArrayList<>(starts.size() + 1);
+        int start = 0;
+        for (int end : starts) {
+            ranges.add(new int[]{start, end});
+            start = end;
+        }
+        ranges.add(new int[]{start, sourceCode.length()});
+        List<SegmentScanner> scans = inParallel(ranges,
+                range -> scan(sourceCode, range[0], range[1], lexer, keywords));
+
+        List<Segment> segments = new ArrayList<>(scans.size());
+        int firstStringNumber = 1;
+        for (int i = 0; i < scans.size(); i++) {
+            SegmentScanner scan = scans.get(i);
+            while (!scan.endsInCode(sourceCode.length())) {
+                i++;
+                scan = scan(sourceCode, scan.segmentStart, scans.get(i).segmentEnd, lexer, keywords);
+            }
+            segments.add(new Segment(scan.segmentStart, scan.segmentEnd, firstStringNumber, scan.firstUse));
+            firstStringNumber += scan.strings;
+        }
+        return segments;
+    }
+
+    /**
+     * Guesses where segments start, without lexing. Prefers a blank line or a
+     * line that starts with neither white space nor a closing bracket, which
+     * is usually a top-level declaration, within a short distance of every
+     * multiple of the segment size.
+     */
+    static List<Integer> guessSegmentStarts(String sourceCode, int segmentSize) {
+        int window = Math.min(Math.max(segmentSize / 2, 1), MAX_SEARCH_WINDOW);
+        List<Integer> starts = new ArrayList<>();
+        int target = segmentSize;
+        while (target < sourceCode.length()) {
+            int lineBreak = sourceCode.indexOf('\n', target - 1);
+            if (lineBreak < 0 || lineBreak + 1 >= sourceCode.length()) {
+                break;
+            }
+            int start = lineBreak + 1;
+            for (int line = start; line >= 0 && line < sourceCode.length() && line < start + window; ) {
+                if (isTopLevelLine(sourceCode.charAt(line))) {
+                    start = line;
+                    break;
+                }
+                int next = sourceCode.indexOf('\n', line);
+                line = next < 0 ? -1 : next + 1;
+            }
+            starts.add(start);
+            target = start + segmentSize;
+        }
+        return starts;
+    }
+
+    private static boolean isTopLevelLine(char first) {
+        return first == '\n' || (first > ' ' && first != '}' && first != ')' && first != ']');
+    }
+
+    private static SegmentScanner scan(String sourceCode, int start, int end, SourceLexer lexer,
+                                       KeywordMatcher keywords) {
+        SegmentScanner scanner = new SegmentScanner(start, end, keywords);
+        lexer.lex(sourceCode, start, end, scanner);
+        return scanner;
+    }
+
+    /**
+     * @param firstStringNumber number of the first string literal of the segment
+     * @param identifiers       identifiers that are not keywords, in order of first use within the segment
+     */
+    record Segment(int start, int end, int firstStringNumber, List<String> identifiers) {
+        CharSequence source(String sourceCode) {
+            return sourceCode.subSequence(start, end);
+        }
+    }
+
+    /**
+     * Collects the identifiers of a segment that are not keywords in order of
+     * first use and counts its string literals. Tokens are reported back to
+     * back, so the segment ends in code exactly when its last token is a line
+     * break that ends at the end of the segment. A comment or literal that
+     * continues past the end is reported whole instead.
+     */
+    private static final class SegmentScanner implements TokenHandler {
+        private final int segmentStart;
+        private final int segmentEnd;
+        private final KeywordMatcher keywords;
+        private final List<String> firstUse = new ArrayList<>();
+        private final IdentifierCache cache = new IdentifierCache(identifier -> {
+            firstUse.add(identifier);
+            return identifier;
+        });
+        private int strings;
+        private int position;
+        private boolean lastWasNewline;
+
+        private SegmentScanner(int segmentStart, int segmentEnd, KeywordMatcher keywords) {
+            this.segmentStart = segmentStart;
+            this.segmentEnd = segmentEnd;
+            this.keywords = keywords;
+            this.position = segmentStart;
+        }
+
+        boolean endsInCode(int sourceLength) {
+            // The last segment ends with the source, in whatever state that leaves
+            return segmentEnd == sourceLength || (lastWasNewline && position == segmentEnd);
+        }
+
+        @Override
+        public void code(CharSequence source, int start, int end) {
+            token(end);
+        }
+
+        @Override
+        public void identifier(CharSequence source, int start, int end) {
+            token(end);
+            if (!keywords.matches(source, start, end)) {
+                cache.nameFor(source, start, end);
+            }
+        }
+
+        @Override
+        public void stringLiteral(CharSequence source, int start, int end) {
+            token(end);
+            strings++;
+        }
+
+        @Override
+        public void stringLiteralContinued(CharSequence source, int start, int end) {
+            token(end);
+        }
+
+        @Override
+        public void charLiteral(CharSequence source, int start, int end) {
+            token(end);
+        }
+
+        @Override
+        public void comment(CharSequence source, int start, int end, boolean block) {
+            token(end);
+        }
+
+        @Override
+        public void commentContinued(CharSequence source, int start, int end, boolean block) {
+            token(end);
+        }
+
+        @Override
+        public void newline() {
+            position++;
+            lastWasNewline = true;
+        }
+
+        private void token(int end) {
+            position = end;
+            lastWasNewline = false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Symbol table shared by all files of a batch, so an identifier gets the same
+ * name in every file. Safe for concurrent use: lookups of known identifiers
+ * are lock-free and new names only contend on a single hash bin and an atomic
+ * counter. The mapping can be saved and loaded again by a later run.
+ * <p>
+ * With {@link KeyedNames}, names are derived from the identifiers instead of
+ * being numbered, so tables in separate processes hand out the same names.
+ * A name that is already taken by another identifier is counted as a
+ * collision and the identifier moves on to its next candidate. Which of the
+ * two identifiers keeps the first candidate depends on the order they are
+ * seen in, so runs that should agree must compare {@link #collisions()}.
+ */
+public class SharedSymbolTable implements SymbolTable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ConcurrentHashMap<String, String> nameMapping = new ConcurrentHashMap<>();
+    private final AtomicInteger counter;
+    private final KeyedNames keyedNames;
+    private final ConcurrentHashMap<String, String> identifiersByName;
+    private final AtomicInteger collisions = new AtomicInteger();
+
+    public SharedSymbolTable() {
+        this(Map.of(), 1, null);
+    }
+
+    /**
+     * Creates a table that derives every name from the identifier.
+     */
+    public SharedSymbolTable(KeyedNames keyedNames) {
+        this(Map.of(), 1, keyedNames);
+    }
+
+    private SharedSymbolTable(Map<String, String> names, int nextId, KeyedNames keyedNames) {
+        this.nameMapping.putAll(names);
+        this.counter = new AtomicInteger(nextId);
+        this.keyedNames = keyedNames;
+        if (keyedNames == null) {
+            this.identifiersByName = null;
+        } else {
+            this.identifiersByName = new ConcurrentHashMap<>();
+            names.forEach((identifier, name) -> identifiersByName.put(name, identifier));
+        }
+    }
+
+    @Override
+    public String nameFor(String identifier) {
+        String name = nameMapping.get(identifier);
+        if (name != null) {
+            return name;
+        }
+        if (keyedNames == null) {
+            return nameMapping.computeIfAbsent(identifier, key -> VariableNames.of(counter.getAndIncrement()));
+        }
+        return nameMapping.computeIfAbsent(identifier, this::newKeyedName);
+    }
+
+    private String newKeyedName(String identifier) {
+        for (int attempt = 0; ; attempt++) {
+            String name = keyedNames.nameFor(identifier, attempt);
+            String owner = identifiersByName.putIfAbsent(name, identifier);
+            if (owner == null || owner.equals(identifier)) {
+                return name;
+            }
+            collisions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Number of keyed names that were found taken by another identifier.
+     */
+    public int collisions() {
+        return collisions.get();
+    }
+
+    /**
+     * Returns a copy of the mapping from original identifier to anonymized name.
+     */
+    public Map<String, String> getNameMapping() {
+        return Map.copyOf(nameMapping);
+    }
+
+    public int size() {
+        return nameMapping.size();
+    }
+
+    public static SharedSymbolTable load(Path file) throws IOException {
+        return load(file, null);
+    }
+
+    /**
+     * Loads a mapping and continues with keyed names, or with numbered names
+     * if {@code keyedNames} is {@code null}.
+     */
+    public static SharedSymbolTable load(Path file, KeyedNames keyedNames) throws IOException {
+        MappingFile mappingFile = MAPPER.readValue(file.toFile(), MappingFile.class);
+        Map<String, String> names = mappingFile.names() == null ? Map.of() : mappingFile.names();
+        return new SharedSymbolTable(names, Math.max(mappingFile.nextId(), 1), keyedNames);
+    }
+
+    /**
+     * Writes the mapping as JSON, ordered by anonymized name.
+     */
+    public void save(Path file) throws IOException {
+        Map<String, String> ordered = new LinkedHashMap<>();
+        nameMapping.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, String> entry) -> entry.getValue().length())
+                        .thenComparing(Map.Entry::getValue))
+                .forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), new MappingFile(counter.get(), ordered));
+    }
+
+    record MappingFile(int nextId, Map<String, String> names) {
+    }
+}
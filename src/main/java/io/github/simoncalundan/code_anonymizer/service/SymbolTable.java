@@ -0,0 +1,9 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+/**
+ * Assigns anonymized names to identifiers. The same identifier always gets the
+ * same name from a given table.
+ */
+public interface SymbolTable {
+    String nameFor(String identifier);
+}
@@ -0,0 +1,26 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+/**
+ * The anonymized names {@code var1}, {@code var2} and so on. The first
+ * {@link #PRECOMPUTED} names are built once per process, so numbering new
+ * identifiers in typical files does not build any strings.
+ */
+final class VariableNames {
+    static final String PREFIX = "var";
+    static final int PRECOMPUTED = 1024;
+
+    private static final String[] NAMES = new String[PRECOMPUTED + 1];
+
+    static {
+        for (int id = 1; id <= PRECOMPUTED; id++) {
+            NAMES[id] = PREFIX + id;
+        }
+    }
+
+    private VariableNames() {
+    }
+
+    static String of(int id) {
+        return id > 0 && id <= PRECOMPUTED ? NAMES[id] : PREFIX + id;
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.service.KeywordMatcher;
+import io.github.simoncalundan.code_anonymizer.service.LanguageExtensions;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreter;
+
+import java.util.Set;
+
+@LanguageExtensions({"cs", "csx"})
+public class CSharpInterpreter implements LanguageInterpreter {
+    private static final Set<String> KEYWORDS = Set.of(
+            // Control flow
+            "if", "else", "for", "foreach", "in", "do", "while", "break", "continue", "return",
+            "switch", "case", "default", "goto", "try", "catch", "finally", "throw", "when",
+            "yield", "await", "lock", "using", "checked", "unchecked", "fixed", "unsafe",
+
+            // Modifiers
+            "public", "private", "protected", "internal", "static", "readonly", "const",
+            "sealed", "abstract", "virtual", "override", "new", "extern", "volatile",
+            "async", "partial", "params", "ref", "out", "required",
+
+            // Declarations
+            "class", "struct", "interface", "enum", "record", "delegate", "event", "namespace",
+            "operator", "implicit", "explicit", "get", "set", "init", "value", "add", "remove",
+            "where", "var", "dynamic", "global",
+
+            // Operators
+            "is", "as", "typeof", "sizeof", "nameof", "stackalloc", "this", "base",
+
+            // Built-in types
+            "bool", "byte", "sbyte", "char", "decimal", "double", "float", "int", "uint",
+            "long", "ulong", "short", "ushort", "object", "string", "void", "nint", "nuint",
+
+            // LINQ
+            "from", "select", "group", "into", "orderby", "join", "let", "on", "equals", "by",
+            "ascending", "descending",
+
+            // Literal values
+            "true", "false", "null",
+
+            // Standard library types
+            "System", "Console", "String", "Object", "Math", "Exception", "ArgumentException",
+            "InvalidOperationException", "Task", "List", "Dictionary", "HashSet", "IEnumerable",
+            "IList", "IDictionary", "Func", "Action", "DateTime", "TimeSpan", "Guid", "Linq",
+            "Collections", "Generic", "Threading", "Tasks", "WriteLine", "ToString",
+
+            // Generic type parameters
+            "T", "TKey", "TValue", "TResult"
+    );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(KEYWORDS);
+
+    @Override
+    public Set<String> getReservedKeywords() {
+        return KEYWORDS;
+    }
+
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
+    @Override
+    public CommentStyle getCommentStyle() {
+        return CommentStyle.JAVA_STYLE;
+    }
+
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.CSHARP_STYLE;
+    }
+
+    @Override
+    public boolean isValidIdentifier(String name) {
+        if (name == null || name.isEmpty() || KEYWORDS.contains(name)) {
+            return false;
+        }
+        if (Character.isDigit(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
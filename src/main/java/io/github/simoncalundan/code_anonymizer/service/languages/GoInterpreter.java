@@ -0,0 +1,78 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.service.KeywordMatcher;
+import io.github.simoncalundan.code_anonymizer.service.LanguageExtensions;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreter;
+
+import java.util.Set;
+
+@LanguageExtensions("go")
+public class GoInterpreter implements LanguageInterpreter {
+    private static final Set<String> KEYWORDS = Set.of(
+            // Control flow
+            "if", "else", "for", "range", "break", "continue", "return", "goto", "fallthrough",
+            "switch", "case", "default", "select", "defer", "go",
+
+            // Declarations
+            "package", "import", "func", "var", "const", "type", "struct", "interface", "map", "chan",
+
+            // Names the toolchain looks up
+            "main", "init",
+
+            // Predeclared types
+            "bool", "byte", "rune", "string", "error", "any", "comparable",
+            "int", "int8", "int16", "int32", "int64", "uint", "uint8", "uint16", "uint32", "uint64",
+            "uintptr", "float32", "float64", "complex64", "complex128",
+
+            // Predeclared values
+            "true", "false", "nil", "iota",
+
+            // Built-in functions
+            "append", "cap", "clear", "close", "complex", "copy", "delete", "imag", "len",
+            "make", "max", "min", "new", "panic", "print", "println", "real", "recover",
+
+            // Common standard packages
+            "fmt", "os", "io", "strings", "strconv", "errors", "context", "time", "sync",
+            "http", "json", "log", "Println", "Printf", "Sprintf", "Errorf", "Error"
+    );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(KEYWORDS);
+
+    @Override
+    public Set<String> getReservedKeywords() {
+        return KEYWORDS;
+    }
+
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
+    @Override
+    public CommentStyle getCommentStyle() {
+        return CommentStyle.JAVA_STYLE;
+    }
+
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.GO_STYLE;
+    }
+
+    @Override
+    public boolean isValidIdentifier(String name) {
+        if (name == null || name.isEmpty() || KEYWORDS.contains(name)) {
+            return false;
+        }
+        if (Character.isDigit(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.service.KeywordMatcher;
+import io.github.simoncalundan.code_anonymizer.service.LanguageExtensions;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreter;
+
+import java.util.Set;
+
+/**
+ * JavaScript and TypeScript, which share their syntax apart from the type
+ * annotations of TypeScript.
+ */
+@LanguageExtensions({"js", "mjs", "cjs", "jsx", "ts", "mts", "cts", "tsx"})
+public class JavaScriptInterpreter implements LanguageInterpreter {
+    private static final Set<String> KEYWORDS = Set.of(
+            // Control flow
+            "if", "else", "for", "do", "while", "break", "continue", "return",
+            "switch", "case", "default", "try", "catch", "finally", "throw",
+
+            // Declarations
+            "var", "let", "const", "function", "class", "extends", "constructor", "static",
+            "get", "set", "async", "await", "yield", "import", "export", "from", "as",
+
+            // Operators
+            "new", "delete", "typeof", "instanceof", "in", "of", "void", "this", "super",
+
+            // TypeScript
+            "interface", "type", "enum", "namespace", "module", "declare", "abstract",
+            "implements", "public", "private", "protected", "readonly", "keyof", "infer",
+            "satisfies", "is", "any", "unknown", "never", "string", "number", "boolean",
+            "bigint", "symbol", "object",
+
+            // Literal values
+            "true", "false", "null", "undefined", "NaN", "Infinity",
+
+            // Globals
+            "console", "window", "document", "globalThis", "require", "exports", "process",
+            "JSON", "Math", "Date", "RegExp", "Error", "TypeError", "Promise",
+            "Object", "Array", "String", "Number", "Boolean", "Symbol", "Map", "Set",
+            "WeakMap", "WeakSet", "parseInt", "parseFloat", "setTimeout", "clearTimeout",
+            "setInterval", "clearInterval", "fetch",
+
+            // Common members
+            "log", "error", "warn", "length", "push", "pop", "map", "filter", "reduce",
+            "forEach", "then", "prototype", "toString",
+
+            // Utility types
+            "Partial", "Required", "Readonly", "Record", "Pick", "Omit"
+    );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(KEYWORDS);
+
+    @Override
+    public Set<String> getReservedKeywords() {
+        return KEYWORDS;
+    }
+
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
+    @Override
+    public CommentStyle getCommentStyle() {
+        return CommentStyle.JAVA_STYLE;
+    }
+
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.JAVASCRIPT_STYLE;
+    }
+
+    @Override
+    public boolean isValidIdentifier(String name) {
+        if (name == null || name.isEmpty() || KEYWORDS.contains(name)) {
+            return false;
+        }
+        if (Character.isDigit(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '$') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
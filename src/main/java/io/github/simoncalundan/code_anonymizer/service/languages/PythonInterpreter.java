@@ -0,0 +1,88 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.service.KeywordMatcher;
+import io.github.simoncalundan.code_anonymizer.service.LanguageExtensions;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreter;
+
+import java.util.Set;
+
+@LanguageExtensions({"py", "pyw", "pyi"})
+public class PythonInterpreter implements LanguageInterpreter {
+    private static final Set<String> KEYWORDS = Set.of(
+            // Control flow
+            "if", "elif", "else", "for", "while", "break", "continue", "return", "pass",
+            "try", "except", "finally", "raise", "with", "yield", "match", "case",
+
+            // Declarations
+            "def", "class", "lambda", "global", "nonlocal", "del", "async", "await",
+            "import", "from", "as", "type",
+
+            // Operators
+            "and", "or", "not", "in", "is", "assert",
+
+            // Literal values
+            "True", "False", "None",
+
+            // Conventional names
+            "self", "cls", "__init__", "__name__", "__main__", "__str__", "__repr__", "__eq__",
+            "__hash__", "__len__", "__iter__", "__next__", "__enter__", "__exit__", "__call__",
+
+            // Built-in functions
+            "print", "len", "range", "enumerate", "zip", "map", "filter", "sorted", "reversed",
+            "min", "max", "sum", "abs", "round", "open", "input", "isinstance", "issubclass",
+            "hasattr", "getattr", "setattr", "super", "iter", "next", "any", "all", "id", "hash",
+            "repr", "format", "vars", "dir", "callable", "property", "staticmethod", "classmethod",
+
+            // Built-in types
+            "int", "float", "str", "bool", "bytes", "list", "dict", "set", "tuple", "frozenset",
+            "object", "complex", "bytearray",
+
+            // Built-in exceptions
+            "Exception", "BaseException", "ValueError", "TypeError", "KeyError", "IndexError",
+            "AttributeError", "RuntimeError", "StopIteration", "NotImplementedError",
+            "FileNotFoundError", "OSError", "ImportError",
+
+            // Typing
+            "Any", "Optional", "Union", "List", "Dict", "Set", "Tuple", "Callable", "Iterable"
+    );
+    private static final KeywordMatcher KEYWORD_MATCHER = KeywordMatcher.of(KEYWORDS);
+
+    @Override
+    public Set<String> getReservedKeywords() {
+        return KEYWORDS;
+    }
+
+    @Override
+    public KeywordMatcher getKeywordMatcher() {
+        return KEYWORD_MATCHER;
+    }
+
+    @Override
+    public CommentStyle getCommentStyle() {
+        return CommentStyle.PYTHON_STYLE;
+    }
+
+    @Override
+    public StringStyle getStringStyle() {
+        return StringStyle.PYTHON_STYLE;
+    }
+
+    @Override
+    public boolean isValidIdentifier(String name) {
+        if (name == null || name.isEmpty() || KEYWORDS.contains(name)) {
+            return false;
+        }
+        if (Character.isDigit(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
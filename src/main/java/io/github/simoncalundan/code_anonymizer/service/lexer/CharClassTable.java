@@ -0,0 +1,150 @@
+package io.github.simoncalundan.code_anonymizer.service.lexer;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle.Delimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps every ASCII character to the lexer character class it belongs to for a
+ * given comment and string style. Characters outside ASCII are always
+ * {@link #OTHER}.
+ * <p>
+ * Literal delimiters are indexed by their first character. A delimiter that
+ * starts with a letter, like the {@code r"} of a Python raw string, leaves the
+ * letter an {@link #IDENTIFIER_START}, and the lexers check
+ * {@link #startsLiteral} before taking it as an identifier.
+ */
+final class CharClassTable {
+    static final byte OTHER = 0;
+    static final byte IDENTIFIER_START = 1;
+    static final byte DIGIT = 2;
+    static final byte LITERAL_START = 3;
+    static final byte NEWLINE = 4;
+    static final byte COMMENT_START = 5;
+
+    private final byte[] charClasses = new byte[128];
+    private final Delimiter[][] delimiters = new Delimiter[128][];
+    private final int[] longestOpen = new int[128];
+    final String singleLine;
+    final String multiLineStart;
+    final String multiLineEnd;
+
+    CharClassTable(CommentStyle commentStyle, StringStyle stringStyle) {
+        this.singleLine = commentStyle.getSingleLine();
+        this.multiLineStart = commentStyle.getMultiLineStart();
+        this.multiLineEnd = commentStyle.getMultiLineEnd();
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            charClasses[c] = IDENTIFIER_START;
+            charClasses[Character.toUpperCase(c)] = IDENTIFIER_START;
+        }
+        charClasses['_'] = IDENTIFIER_START;
+        for (char c = '0'; c <= '9'; c++) {
+            charClasses[c] = DIGIT;
+        }
+        charClasses['\n'] = NEWLINE;
+        if (singleLine != null) {
+            charClasses[singleLine.charAt(0)] = COMMENT_START;
+        }
+        if (multiLineStart != null) {
+            charClasses[multiLineStart.charAt(0)] = COMMENT_START;
+        }
+
+        List<List<Delimiter>> byFirstChar = new ArrayList<>();
+        for (int c = 0; c < 128; c++) {
+            byFirstChar.add(new ArrayList<>());
+        }
+        // Longest first, so the first delimiter that matches wins
+        for (Delimiter delimiter : stringStyle.getDelimiters()) {
+            char first = delimiter.open().charAt(0);
+            byFirstChar.get(first).add(delimiter);
+            longestOpen[first] = Math.max(longestOpen[first], delimiter.open().length());
+            if (charClasses[first] == OTHER) {
+                charClasses[first] = LITERAL_START;
+            }
+        }
+        for (int c = 0; c < 128; c++) {
+            if (!byFirstChar.get(c).isEmpty()) {
+                delimiters[c] = byFirstChar.get(c).toArray(Delimiter[]::new);
+            }
+        }
+    }
+
+    byte classOf(char c) {
+        return c < 128 ? charClasses[c] : OTHER;
+    }
+
+    boolean isWordPart(char c) {
+        return c < 128 && (charClasses[c] == IDENTIFIER_START || charClasses[c] == DIGIT);
+    }
+
+    boolean startsLiteral(char c) {
+        return c < 128 && delimiters[c] != null;
+    }
+
+    /**
+     * Length of the longest delimiter starting with {@code c}, which is how
+     * far a lexer has to look ahead to recognize a literal there.
+     */
+    int longestOpen(char c) {
+        return c < 128 ? longestOpen[c] : 0;
+    }
+
+    /**
+     * Returns the longest delimiter that opens a literal at {@code offset}, or
+     * {@code null} if no literal starts there.
+     */
+    Delimiter literalAt(CharSequence source, int offset, int limit) {
+        char c = source.charAt(offset);
+        if (c >= 128 || delimiters[c] == null) {
+            return null;
+        }
+        for (Delimiter delimiter : delimiters[c]) {
+            if (startsWith(source, offset, limit, delimiter.open())) {
+                return delimiter;
+            }
+        }
+        return null;
+    }
+
+    int skipWord(CharSequence source, int i, int limit) {
+        while (i < limit && isWordPart(source.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static boolean startsWith(CharSequence source, int offset, int limit, String prefix) {
+        if (offset + prefix.length() > limit) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (source.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(CharSequence source, char target, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (source.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int indexOf(CharSequence source, String target, int from, int limit) {
+        int last = limit - target.length();
+        for (int i = from; i <= last; i++) {
+            if (startsWith(source, i, limit, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.simoncalundan.code_anonymizer.service.lexer;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle.Delimiter;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle.Escape;
+
+import static io.github.simoncalundan.code_anonymizer.service.lexer.CharClassTable.*;
+
+/**
+ * Single pass lexer that splits source code into code, identifiers, string
+ * literals, char literals and comments.
+ * <p>
+ * Every ASCII character is mapped to a character class through a lookup table
+ * built once per comment and string style, and the scanner only inspects
+ * characters that can change its state. Literals open with the delimiters of
+ * the {@link StringStyle}, and a literal that is never closed is left in the
+ * code. Identifiers follow the same rules as the regex engine:
+ * runs of {@code [a-zA-Z0-9_]} that do not start with a digit.
+ */
+public final class SourceLexer {
+    private final CharClassTable table;
+
+    public SourceLexer(CommentStyle commentStyle, StringStyle stringStyle) {
+        this.table = new CharClassTable(commentStyle, stringStyle);
+    }
+
+    public void lex(CharSequence source, TokenHandler handler) {
+        lex(source, 0, source.length(), handler);
+    }
+
+    /**
+     * Lexes the tokens that start between {@code from} and {@code to}, as
+     * they would be lexed as part of the whole source, which {@code from}
+     * must be a token boundary of. The last token may end after {@code to}
+     * when a comment or literal continues past it.
+     */
+    public void lex(CharSequence source, int from, int to, TokenHandler handler) {
+        int length = source.length();
+        int codeStart = from;
+        int i = from;
+
+        while (i < to) {
+            switch (table.classOf(source.charAt(i))) {
+                case IDENTIFIER_START -> {
+                    int end = table.startsLiteral(source.charAt(i)) ? literal(source, codeStart, i, handler) : -1;
+                    if (end < 0) {
+                        end = table.skipWord(source, i + 1, length);
+                        flushCode(source, codeStart, i, handler);
+                        handler.identifier(source, i, end);
+                    }
+                    i = codeStart = end;
+                }
+                case DIGIT -> i = table.skipWord(source, i + 1, length);
+                case LITERAL_START -> {
+                    int end = literal(source, codeStart, i, handler);
+                    if (end < 0) {
+                        // An unterminated quote is left in the code, like the regex engine does
+                        i++;
+                    } else {
+                        i = codeStart = end;
+                    }
+                }
+                case NEWLINE -> {
+                    flushCode(source, codeStart, i, handler);
+                    handler.newline();
+                    i = codeStart = i + 1;
+                }
+                case COMMENT_START -> {
+                    int end = -1;
+                    boolean block = false;
+                    if (table.singleLine != null && startsWith(source, i, length, table.singleLine)) {
+                        end = indexOf(source, '\n', i + table.singleLine.length(), length);
+                        end = end < 0 ? length : end;
+                    } else if (table.multiLineStart != null && startsWith(source, i, length, table.multiLineStart)) {
+                        end = indexOf(source, table.multiLineEnd, i + table.multiLineStart.length(), length);
+                        end = end < 0 ? length : end + table.multiLineEnd.length();
+                        block = true;
+                    }
+                    if (end < 0) {
+                        i++;
+                    } else {
+                        flushCode(source, codeStart, i, handler);
+                        handler.comment(source, i, end, block);
+                        i = codeStart = end;
+                    }
+                }
+                default -> i++;
+            }
+        }
+        flushCode(source, codeStart, i, handler);
+    }
+
+    /**
+     * Reports the literal that starts at {@code start} and returns the offset
+     * just past it, or returns -1 if no closed literal starts there.
+     */
+    private int literal(CharSequence source, int codeStart, int start, TokenHandler handler) {
+        Delimiter delimiter = table.literalAt(source, start, source.length());
+        if (delimiter == null) {
+            return -1;
+        }
+        int end = findClose(source, start + delimiter.open().length(), delimiter);
+        if (end < 0) {
+            return -1;
+        }
+        flushCode(source, codeStart, start, handler);
+        if (delimiter.charLiteral()) {
+            handler.charLiteral(source, start, end);
+        } else {
+            handler.stringLiteral(source, start, end);
+        }
+        return end;
+    }
+
+    /**
+     * Returns the offset just past the closing delimiter, or -1 if the literal
+     * is never closed. Char literals must be closed on their line.
+     */
+    private static int findClose(CharSequence source, int i, Delimiter delimiter) {
+        int length = source.length();
+        String close = delimiter.close();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\' && delimiter.escape() == Escape.BACKSLASH) {
+                i += 2;
+            } else if (c == close.charAt(0) && startsWith(source, i, length, close)) {
+                i += close.length();
+                if (delimiter.escape() != Escape.DOUBLED || !startsWith(source, i, length, close)) {
+                    return i;
+                }
+                i += close.length();
+            } else if (c == '\n' && delimiter.charLiteral()) {
+                return -1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static void flushCode(CharSequence source, int start, int end, TokenHandler handler) {
+        if (start < end) {
+            handler.code(source, start, end);
+        }
+    }
+}
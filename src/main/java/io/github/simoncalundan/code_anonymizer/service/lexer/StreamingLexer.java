@@ -0,0 +1,345 @@
+package io.github.simoncalundan.code_anonymizer.service.lexer;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle.Delimiter;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle.Escape;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import static io.github.simoncalundan.code_anonymizer.service.lexer.CharClassTable.*;
+
+/**
+ * Variant of {@link SourceLexer} that reads its input from a {@link Reader} in
+ * fixed size chunks and reports the same tokens with bounded memory.
+ * <p>
+ * The lexer state is carried across chunk boundaries: string literals and
+ * comments that do not fit into a chunk are reported in parts, so their size
+ * does not matter. Only tokens that need to be seen whole (identifiers,
+ * numbers, char literals and the characters of a literal or comment delimiter) are kept
+ * back until the next chunk, which makes memory use independent of the input
+ * size. Unlike {@link SourceLexer}, an unterminated string literal extends to
+ * the end of the input, as the lexer cannot look ahead for its closing quote.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class StreamingLexer {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private enum State { CODE, STRING, LINE_COMMENT, BLOCK_COMMENT }
+
+    private final CharClassTable table;
+    private final int bufferSize;
+
+    public StreamingLexer(CommentStyle commentStyle, StringStyle stringStyle) {
+        this(commentStyle, stringStyle, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingLexer(CommentStyle commentStyle, StringStyle stringStyle, int bufferSize) {
+        if (bufferSize < 2) {
+            throw new IllegalArgumentException("bufferSize must be at least 2, was " + bufferSize);
+        }
+        this.table = new CharClassTable(commentStyle, stringStyle);
+        this.bufferSize = bufferSize;
+    }
+
+    public void lex(Reader reader, TokenHandler handler) throws IOException {
+        new Scan(handler).run(reader);
+    }
+
+    /**
+     * Mutable state of a single pass over one input.
+     */
+    private final class Scan {
+        private static final int NOT_A_LITERAL = -1;
+        private static final int NEEDS_MORE_INPUT = -2;
+
+        private final TokenHandler handler;
+        private char[] buffer = new char[bufferSize];
+        private CharBuffer view = CharBuffer.wrap(buffer);
+        private State state = State.CODE;
+        private Delimiter string;
+
+        private Scan(TokenHandler handler) {
+            this.handler = handler;
+        }
+
+        private void run(Reader reader) throws IOException {
+            int position = 0;
+            int filled = 0;
+            boolean endOfInput = false;
+
+            while (!endOfInput) {
+                if (position > 0) {
+                    System.arraycopy(buffer, position, buffer, 0, filled - position);
+                    filled -= position;
+                    position = 0;
+                }
+                if (filled == buffer.length) {
+                    // A single carried token fills the whole buffer
+                    char[] larger = new char[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, filled);
+                    buffer = larger;
+                    view = CharBuffer.wrap(buffer);
+                }
+                int read = reader.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    filled += read;
+                }
+                position = scan(position, filled, endOfInput);
+            }
+        }
+
+        /**
+         * Lexes the buffer from {@code i} up to {@code limit} and returns the
+         * offset of the first character that has to be kept for the next chunk.
+         */
+        private int scan(int i, int limit, boolean endOfInput) {
+            while (i < limit) {
+                State before = state;
+                int next = switch (state) {
+                    case CODE -> scanCode(i, limit, endOfInput);
+                    case STRING -> continueString(i, i, limit, endOfInput, false);
+                    case LINE_COMMENT -> continueLineComment(i, i, limit, false);
+                    case BLOCK_COMMENT -> continueBlockComment(i, i, limit, endOfInput, false);
+                };
+                if (state == before && next < limit) {
+                    return next;
+                }
+                i = next;
+            }
+            return i;
+        }
+
+        /**
+         * Returns at the end of the chunk, when a token continues into the next
+         * chunk, or when the state changes to a literal or comment that does.
+         */
+        private int scanCode(int i, int limit, boolean endOfInput) {
+            int codeStart = i;
+            while (i < limit) {
+                switch (table.classOf(buffer[i])) {
+                    case IDENTIFIER_START -> {
+                        if (table.startsLiteral(buffer[i])) {
+                            int end = literal(codeStart, i, limit, endOfInput);
+                            if (end == NEEDS_MORE_INPUT) {
+                                return flushCode(codeStart, i);
+                            }
+                            if (end != NOT_A_LITERAL) {
+                                i = codeStart = end;
+                                if (state != State.CODE) {
+                                    return i;
+                                }
+                                continue;
+                            }
+                        }
+                        int end = table.skipWord(view, i + 1, limit);
+                        if (end == limit && !endOfInput) {
+                            return flushCode(codeStart, i);
+                        }
+                        flushCode(codeStart, i);
+                        handler.identifier(view, i, end);
+                        i = codeStart = end;
+                    }
+                    case DIGIT -> {
+                        int end = table.skipWord(view, i + 1, limit);
+                        if (end == limit && !endOfInput) {
+                            return flushCode(codeStart, i);
+                        }
+                        i = end;
+                    }
+                    case LITERAL_START -> {
+                        int end = literal(codeStart, i, limit, endOfInput);
+                        if (end == NEEDS_MORE_INPUT) {
+                            return flushCode(codeStart, i);
+                        }
+                        if (end == NOT_A_LITERAL) {
+                            i++;
+                        } else {
+                            i = codeStart = end;
+                            if (state != State.CODE) {
+                                return i;
+                            }
+                        }
+                    }
+                    case NEWLINE -> {
+                        flushCode(codeStart, i);
+                        handler.newline();
+                        i = codeStart = i + 1;
+                    }
+                    case COMMENT_START -> {
+                        if (!endOfInput && (isPartial(i, limit, table.singleLine) || isPartial(i, limit, table.multiLineStart))) {
+                            return flushCode(codeStart, i);
+                        }
+                        if (table.singleLine != null && startsWith(view, i, limit, table.singleLine)) {
+                            flushCode(codeStart, i);
+                            state = State.LINE_COMMENT;
+                            i = codeStart = continueLineComment(i, i + table.singleLine.length(), limit, true);
+                        } else if (table.multiLineStart != null && startsWith(view, i, limit, table.multiLineStart)) {
+                            flushCode(codeStart, i);
+                            state = State.BLOCK_COMMENT;
+                            i = codeStart = continueBlockComment(i, i + table.multiLineStart.length(), limit, endOfInput,
+                                    true);
+                        } else {
+                            i++;
+                            continue;
+                        }
+                        if (state != State.CODE) {
+                            return i;
+                        }
+                    }
+                    default -> i++;
+                }
+            }
+            return flushCode(codeStart, limit);
+        }
+
+        /**
+         * Reports the literal that starts at {@code start} after the code
+         * before it, and returns the offset where the code continues. Returns
+         * {@link #NOT_A_LITERAL} if no literal starts there, or
+         * {@link #NEEDS_MORE_INPUT} if that depends on the next chunk, without
+         * reporting anything.
+         */
+        private int literal(int codeStart, int start, int limit, boolean endOfInput) {
+            if (!endOfInput && limit - start < table.longestOpen(buffer[start])) {
+                return NEEDS_MORE_INPUT;
+            }
+            Delimiter delimiter = table.literalAt(view, start, limit);
+            if (delimiter == null) {
+                return NOT_A_LITERAL;
+            }
+            int bodyStart = start + delimiter.open().length();
+            if (delimiter.charLiteral()) {
+                int end = findCharLiteralEnd(bodyStart, limit, delimiter.close().charAt(0));
+                if (end == NEEDS_MORE_INPUT && !endOfInput) {
+                    return NEEDS_MORE_INPUT;
+                }
+                if (end < 0) {
+                    return NOT_A_LITERAL;
+                }
+                flushCode(codeStart, start);
+                handler.charLiteral(view, start, end);
+                return end;
+            }
+            flushCode(codeStart, start);
+            state = State.STRING;
+            string = delimiter;
+            return continueString(start, bodyStart, limit, endOfInput, true);
+        }
+
+        private int continueString(int start, int i, int limit, boolean endOfInput, boolean first) {
+            String close = string.close();
+            // Enough input to tell a doubled closing delimiter from a single one
+            int lookahead = string.escape() == Escape.DOUBLED ? close.length() * 2 : close.length();
+            while (i < limit) {
+                char c = buffer[i];
+                if (c == '\\' && string.escape() == Escape.BACKSLASH) {
+                    if (i + 1 >= limit && !endOfInput) {
+                        break;
+                    }
+                    i += 2;
+                } else if (c == close.charAt(0)) {
+                    if (limit - i < lookahead && !endOfInput) {
+                        break;
+                    }
+                    if (!startsWith(view, i, limit, close)) {
+                        i++;
+                    } else if (string.escape() == Escape.DOUBLED && startsWith(view, i + close.length(), limit, close)) {
+                        i += close.length() * 2;
+                    } else {
+                        i += close.length();
+                        state = State.CODE;
+                        break;
+                    }
+                } else {
+                    i++;
+                }
+            }
+            int end = Math.min(i, limit);
+            if (first) {
+                handler.stringLiteral(view, start, end);
+            } else if (start < end) {
+                handler.stringLiteralContinued(view, start, end);
+            }
+            return end;
+        }
+
+        private int continueLineComment(int start, int i, int limit, boolean first) {
+            int end = indexOf(view, '\n', i, limit);
+            if (end < 0) {
+                end = limit;
+            } else {
+                state = State.CODE;
+            }
+            if (first) {
+                handler.comment(view, start, end, false);
+            } else if (start < end) {
+                handler.commentContinued(view, start, end, false);
+            }
+            return end;
+        }
+
+        private int continueBlockComment(int start, int i, int limit, boolean endOfInput, boolean first) {
+            int end = indexOf(view, table.multiLineEnd, i, limit);
+            if (end >= 0) {
+                end += table.multiLineEnd.length();
+                state = State.CODE;
+            } else {
+                // Keep back what could be the beginning of the end delimiter
+                end = endOfInput ? limit : Math.max(i, limit - (table.multiLineEnd.length() - 1));
+            }
+            if (first) {
+                handler.comment(view, start, end, true);
+            } else if (start < end) {
+                handler.commentContinued(view, start, end, true);
+            }
+            return end;
+        }
+
+        private int findCharLiteralEnd(int i, int limit, char quote) {
+            while (i < limit) {
+                char c = buffer[i];
+                if (c == '\\') {
+                    if (i + 1 >= limit) {
+                        return NEEDS_MORE_INPUT;
+                    }
+                    i += 2;
+                } else if (c == quote) {
+                    return i + 1;
+                } else if (c == '\n') {
+                    return -1;
+                } else {
+                    i++;
+                }
+            }
+            return NEEDS_MORE_INPUT;
+        }
+
+        /**
+         * Whether the chunk ends with the first characters of the delimiter.
+         */
+        private boolean isPartial(int i, int limit, String delimiter) {
+            if (delimiter == null || limit - i >= delimiter.length()) {
+                return false;
+            }
+            for (int k = i; k < limit; k++) {
+                if (buffer[k] != delimiter.charAt(k - i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int flushCode(int start, int end) {
+            if (start < end) {
+                handler.code(view, start, end);
+            }
+            return end;
+        }
+    }
+}
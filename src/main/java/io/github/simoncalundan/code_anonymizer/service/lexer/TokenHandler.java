@@ -0,0 +1,55 @@
+package io.github.simoncalundan.code_anonymizer.service.lexer;
+
+/**
+ * Receives the tokens produced by {@link SourceLexer}, in source order.
+ * Ranges are half-open offsets into the source that is being lexed, so
+ * handlers can copy them without allocating intermediate strings.
+ */
+public interface TokenHandler {
+    /**
+     * Plain code that is neither an identifier, a literal nor a comment.
+     * Never contains a line break.
+     */
+    void code(CharSequence source, int start, int end);
+
+    void identifier(CharSequence source, int start, int end);
+
+    /**
+     * A string literal, including its delimiters and any prefix such as the
+     * {@code r} of a Python raw string. When lexing a
+     * stream, a literal that spans chunks is reported here up to the end of
+     * the chunk, and the rest through {@link #stringLiteralContinued}.
+     */
+    void stringLiteral(CharSequence source, int start, int end);
+
+    /**
+     * The next part of a string literal that was started by
+     * {@link #stringLiteral}, not a literal of its own. Only reported by
+     * {@link StreamingLexer}.
+     */
+    void stringLiteralContinued(CharSequence source, int start, int end);
+
+    /**
+     * A char literal, including its quotes.
+     */
+    void charLiteral(CharSequence source, int start, int end);
+
+    /**
+     * A comment including its delimiters. Line comments do not include the
+     * terminating line break. When lexing a stream, a comment that spans
+     * chunks is reported here up to the end of the chunk, and the rest
+     * through {@link #commentContinued}.
+     */
+    void comment(CharSequence source, int start, int end, boolean block);
+
+    /**
+     * The next part of a comment that was started by {@link #comment}, not a
+     * comment of its own. Only reported by {@link StreamingLexer}.
+     */
+    void commentContinued(CharSequence source, int start, int end, boolean block);
+
+    /**
+     * A line break in code.
+     */
+    void newline();
+}
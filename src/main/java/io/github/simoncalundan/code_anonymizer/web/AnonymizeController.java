@@ -0,0 +1,89 @@
+package io.github.simoncalundan.code_anonymizer.web;
+
+import io.github.simoncalundan.code_anonymizer.CodeAnonymizerApplication;
+import io.github.simoncalundan.code_anonymizer.cache.CachingAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.deanonymize.ReverseMapping;
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.model.BatchAnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.BatchAnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.model.SourceFile;
+import io.github.simoncalundan.code_anonymizer.service.AnonymizerEngines;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import io.github.simoncalundan.code_anonymizer.service.NameLists;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP entry point for IDE plugins and CI jobs. Requests run on virtual
+ * threads when the server profile is active.
+ */
+@RestController
+@RequestMapping("/api/anonymize")
+@Profile(CodeAnonymizerApplication.SERVER_PROFILE)
+public class AnonymizeController {
+    private final CodeAnonymizerService anonymizerService;
+    private final AnonymizerServerProperties properties;
+
+    public AnonymizeController(AnonymizerEngines anonymizerEngines, LanguageInterpreterService languageService,
+                               AnonymizerMetrics metrics, AnonymizerServerProperties properties) {
+        NameLists nameLists;
+        try {
+            nameLists = NameLists.load(properties.keepNames(), properties.renameNames());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read name list", e);
+        }
+        CodeAnonymizerService engineService = anonymizerEngines.withNameLists(nameLists).get(properties.engine());
+        if (properties.cacheSize().toBytes() > 0) {
+            CachingAnonymizerService cache = new CachingAnonymizerService(engineService,
+                    languageService.withNameLists(nameLists),
+                    properties.cacheSize().toBytes(), null);
+            metrics.monitor(cache);
+            engineService = cache;
+        }
+        this.anonymizerService = engineService;
+        this.properties = properties;
+    }
+
+    @PostMapping
+    public AnonymizeResponse anonymize(@Valid @RequestBody AnonymizeRequest request) {
+        LocalSymbolTable symbolTable = new LocalSymbolTable();
+        String anonymizedCode = anonymizerService.anonymizeCode(request.sourceCode(), request.fileName(),
+                request.preserveStringLiteralsOrDefault(), request.preserveCommentsOrDefault(), symbolTable);
+        return new AnonymizeResponse(anonymizedCode, ReverseMapping.invert(symbolTable.getNameMapping()));
+    }
+
+    /**
+     * Anonymizes all files in request order with one shared symbol table, so
+     * an identifier gets the same name in every file of the batch.
+     */
+    @PostMapping("/batch")
+    public BatchAnonymizeResponse anonymizeBatch(@Valid @RequestBody BatchAnonymizeRequest request) {
+        if (request.files().size() > properties.maxBatchFiles()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch may contain at most " + properties.maxBatchFiles() + " files");
+        }
+        LocalSymbolTable symbolTable = new LocalSymbolTable();
+        List<SourceFile> files = new ArrayList<>(request.files().size());
+        for (SourceFile file : request.files()) {
+            String anonymizedCode = anonymizerService.anonymizeCode(file.content(), file.path(),
+                    request.preserveStringLiteralsOrDefault(), request.preserveCommentsOrDefault(), symbolTable);
+            files.add(new SourceFile(file.path(), anonymizedCode));
+        }
+        return new BatchAnonymizeResponse(files, ReverseMapping.invert(symbolTable.getNameMapping()));
+    }
+}
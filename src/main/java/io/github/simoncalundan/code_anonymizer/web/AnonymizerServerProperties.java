@@ -0,0 +1,27 @@
+package io.github.simoncalundan.code_anonymizer.web;
+
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Limits and settings of the HTTP server mode.
+ *
+ * @param maxRequestSize largest accepted request body
+ * @param maxBatchFiles  largest number of files in one batch request
+ * @param engine         anonymizer engine used for requests
+ * @param cacheSize      size of the in-memory result cache, zero disables it
+ * @param keepNames      files or {@code classpath:} resources listing names to keep unchanged
+ * @param renameNames    files or {@code classpath:} resources listing names to rename even if they are keywords
+ */
+@ConfigurationProperties("anonymizer.server")
+public record AnonymizerServerProperties(@DefaultValue("10MB") DataSize maxRequestSize,
+                                         @DefaultValue("2000") int maxBatchFiles,
+                                         @DefaultValue("LEXER") AnonymizerEngine engine,
+                                         @DefaultValue("64MB") DataSize cacheSize,
+                                         @DefaultValue List<String> keepNames,
+                                         @DefaultValue List<String> renameNames) {
+}
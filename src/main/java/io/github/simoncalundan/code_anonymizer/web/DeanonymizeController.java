@@ -0,0 +1,36 @@
+package io.github.simoncalundan.code_anonymizer.web;
+
+import io.github.simoncalundan.code_anonymizer.CodeAnonymizerApplication;
+import io.github.simoncalundan.code_anonymizer.deanonymize.Deanonymizer;
+import io.github.simoncalundan.code_anonymizer.model.DeanonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.DeanonymizeResponse;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Translates answers about anonymized code back to the original identifiers.
+ * The server keeps no mappings, clients send the one they got with the
+ * anonymized code.
+ */
+@RestController
+@RequestMapping("/api/deanonymize")
+@Profile(CodeAnonymizerApplication.SERVER_PROFILE)
+public class DeanonymizeController {
+
+    @PostMapping
+    public DeanonymizeResponse deanonymize(@Valid @RequestBody DeanonymizeRequest request) {
+        Deanonymizer deanonymizer;
+        try {
+            deanonymizer = Deanonymizer.of(request.mapping());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return new DeanonymizeResponse(deanonymizer.deanonymize(request.text()));
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.simoncalundan.code_anonymizer.web;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a request body that exceeds the configured limit.
+ */
+public class RequestTooLargeException extends IOException {
+    public RequestTooLargeException(long limit) {
+        super("Request body exceeds " + limit + " bytes");
+    }
+}
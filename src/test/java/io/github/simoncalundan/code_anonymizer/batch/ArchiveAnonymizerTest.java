@@ -0,0 +1,211 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveAnonymizerTest {
+
+    private static final byte[] BINARY = {(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe, 0, 1, 2, 3};
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAnonymizesZipEntriesInOrder() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 40; i++) {
+            entries.put("com/example/Service" + i + ".java", source("UserService service" + i + " = new UserService();"));
+            entries.put("com/example/Service" + i + ".class", BINARY);
+        }
+        entries.put("README.txt", source("UserService is not code here"));
+        Path source = tempDir.resolve("sources.jar");
+        writeZip(source, entries);
+        Path target = tempDir.resolve("out/anonymized.jar");
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+
+        BatchSummary summary = archiveAnonymizer(List.of(), symbolTable).run(source, target, ArchiveFormat.ZIP);
+
+        Map<String, byte[]> anonymized = readZip(target);
+        assertEquals(List.copyOf(entries.keySet()), List.copyOf(anonymized.keySet()));
+        assertEquals(40, summary.files());
+        String userService = symbolTable.nameFor("UserService");
+        for (int i = 0; i < 40; i++) {
+            assertEquals(userService + " " + symbolTable.nameFor("service" + i) + " = new " + userService + "();",
+                    text(anonymized.get("com/example/Service" + i + ".java")));
+            assertArrayEquals(BINARY, anonymized.get("com/example/Service" + i + ".class"));
+        }
+        assertArrayEquals(entries.get("README.txt"), anonymized.get("README.txt"));
+        assertArrayEquals(entries.get("META-INF/MANIFEST.MF"), anonymized.get("META-INF/MANIFEST.MF"));
+    }
+
+    @Test
+    void testLeavesOutSourceEntriesThatAreNotUtf8() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("com/example/Latin.java", "String café = \"secretValue\";".getBytes(StandardCharsets.ISO_8859_1));
+        entries.put("com/example/Plain.java", source("int total = 1;"));
+        Path source = tempDir.resolve("latin.jar");
+        writeZip(source, entries);
+        Path target = tempDir.resolve("latin-anonymized.jar");
+
+        BatchSummary summary = archiveAnonymizer(List.of(), new SharedSymbolTable()).run(source, target, ArchiveFormat.ZIP);
+
+        Map<String, byte[]> anonymized = readZip(target);
+        assertEquals(List.of("com/example/Plain.java"), List.copyOf(anonymized.keySet()));
+        assertEquals(1, summary.skipped());
+        assertFalse(new String(Files.readAllBytes(target), StandardCharsets.ISO_8859_1).contains("secretValue"));
+    }
+
+    @Test
+    void testKeepsStoredZipEntriesStored() throws IOException {
+        Path source = tempDir.resolve("app.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(source))) {
+            ZipEntry stored = new ZipEntry("lib/nested.jar");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(BINARY.length);
+            CRC32 crc = new CRC32();
+            crc.update(BINARY);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(BINARY);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("Main.java"));
+            zip.write(source("int count = 1;"));
+            zip.closeEntry();
+        }
+        Path target = tempDir.resolve("anonymized.jar");
+
+        archiveAnonymizer(List.of(), new SharedSymbolTable()).run(source, target, ArchiveFormat.ZIP);
+
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(target))) {
+            ZipEntry entry = zip.getNextEntry();
+            assertEquals("lib/nested.jar", entry.getName());
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertArrayEquals(BINARY, zip.readAllBytes());
+            assertEquals("Main.java", zip.getNextEntry().getName());
+            assertEquals("int var1 = 1;", text(zip.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testAnonymizesTarGzEntries() throws IOException {
+        Path source = tempDir.resolve("vendor.tar.gz");
+        String longName = "vendor/" + "deeply/".repeat(20) + "script.py";
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(Files.newOutputStream(source)))) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            TarArchiveEntry directory = new TarArchiveEntry("vendor/");
+            tar.putArchiveEntry(directory);
+            tar.closeArchiveEntry();
+            addTarEntry(tar, longName, source("total = compute(items)"), 0755);
+            addTarEntry(tar, "vendor/logo.png", BINARY, 0644);
+        }
+        Path target = tempDir.resolve("anonymized.tgz");
+
+        BatchSummary summary = archiveAnonymizer(List.of(), new SharedSymbolTable()).run(source, target, ArchiveFormat.TAR_GZ);
+
+        assertEquals(1, summary.files());
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(new GZIPInputStream(Files.newInputStream(target)))) {
+            assertTrue(tar.getNextEntry().isDirectory());
+            TarArchiveEntry script = tar.getNextEntry();
+            assertEquals(longName, script.getName());
+            assertEquals(0755, script.getMode());
+            assertEquals("var1 = var2(var3)", text(tar.readAllBytes()));
+            assertEquals("vendor/logo.png", tar.getNextEntry().getName());
+            assertArrayEquals(BINARY, tar.readAllBytes());
+            assertNull(tar.getNextEntry());
+        }
+    }
+
+    @Test
+    void testIncludeAndExcludePatternsSelectEntries() {
+        ArchiveAnonymizer archiveAnonymizer = new ArchiveAnonymizer(anonymizerService, languageService,
+                new BatchOptions(List.of("*.txt", "src/**"), List.of("**/generated/**"), 2, true, true),
+                new SharedSymbolTable());
+
+        assertTrue(archiveAnonymizer.isSource("notes.txt"));
+        assertTrue(archiveAnonymizer.isSource("src/Main.kt"));
+        assertFalse(archiveAnonymizer.isSource("lib/Main.java"));
+        assertFalse(archiveAnonymizer.isSource("src/generated/Parser.java"));
+        assertTrue(archiveAnonymizer(List.of(), new SharedSymbolTable()).isSource("lib/Main.java"));
+    }
+
+    @Test
+    void testFormatFromFileName() {
+        assertEquals(ArchiveFormat.ZIP, ArchiveFormat.of("library-sources.JAR"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.of("vendor.tar.gz"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.of("vendor.tgz"));
+        assertEquals(ArchiveFormat.TAR, ArchiveFormat.of("vendor.tar"));
+        assertNull(ArchiveFormat.of("Main.java"));
+    }
+
+    private ArchiveAnonymizer archiveAnonymizer(List<String> includes, SharedSymbolTable symbolTable) {
+        return new ArchiveAnonymizer(anonymizerService, languageService,
+                new BatchOptions(includes, List.of(), 4, true, true), symbolTable);
+    }
+
+    private static void addTarEntry(TarArchiveOutputStream tar, String name, byte[] content, int mode) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length);
+        entry.setMode(mode);
+        tar.putArchiveEntry(entry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+    }
+
+    private static void writeZip(Path file, Map<String, byte[]> entries) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(output)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> readZip(Path file) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (InputStream input = Files.newInputStream(file); ZipInputStream zip = new ZipInputStream(input)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] source(String code) {
+        return code.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] content) {
+        return new String(content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSchedulerTest {
+
+    private static final long FILE_SIZE = 100;
+    private static final long FILE_WEIGHT = FILE_SIZE * BatchScheduler.BYTES_PER_SOURCE_BYTE;
+
+    @Test
+    void testFilesInFlightStayWithinBudget() throws Exception {
+        BatchScheduler scheduler = new BatchScheduler(4, FILE_WEIGHT * 2, 64);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            scheduler.submit(FILE_SIZE, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+            });
+        }
+
+        SchedulerStatistics statistics = scheduler.finish();
+        assertEquals(2, peak.get());
+        assertEquals(20, statistics.tasks());
+        assertEquals(FILE_WEIGHT * 2, statistics.peakBytesInFlight());
+        assertTrue(statistics.meanBytesInFlight() > 0);
+        assertTrue(statistics.meanBytesInFlight() <= FILE_WEIGHT * 2);
+        assertFalse(statistics.timeline().isEmpty());
+    }
+
+    @Test
+    void testLargestQueuedFileRunsFirst() throws Exception {
+        BatchScheduler scheduler = new BatchScheduler(1, Long.MAX_VALUE, 64);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> order = new CopyOnWriteArrayList<>();
+        scheduler.submit(1, () -> {
+            blocked.countDown();
+            await(release);
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (long size : new long[]{30, 500, 10, 200, 40}) {
+            scheduler.submit(size, () -> order.add(size));
+        }
+        release.countDown();
+
+        scheduler.finish();
+        assertEquals(List.of(500L, 200L, 40L, 30L, 10L), order);
+    }
+
+    @Test
+    void testFullQueueBlocksSubmit() throws Exception {
+        BatchScheduler scheduler = new BatchScheduler(1, Long.MAX_VALUE, 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(1, () -> {
+            blocked.countDown();
+            await(release);
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        scheduler.submit(1, () -> {
+        });
+        scheduler.submit(1, () -> {
+        });
+
+        Thread submitter = Thread.ofVirtual().start(() -> {
+            try {
+                scheduler.submit(1, () -> {
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertFalse(submitter.join(Duration.ofMillis(100)));
+        release.countDown();
+        assertTrue(submitter.join(Duration.ofSeconds(10)));
+
+        SchedulerStatistics statistics = scheduler.finish();
+        assertEquals(4, statistics.tasks());
+        assertEquals(2, statistics.peakQueueDepth());
+        assertTrue(statistics.submitBlocked().toMillis() >= 50);
+    }
+
+    @Test
+    void testFileAboveBudgetRunsAlone() throws Exception {
+        BatchScheduler scheduler = new BatchScheduler(4, FILE_WEIGHT * 4, 64);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger runningWithHuge = new AtomicInteger();
+        scheduler.submit(FILE_SIZE * 100, () -> {
+            runningWithHuge.set(running.incrementAndGet());
+            sleep(20);
+            running.decrementAndGet();
+        });
+        for (int i = 0; i < 8; i++) {
+            scheduler.submit(FILE_SIZE, () -> {
+                running.incrementAndGet();
+                sleep(5);
+                running.decrementAndGet();
+            });
+        }
+
+        SchedulerStatistics statistics = scheduler.finish();
+        assertEquals(1, runningWithHuge.get());
+        assertEquals(FILE_WEIGHT * 4, statistics.peakBytesInFlight());
+    }
+
+    @Test
+    void testFailureIsReportedByFinish() throws Exception {
+        BatchScheduler scheduler = new BatchScheduler(2, Long.MAX_VALUE, 64);
+        scheduler.submit(1, () -> {
+            throw new IllegalStateException("broken file");
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, scheduler::finish);
+        assertEquals("broken file", error.getCause().getMessage());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
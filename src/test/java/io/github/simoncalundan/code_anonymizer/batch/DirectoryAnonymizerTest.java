@@ -0,0 +1,182 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryAnonymizerTest {
+
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMirrorsDirectoryTree() throws IOException {
+        Path source = tempDir.resolve("src");
+        write(source.resolve("Main.java"), "int userAge = 30;");
+        write(source.resolve("nested/deeper/Other.java"), "String userName = \"John\";");
+        Path output = tempDir.resolve("out");
+
+        BatchSummary summary = new DirectoryAnonymizer(anonymizerService, options(List.of(), List.of()), new SharedSymbolTable())
+                .run(source, output);
+
+        assertEquals(2, summary.files());
+        assertEquals(0, summary.failed());
+        assertEquals(Files.size(source.resolve("Main.java")) + Files.size(source.resolve("nested/deeper/Other.java")),
+                summary.bytesRead());
+        assertTrue(Files.readString(output.resolve("Main.java")).matches("int var[12] = 30;"));
+        assertTrue(Files.readString(output.resolve("nested/deeper/Other.java")).matches("String var[12] = \"John\";"));
+    }
+
+    @Test
+    void testNamesAreConsistentAcrossFiles() throws IOException {
+        Path source = tempDir.resolve("src");
+        for (int i = 0; i < 50; i++) {
+            write(source.resolve("File" + i + ".java"), "UserService service" + i + " = new UserService();");
+        }
+        Path output = tempDir.resolve("out");
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+
+        new DirectoryAnonymizer(anonymizerService, options(List.of(), List.of()), symbolTable).run(source, output);
+
+        String userService = symbolTable.nameFor("UserService");
+        assertEquals(51, symbolTable.size());
+        for (int i = 0; i < 50; i++) {
+            String anonymizedCode = Files.readString(output.resolve("File" + i + ".java"));
+            assertEquals(userService + " " + symbolTable.nameFor("service" + i) + " = new " + userService + "();",
+                    anonymizedCode);
+        }
+    }
+
+    @Test
+    void testIncludeAndExcludeFilters() throws IOException {
+        Path source = tempDir.resolve("src");
+        write(source.resolve("Main.java"), "int a;");
+        write(source.resolve("notes.txt"), "some notes");
+        write(source.resolve("generated/Gen.java"), "int b;");
+        Path output = tempDir.resolve("out");
+
+        BatchSummary summary = new DirectoryAnonymizer(anonymizerService, options(List.of("*.java"), List.of("generated/**")),
+                new SharedSymbolTable())
+                .run(source, output);
+
+        assertEquals(1, summary.files());
+        assertTrue(Files.exists(output.resolve("Main.java")));
+        assertFalse(Files.exists(output.resolve("notes.txt")));
+        assertFalse(Files.exists(output.resolve("generated/Gen.java")));
+    }
+
+    @Test
+    void testSkipsBinaryFilesAndOutputInsideSource() throws IOException {
+        Path source = tempDir.resolve("src");
+        write(source.resolve("Main.java"), "int a;");
+        Files.write(source.resolve("image.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', (byte) 0xFF, (byte) 0xFE});
+        Path output = source.resolve("anonymized");
+        write(output.resolve("Stale.java"), "int stale;");
+
+        BatchSummary summary = new DirectoryAnonymizer(anonymizerService, options(List.of(), List.of()), new SharedSymbolTable())
+                .run(source, output);
+
+        assertEquals(1, summary.files());
+        assertEquals(1, summary.skipped());
+        assertFalse(Files.exists(output.resolve("anonymized")));
+    }
+
+    @Test
+    void testFailedWriteLeavesNoPartialOutput() throws IOException {
+        Path source = tempDir.resolve("src");
+        write(source.resolve("Main.java"), "int userAge = 30;");
+        write(source.resolve("New.java"), "int userName;");
+        Path output = tempDir.resolve("out");
+        write(output.resolve("Main.java"), "int var1 = 30;");
+        CodeAnonymizerService failing = new CodeAnonymizerService() {
+            @Override
+            public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals,
+                                        boolean preserveComments, SymbolTable symbolTable) {
+                return anonymizerService.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments,
+                        symbolTable);
+            }
+
+            @Override
+            public void anonymizeCode(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                                      boolean preserveComments, SymbolTable symbolTable) throws IOException {
+                target.write("int ");
+                target.flush();
+                throw new IOException("Disk full");
+            }
+        };
+
+        BatchSummary summary = new DirectoryAnonymizer(failing, options(List.of(), List.of()), new SharedSymbolTable())
+                .run(source, output);
+
+        assertEquals(0, summary.files());
+        assertEquals(2, summary.failed());
+        assertEquals("int var1 = 30;", Files.readString(output.resolve("Main.java")));
+        assertFalse(Files.exists(output.resolve("New.java")));
+        try (Stream<Path> files = Files.list(output)) {
+            assertEquals(List.of(output.resolve("Main.java")), files.toList());
+        }
+    }
+
+    @Test
+    void testEngineFailureOnlyFailsItsFile() throws IOException {
+        Path source = tempDir.resolve("src");
+        write(source.resolve("Main.java"), "int userAge = 30;");
+        write(source.resolve("Bad.java"), "int broken;");
+        write(source.resolve("New.java"), "int userName;");
+        Path output = tempDir.resolve("out");
+        CodeAnonymizerService failing = new CodeAnonymizerService() {
+            @Override
+            public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals,
+                                        boolean preserveComments, SymbolTable symbolTable) {
+                return anonymizerService.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments,
+                        symbolTable);
+            }
+
+            @Override
+            public void anonymizeCode(String sourceCode, Writer target, String fileName, boolean preserveStringLiterals,
+                                      boolean preserveComments, SymbolTable symbolTable) throws IOException {
+                if (fileName.endsWith("Bad.java")) {
+                    target.write("int ");
+                    throw new IllegalStateException("Engine bug");
+                }
+                anonymizerService.anonymizeCode(sourceCode, target, fileName, preserveStringLiterals, preserveComments,
+                        symbolTable);
+            }
+        };
+
+        BatchSummary summary = new DirectoryAnonymizer(failing, options(List.of(), List.of()), new SharedSymbolTable())
+                .run(source, output);
+
+        assertEquals(2, summary.files());
+        assertEquals(1, summary.failed());
+        try (Stream<Path> files = Files.list(output)) {
+            assertEquals(List.of(output.resolve("Main.java"), output.resolve("New.java")), files.sorted().toList());
+        }
+    }
+
+    private static BatchOptions options(List<String> includes, List<String> excludes) {
+        return new BatchOptions(includes, excludes, 4, true, true);
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
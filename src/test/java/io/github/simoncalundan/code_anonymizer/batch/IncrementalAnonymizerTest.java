@@ -0,0 +1,173 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IncrementalAnonymizerTest {
+
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+    private final SharedSymbolTable symbolTable = new SharedSymbolTable();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOnlyChangedFilesAreAnonymizedAgain() throws IOException {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        write(source.resolve("A.java"), "int alpha = 1;");
+        write(source.resolve("B.java"), "int beta = 2;");
+
+        IncrementalSummary first = run(source, output, "settings");
+        assertEquals("full", first.changes());
+        assertEquals(2, first.batch().files());
+
+        write(source.resolve("B.java"), "int beta = alpha;");
+        IncrementalSummary second = run(source, output, "settings");
+        assertEquals("manifest", second.changes());
+        assertEquals(1, second.batch().files());
+        assertEquals(1, second.unchanged());
+        assertEquals("int " + symbolTable.nameFor("beta") + " = " + symbolTable.nameFor("alpha") + ";",
+                Files.readString(output.resolve("B.java")));
+
+        IncrementalSummary third = run(source, output, "settings");
+        assertEquals(0, third.batch().files());
+        assertEquals(2, third.unchanged());
+    }
+
+    @Test
+    void testRemovedAndRenamedFiles() throws IOException {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        write(source.resolve("Gone.java"), "int gone = 1;");
+        write(source.resolve("Old.java"), "int moved = 2;");
+        run(source, output, "settings");
+        String movedOutput = Files.readString(output.resolve("Old.java"));
+
+        Files.delete(source.resolve("Gone.java"));
+        Files.createDirectories(source.resolve("pkg"));
+        Files.move(source.resolve("Old.java"), source.resolve("pkg/New.java"));
+        IncrementalSummary summary = run(source, output, "settings");
+
+        assertEquals(0, summary.batch().files());
+        assertEquals(1, summary.deleted());
+        assertEquals(1, summary.renamed());
+        assertFalse(Files.exists(output.resolve("Gone.java")));
+        assertFalse(Files.exists(output.resolve("Old.java")));
+        assertEquals(movedOutput, Files.readString(output.resolve("pkg/New.java")));
+    }
+
+    @Test
+    void testChangedSettingsStartFromScratch() throws IOException {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        write(source.resolve("A.java"), "int alpha = 1;");
+        run(source, output, "preserveComments=true");
+
+        IncrementalSummary summary = run(source, output, "preserveComments=false");
+        assertEquals("full", summary.changes());
+        assertEquals(1, summary.batch().files());
+    }
+
+    @Test
+    void testGitNarrowsDownCandidates() throws Exception {
+        Path source = tempDir.resolve("repo");
+        Path output = tempDir.resolve("out");
+        write(source.resolve("A.java"), "int alpha = 1;");
+        write(source.resolve("B.java"), "int beta = 2;");
+        assumeTrue(git(source, "init", "-q") && git(source, "add", ".")
+                && git(source, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "init"));
+        run(source, output, "settings");
+
+        write(source.resolve("A.java"), "int alpha = 3;");
+        write(source.resolve("C.java"), "int gamma = 4;");
+        IncrementalSummary summary = run(source, output, "settings");
+
+        assertEquals("git", summary.changes());
+        assertEquals(2, summary.batch().files());
+        assertEquals(1, summary.unchanged());
+        assertTrue(Files.exists(output.resolve("C.java")));
+    }
+
+    @Test
+    void testGitRedoesRevertedUncommittedChanges() throws Exception {
+        Path source = tempDir.resolve("repo");
+        Path output = tempDir.resolve("out");
+        write(source.resolve("A.java"), "int alpha = 1;");
+        write(source.resolve("B.java"), "int beta = 2;");
+        assumeTrue(git(source, "init", "-q") && git(source, "add", ".")
+                && git(source, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "init"));
+        run(source, output, "settings");
+        write(source.resolve("A.java"), "int alpha = 3;");
+        run(source, output, "settings");
+        assertEquals("int " + symbolTable.nameFor("alpha") + " = 3;", Files.readString(output.resolve("A.java")));
+
+        assumeTrue(git(source, "checkout", "--", "A.java"));
+        IncrementalSummary summary = run(source, output, "settings");
+
+        assertEquals("git", summary.changes());
+        assertEquals(1, summary.batch().files());
+        assertEquals("int " + symbolTable.nameFor("alpha") + " = 1;", Files.readString(output.resolve("A.java")));
+    }
+
+    @Test
+    void testGitRedoesIgnoredFiles() throws Exception {
+        Path source = tempDir.resolve("repo");
+        Path output = tempDir.resolve("out");
+        write(source.resolve(".gitignore"), "generated/\n");
+        write(source.resolve("A.java"), "int alpha = 1;");
+        write(source.resolve("generated/G.java"), "int gamma = 1;");
+        assumeTrue(git(source, "init", "-q") && git(source, "add", ".")
+                && git(source, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "init"));
+        run(source, output, "settings");
+        assertTrue(Files.exists(output.resolve("generated/G.java")));
+
+        write(source.resolve("generated/G.java"), "int gamma = delta;");
+        write(source.resolve("generated/H.java"), "int eta;");
+        IncrementalSummary summary = run(source, output, "settings");
+
+        assertEquals("git", summary.changes());
+        assertEquals(2, summary.batch().files());
+        assertEquals("int " + symbolTable.nameFor("gamma") + " = " + symbolTable.nameFor("delta") + ";",
+                Files.readString(output.resolve("generated/G.java")));
+        assertTrue(Files.exists(output.resolve("generated/H.java")));
+    }
+
+    private IncrementalSummary run(Path source, Path output, String settings) throws IOException {
+        BatchOptions options = new BatchOptions(List.of(), List.of(), 2, true, true);
+        return new IncrementalAnonymizer(new DirectoryAnonymizer(anonymizerService, options, symbolTable), settings)
+                .run(source, output);
+    }
+
+    private static boolean git(Path directory, String... arguments) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-C", directory.toString()));
+        command.addAll(List.of(arguments));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            return process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.simoncalundan.code_anonymizer.batch;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkspaceWatcherTest {
+
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+    private final SharedSymbolTable symbolTable = new SharedSymbolTable();
+    private final BlockingQueue<BatchSummary> updates = new LinkedBlockingQueue<>();
+
+    @TempDir
+    Path tempDir;
+
+    private WorkspaceWatcher watcher;
+    private Thread watching;
+
+    @AfterEach
+    void stopWatcher() throws Exception {
+        if (watcher != null) {
+            watcher.close();
+            watching.join();
+        }
+    }
+
+    @Test
+    void testChangedFilesAreAnonymizedAgain() throws Exception {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(source);
+        startWatcher(source, output);
+
+        Files.writeString(source.resolve("A.java"), "int alpha = 1;");
+        assertEquals(1, nextUpdate().files());
+        assertEquals("int " + symbolTable.nameFor("alpha") + " = 1;", Files.readString(output.resolve("A.java")));
+
+        Files.writeString(source.resolve("A.java"), "int alpha = beta;");
+        assertEquals(1, nextUpdate().files());
+        assertEquals("int " + symbolTable.nameFor("alpha") + " = " + symbolTable.nameFor("beta") + ";",
+                Files.readString(output.resolve("A.java")));
+    }
+
+    @Test
+    void testRemovedFilesAndNewDirectories() throws Exception {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("Gone.java"), "int gone = 1;");
+        new DirectoryAnonymizer(anonymizerService, options(), symbolTable).run(source, output);
+        startWatcher(source, output);
+
+        Files.delete(source.resolve("Gone.java"));
+        nextUpdate();
+        assertFalse(Files.exists(output.resolve("Gone.java")));
+
+        Path created = source.resolve("pkg/inner/New.java");
+        Files.createDirectories(created.getParent());
+        Files.writeString(created, "int fresh = 2;");
+        awaitOutput(output.resolve("pkg/inner/New.java"));
+        assertEquals("int " + symbolTable.nameFor("fresh") + " = 2;",
+                Files.readString(output.resolve("pkg/inner/New.java")));
+    }
+
+    @Test
+    void testBurstsAreDebouncedIntoFewUpdates() throws Exception {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(source);
+        startWatcher(source, output);
+
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(source.resolve("F" + i + ".java"), "int value" + i + " = " + i + ";");
+        }
+        int files = 0;
+        int batches = 0;
+        while (files < 10) {
+            files += nextUpdate().files();
+            batches++;
+        }
+        assertTrue(batches < 10, "expected bursts to be batched, got " + batches + " updates");
+        assertEquals(10, Files.list(output).count());
+    }
+
+    @Test
+    void testEditsBeforeWatchingStartsAreNotMissed() throws Exception {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("A.java"), "int alpha = 1;");
+        createWatcher(source, output);
+        new DirectoryAnonymizer(anonymizerService, options(), symbolTable).run(source, output);
+
+        // Edited after the initial run read the file, before the watcher runs
+        Files.writeString(source.resolve("A.java"), "int alpha = gamma;");
+        startWatching();
+
+        assertEquals(1, nextUpdate().files());
+        assertEquals("int " + symbolTable.nameFor("alpha") + " = " + symbolTable.nameFor("gamma") + ";",
+                Files.readString(output.resolve("A.java")));
+    }
+
+    @Test
+    void testRescanDeletesOutputsOfRemovedFiles() throws Exception {
+        Path source = tempDir.resolve("src");
+        Path output = tempDir.resolve("out");
+        Files.createDirectories(source.resolve("pkg"));
+        Files.writeString(source.resolve("Keep.java"), "int keep = 1;");
+        Files.writeString(source.resolve("pkg/Gone.java"), "int gone = 1;");
+        BatchOptions javaOnly = new BatchOptions(List.of("*.java"), List.of(), 2, true, true);
+        new DirectoryAnonymizer(anonymizerService, javaOnly, symbolTable).run(source, output);
+        Files.writeString(output.resolve(RunManifest.FILE_NAME), "{}");
+        Files.writeString(output.resolve("notes.txt"), "not an output");
+
+        // Removed while no events were delivered
+        Files.delete(source.resolve("pkg/Gone.java"));
+        Files.delete(source.resolve("pkg"));
+        try (WorkspaceWatcher rescanning = new WorkspaceWatcher(anonymizerService, javaOnly, symbolTable, source,
+                output, Duration.ofMillis(150), updates::add)) {
+            rescanning.update(Set.of(), true);
+        }
+
+        assertEquals(1, nextUpdate().files());
+        assertTrue(Files.exists(output.resolve("Keep.java")));
+        assertFalse(Files.exists(output.resolve("pkg")));
+        assertTrue(Files.exists(output.resolve(RunManifest.FILE_NAME)));
+        assertTrue(Files.exists(output.resolve("notes.txt")));
+    }
+
+    private void startWatcher(Path source, Path output) throws IOException {
+        createWatcher(source, output);
+        startWatching();
+    }
+
+    private void createWatcher(Path source, Path output) throws IOException {
+        watcher = new WorkspaceWatcher(anonymizerService, options(), symbolTable, source, output,
+                Duration.ofMillis(150), updates::add);
+    }
+
+    private void startWatching() {
+        watching = Thread.ofVirtual().start(() -> {
+            try {
+                watcher.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private BatchSummary nextUpdate() throws InterruptedException {
+        BatchSummary summary = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(summary, "no update within 10 seconds");
+        return summary;
+    }
+
+    private void awaitOutput(Path path) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(path)) {
+            assertTrue(System.nanoTime() < deadline, "no output for " + path);
+            updates.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static BatchOptions options() {
+        return new BatchOptions(List.of(), List.of(), 2, true, true);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.simoncalundan.code_anonymizer.cache;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAnonymizerServiceTest {
+    private static final String SOURCE = "int total = price * amount; // sum\n";
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl lexerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    void testRepeatedSourceIsServedFromMemory() {
+        CachingAnonymizerService cache = cache(null);
+        String first = cache.anonymizeCode(SOURCE, "Sum.java", true, true);
+        String second = cache.anonymizeCode(SOURCE, "Sum.java", true, true);
+
+        assertEquals(lexerService.anonymizeCode(SOURCE, "Sum.java", true, true), first);
+        assertEquals(first, second);
+        assertEquals(new CacheStatistics(1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    void testFlagsAndInterpreterArePartOfTheKey() {
+        CachingAnonymizerService cache = cache(null);
+        cache.anonymizeCode(SOURCE, "Sum.java", true, true);
+        assertEquals(lexerService.anonymizeCode(SOURCE, "Sum.java", true, false),
+                cache.anonymizeCode(SOURCE, "Sum.java", true, false));
+        cache.anonymizeCode(SOURCE, "sum.txt", true, true);
+
+        assertEquals(3, cache.getStatistics().misses());
+    }
+
+    @Test
+    void testDiskTierSurvivesNewInstance() {
+        String first = cache(cacheDirectory).anonymizeCode(SOURCE, "Sum.java", false, false);
+        CachingAnonymizerService secondRun = cache(cacheDirectory);
+
+        assertEquals(first, secondRun.anonymizeCode(SOURCE, "Sum.java", false, false));
+        assertEquals(new CacheStatistics(0, 1, 0), secondRun.getStatistics());
+    }
+
+    @Test
+    void testHitRegistersNamesInSharedSymbolTable() {
+        CachingAnonymizerService cache = cache(null);
+        cache.anonymizeCode(SOURCE, "Sum.java", true, true, new LocalSymbolTable());
+
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        String result = cache.anonymizeCode(SOURCE, "Sum.java", true, true, symbolTable);
+
+        assertEquals(1, cache.getStatistics().memoryHits());
+        assertEquals("int var1 = var2 * var3; // sum\n", result);
+        assertEquals("var2", symbolTable.nameFor("price"));
+        assertEquals("var4", symbolTable.nameFor("other"));
+    }
+
+    @Test
+    void testStaleNamesAreRecomputed() {
+        CachingAnonymizerService cache = cache(null);
+        cache.anonymizeCode(SOURCE, "Sum.java", true, true);
+
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        symbolTable.nameFor("amount");
+        String result = cache.anonymizeCode(SOURCE, "Sum.java", true, true, symbolTable);
+
+        assertEquals("int var2 = var3 * var1; // sum\n", result);
+        assertEquals(2, cache.getStatistics().misses());
+    }
+
+    @Test
+    void testStreamingUsesCache() throws Exception {
+        CachingAnonymizerService cache = cache(null);
+        for (int i = 0; i < 2; i++) {
+            StringWriter output = new StringWriter();
+            cache.anonymize(new StringReader(SOURCE), output, "Sum.java", true, true, new LocalSymbolTable());
+            assertEquals("int var1 = var2 * var3; // sum\n", output.toString());
+        }
+        assertEquals(new CacheStatistics(1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    void testLongStreamsBypassCache() throws Exception {
+        String source = "a = b;\n".repeat(CachingAnonymizerService.MAX_CACHED_STREAM_LENGTH / 7 + 1);
+        StringWriter output = new StringWriter();
+        CachingAnonymizerService cache = cache(null);
+        cache.anonymize(new StringReader(source), output, "Long.java", true, true, new LocalSymbolTable());
+
+        assertEquals("var1 = var2;\n".repeat(CachingAnonymizerService.MAX_CACHED_STREAM_LENGTH / 7 + 1), output.toString());
+        assertEquals(0, cache.getStatistics().requests());
+    }
+
+    @Test
+    void testMemoryTierEvictsLeastRecentlyUsed() {
+        CachedResult result = new CachedResult("x".repeat(100), List.of(), List.of());
+        MemoryResultCache memory = new MemoryResultCache(result.weight() * 2);
+        memory.put("a", result);
+        memory.put("b", result);
+        memory.get("a");
+        memory.put("c", result);
+
+        assertNotNull(memory.get("a"));
+        assertNull(memory.get("b"));
+        assertNotNull(memory.get("c"));
+        assertEquals(2, memory.size());
+    }
+
+    private CachingAnonymizerService cache(Path directory) {
+        return new CachingAnonymizerService(lexerService, languageService, CachingAnonymizerService.DEFAULT_MEMORY_BYTES,
+                directory);
+    }
+}
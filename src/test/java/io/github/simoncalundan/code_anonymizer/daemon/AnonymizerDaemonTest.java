@@ -0,0 +1,213 @@
+package io.github.simoncalundan.code_anonymizer.daemon;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeRequest;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizeResponse;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerService;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SymbolTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnonymizerDaemonTest {
+
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+
+    @TempDir
+    Path tempDir;
+
+    private AnonymizerDaemon daemon;
+
+    @AfterEach
+    void stopDaemon() throws IOException {
+        if (daemon != null) {
+            daemon.close();
+        }
+    }
+
+    @Test
+    void testAnswersRequestsOnOneConnection() throws IOException {
+        Path socket = startDaemon(anonymizerService);
+
+        try (DaemonClient client = DaemonClient.connect(socket)) {
+            AnonymizeResponse first = client.anonymize(
+                    new AnonymizeRequest("int userAge = 30; // age", "User.java", true, false));
+            AnonymizeResponse second = client.anonymize(
+                    new AnonymizeRequest("name = \"Zoë\"  # name", "user.py", false, true));
+
+            assertEquals("int var1 = 30; \n", first.anonymizedCode());
+            assertEquals(Map.of("var1", "userAge"), first.mapping());
+            assertEquals("var1 = \"var1\"  # name", second.anonymizedCode());
+            assertEquals(Map.of("var1", "name"), second.mapping());
+        }
+    }
+
+    @Test
+    void testServesClientsConcurrently() throws Exception {
+        Path socket = startDaemon(anonymizerService);
+
+        Thread[] clients = new Thread[8];
+        AssertionError[] failures = new AssertionError[clients.length];
+        for (int i = 0; i < clients.length; i++) {
+            int client = i;
+            clients[i] = Thread.ofVirtual().start(() -> {
+                try (DaemonClient connection = DaemonClient.connect(socket)) {
+                    for (int request = 0; request < 50; request++) {
+                        String identifier = "value" + client + "x" + request;
+                        AnonymizeResponse response = connection.anonymize(
+                                new AnonymizeRequest("int " + identifier + ";", "A.java", true, true));
+                        assertEquals("int var1;", response.anonymizedCode());
+                        assertEquals(Map.of("var1", identifier), response.mapping());
+                    }
+                } catch (IOException e) {
+                    failures[client] = new AssertionError(e);
+                } catch (AssertionError e) {
+                    failures[client] = e;
+                }
+            });
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        for (AssertionError failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    @Test
+    void testReportsErrorsAndKeepsConnection() throws IOException {
+        CodeAnonymizerService failing = new CodeAnonymizerService() {
+            @Override
+            public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals,
+                                        boolean preserveComments, SymbolTable symbolTable) {
+                if (sourceCode.isEmpty()) {
+                    throw new IllegalStateException("Nothing to anonymize");
+                }
+                return anonymizerService.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments,
+                        symbolTable);
+            }
+        };
+        Path socket = startDaemon(failing);
+
+        try (DaemonClient client = DaemonClient.connect(socket)) {
+            DaemonProtocol.DaemonException error = assertThrows(DaemonProtocol.DaemonException.class,
+                    () -> client.anonymize(new AnonymizeRequest("", "A.java", true, true)));
+            assertEquals("Nothing to anonymize", error.getMessage());
+            assertEquals("int var1;", client.anonymize(new AnonymizeRequest("int count;", "A.java", true, true))
+                    .anonymizedCode());
+        }
+    }
+
+    @Test
+    void testTruncatedRequestIsAnError() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DaemonProtocol.writeRequest(new DataOutputStream(bytes),
+                new AnonymizeRequest("int userAge = 30;", "User.java", true, true));
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 5);
+
+        assertThrows(EOFException.class,
+                () -> DaemonProtocol.readRequest(new DataInputStream(new ByteArrayInputStream(truncated))));
+    }
+
+    @Test
+    void testWarmUpRunsTheEngineEveryRound() {
+        AtomicInteger runs = new AtomicInteger();
+        CodeAnonymizerService counting = new CodeAnonymizerService() {
+            @Override
+            public String anonymizeCode(String sourceCode, String fileName, boolean preserveStringLiterals,
+                                        boolean preserveComments, SymbolTable symbolTable) {
+                runs.incrementAndGet();
+                return anonymizerService.anonymizeCode(sourceCode, fileName, preserveStringLiterals, preserveComments,
+                        symbolTable);
+            }
+        };
+
+        AnonymizerDaemon.warmUp(counting);
+
+        assertEquals(AnonymizerDaemon.WARM_UP_ROUNDS, runs.get());
+    }
+
+    @Test
+    void testSocketBelongsToOwnerAndIsRemovedOnClose() throws IOException {
+        Path socket = startDaemon(anonymizerService);
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket)));
+        daemon.close();
+        daemon = null;
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void testCreatesPrivateSocketDirectory() throws IOException {
+        Path socket = tempDir.resolve("run").resolve("daemon.sock");
+
+        daemon = AnonymizerDaemon.bind(anonymizerService, socket);
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket.getParent())));
+    }
+
+    @Test
+    void testRefusesSocketDirectoryOthersCanAccess() throws IOException {
+        Path shared = Files.createDirectory(tempDir.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        IOException error = assertThrows(IOException.class,
+                () -> AnonymizerDaemon.bind(anonymizerService, shared.resolve("daemon.sock")));
+        assertTrue(error.getMessage().contains("only be accessible to its owner"));
+    }
+
+    @Test
+    void testClientRefusesSocketDirectoryOthersCanAccess() throws IOException {
+        Path socket = startDaemon(anonymizerService);
+        Files.setPosixFilePermissions(tempDir, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        try {
+            assertThrows(IOException.class, () -> DaemonClient.connect(socket));
+        } finally {
+            Files.setPosixFilePermissions(tempDir, PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    @Test
+    void testReplacesStaleSocketButNotLiveDaemon() throws IOException {
+        Path socket = tempDir.resolve("daemon.sock");
+        Files.createFile(socket);
+
+        startDaemon(anonymizerService);
+
+        IOException error = assertThrows(IOException.class, () -> AnonymizerDaemon.bind(anonymizerService, socket));
+        assertTrue(error.getMessage().contains("already listening"));
+    }
+
+    private Path startDaemon(CodeAnonymizerService service) throws IOException {
+        daemon = AnonymizerDaemon.bind(service, tempDir.resolve("daemon.sock"));
+        Thread.ofVirtual().start(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return daemon.getSocketPath();
+    }
+}
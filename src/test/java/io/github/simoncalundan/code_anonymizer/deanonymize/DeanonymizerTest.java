@@ -0,0 +1,106 @@
+package io.github.simoncalundan.code_anonymizer.deanonymize;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.SharedSymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeanonymizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplacesWholeWordsOnly() {
+        Deanonymizer deanonymizer = Deanonymizer.of(Map.of("var1", "userAge", "var12", "count"));
+
+        assertEquals("userAge + count, myvar1 var123 var1x (userAge)",
+                deanonymizer.deanonymize("var1 + var12, myvar1 var123 var1x (var1)"));
+        assertEquals("userAge", deanonymizer.deanonymize("var1"));
+        assertEquals("var", deanonymizer.deanonymize("var"));
+    }
+
+    @Test
+    void testStreamsAcrossReads() throws IOException {
+        Deanonymizer deanonymizer = Deanonymizer.of(Map.of("var1", "userAge", "var2", "UserService"));
+        String text = "Rename `var2.var1` to `age`. ".repeat(2_000);
+
+        StringWriter output = new StringWriter();
+        deanonymizer.deanonymize(new OneCharReader(text), output);
+
+        assertEquals("Rename `UserService.userAge` to `age`. ".repeat(2_000), output.toString());
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        String code = "class UserService { int count; void reset() { count = 0; } }";
+        String anonymized = new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled())
+                .anonymizeCode(code, "UserService.java", true, true, symbolTable);
+
+        Path mapping = tempDir.resolve("mapping.txt");
+        ReverseMapping.writeCompact(mapping, symbolTable.getNameMapping());
+
+        assertEquals(code, Deanonymizer.of(ReverseMapping.load(mapping)).deanonymize(anonymized));
+    }
+
+    @Test
+    void testCompactFormat() throws IOException {
+        Path mapping = tempDir.resolve("mapping.txt");
+        ReverseMapping.writeCompact(mapping, Map.of("userAge", "var1", "count", "var3"));
+
+        assertEquals("userAge\n\ncount\n", Files.readString(mapping));
+        assertEquals(Map.of("var1", "userAge", "var3", "count"), ReverseMapping.load(mapping));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReverseMapping.writeCompact(mapping, Map.of("userAge", "name1")));
+    }
+
+    @Test
+    void testLoadsJsonMapping() throws IOException {
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        symbolTable.nameFor("userAge");
+        symbolTable.nameFor("count");
+        Path mapping = tempDir.resolve("mapping.json");
+        symbolTable.save(mapping);
+
+        assertEquals(Map.of("var1", "userAge", "var2", "count"), ReverseMapping.load(mapping));
+    }
+
+    @Test
+    void testRejectsNamesThatAreNotIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> Deanonymizer.of(Map.of("var 1", "a")));
+    }
+
+    /**
+     * Hands out a single character per read, so every word spans reads.
+     */
+    private static final class OneCharReader extends Reader {
+        private final StringReader reader;
+
+        private OneCharReader(String text) {
+            this.reader = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return reader.read(buffer, offset, Math.min(length, 1));
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.simoncalundan.code_anonymizer.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEncodesMultiByteCharactersAcrossBuffers() throws IOException {
+        String content = "String café = \"naïve 日本語 😀\";\n".repeat(500);
+        RecordingChannel channel = new RecordingChannel();
+
+        try (ChannelWriter writer = new ChannelWriter(channel, 16, true)) {
+            // Odd chunk sizes split surrogate pairs between writes
+            for (int i = 0; i < content.length(); i += 7) {
+                writer.write(content, i, Math.min(7, content.length() - i));
+            }
+            writer.flush();
+            assertEquals(content.getBytes(StandardCharsets.UTF_8).length, writer.bytesWritten());
+        }
+        assertEquals(content, channel.output.toString(StandardCharsets.UTF_8));
+        assertTrue(channel.closed);
+    }
+
+    @Test
+    void testKeepsChannelOpenWhenAsked() throws IOException {
+        RecordingChannel channel = new RecordingChannel();
+
+        ChannelWriter writer = new ChannelWriter(channel, 64, false);
+        writer.write('x');
+        writer.close();
+        writer.close();
+
+        assertEquals("x", channel.output.toString(StandardCharsets.UTF_8));
+        assertFalse(channel.closed);
+        assertThrows(IOException.class, () -> writer.write('y'));
+    }
+
+    @Test
+    void testUnpairedSurrogateIsReplaced() throws IOException {
+        RecordingChannel channel = new RecordingChannel();
+
+        try (ChannelWriter writer = new ChannelWriter(channel, 64, true)) {
+            writer.write("a\uD83D");
+        }
+
+        assertEquals("a?", channel.output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWritesFile() throws IOException {
+        Path file = tempDir.resolve("out.java");
+        Files.writeString(file, "an older and much longer content");
+
+        try (ChannelWriter writer = ChannelWriter.toFile(file)) {
+            writer.write("int var1 = 1;\n");
+        }
+
+        assertEquals("int var1 = 1;\n", Files.readString(file));
+    }
+
+    private static final class RecordingChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private boolean closed;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = source.remaining();
+            byte[] bytes = new byte[count];
+            source.get(bytes);
+            output.write(bytes, 0, count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.simoncalundan.code_anonymizer.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadsMultiByteCharactersAcrossWindows() throws IOException {
+        String content = "String café = \"naïve 日本語 😀\";\n".repeat(50);
+        Path file = tempDir.resolve("Source.java");
+        Files.writeString(file, content);
+
+        for (long windowSize : new long[]{1, 5, 7, 1024}) {
+            try (Reader reader = MappedFileReader.open(file, windowSize)) {
+                assertEquals(content, readAll(reader), "windowSize=" + windowSize);
+            }
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("Empty.java"));
+
+        try (Reader reader = MappedFileReader.open(file)) {
+            assertEquals(-1, reader.read(new char[16]));
+        }
+    }
+
+    @Test
+    void testMalformedInputIsReported() throws IOException {
+        Path file = tempDir.resolve("image.png");
+        Files.write(file, new byte[]{'a', (byte) 0xFF, (byte) 0xFE});
+
+        try (Reader reader = MappedFileReader.open(file)) {
+            assertThrows(MalformedInputException.class, () -> readAll(reader));
+        }
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringWriter writer = new StringWriter();
+        reader.transferTo(writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.simoncalundan.code_anonymizer.metrics;
+
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnonymizerMetricsTest {
+    private static final String SOURCE = """
+            // Adds one
+            int add(int value) {
+                return value + 1; /* done */
+            }
+            String name = "Alice";
+            """;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnonymizerMetrics metrics = new AnonymizerMetrics(registry);
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+
+    @Test
+    void regexEngineRecordsEveryPhase() {
+        new CodeAnonymizerServiceImpl(languageService, metrics).anonymizeCode(SOURCE, "Test.java", true, true);
+
+        for (String phase : new String[]{"comments", "literals", "identifiers", "restore"}) {
+            assertEquals(1, registry.get("anonymizer.phase").tag("engine", "regex").tag("phase", phase).timer().count(),
+                    phase);
+        }
+        assertEquals(SOURCE.length(), summary("anonymizer.input.size", "regex").totalAmount());
+        // add, value twice and name
+        assertEquals(4, summary("anonymizer.identifiers.renamed", "regex").totalAmount());
+        // Two comments and one string literal
+        assertEquals(3, summary("anonymizer.placeholders.created", "regex").totalAmount());
+    }
+
+    @Test
+    void lexerEngineRecordsSinglePass() {
+        LexerCodeAnonymizerServiceImpl service = new LexerCodeAnonymizerServiceImpl(languageService, metrics);
+        service.anonymizeCode(SOURCE, "Test.java", true, false);
+        service.anonymizeCode(SOURCE, "notes.txt", true, false);
+
+        assertEquals(2, registry.get("anonymizer.phase").tag("engine", "lexer").tag("phase", "rewrite").timer().count());
+        assertEquals(2L * SOURCE.length(), summary("anonymizer.input.size", "lexer").totalAmount());
+        assertEquals(8, summary("anonymizer.identifiers.renamed", "lexer").totalAmount());
+        assertEquals(1, registry.get("anonymizer.files").tag("interpreter", "JavaInterpreter").tag("language", "java")
+                .counter().count());
+        assertEquals(1, registry.get("anonymizer.files").tag("interpreter", "DefaultInterpreter").tag("language", "other")
+                .counter().count());
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() {
+        assertFalse(AnonymizerMetrics.disabled().isEnabled());
+        assertSame(AnonymizerMetrics.Recording.NOOP,
+                AnonymizerMetrics.disabled().start(AnonymizerEngine.LEXER,
+                        "JavaInterpreter", "java", "Test.java"));
+    }
+
+    @Test
+    void statisticsCountWhatEachEngineDid() {
+        RunStatistics statistics = new RunStatistics();
+        AnonymizerMetrics collecting = AnonymizerMetrics.collecting(statistics);
+        LexerCodeAnonymizerServiceImpl lexer = new LexerCodeAnonymizerServiceImpl(languageService, collecting);
+        lexer.anonymizeCode(SOURCE, "Test.java", false, false);
+        assertEquals(0, statistics.files(), "nothing is collected before the run starts");
+
+        statistics.start();
+        lexer.anonymizeCode(SOURCE, "Test.java", false, false);
+        new CodeAnonymizerServiceImpl(languageService, collecting).anonymizeCode(SOURCE, "Test.java", true, true);
+
+        assertEquals(2, statistics.files());
+        assertEquals(8, statistics.identifiersRenamed());
+        assertEquals(1, statistics.literalsMasked());
+        assertEquals(2, statistics.commentsPreserved());
+        assertEquals(2, statistics.commentsStripped());
+        assertTrue(statistics.phaseNanos(AnonymizerPhase.REWRITE) > 0);
+        assertTrue(statistics.phaseNanos(AnonymizerPhase.IDENTIFIERS) > 0);
+        String report = statistics.format();
+        assertTrue(report.startsWith("Statistics: 2 files"), report);
+        assertTrue(report.contains("rewrite"), report);
+        assertTrue(report.contains("comments stripped 2"), report);
+    }
+
+    @Test
+    void flightRecordingReceivesFileAndPhaseEvents() throws Exception {
+        Path dump = Files.createTempFile("anonymizer", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.simoncalundan.code_anonymizer.File");
+            recording.enable("io.github.simoncalundan.code_anonymizer.Phase");
+            recording.start();
+            new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled())
+                    .anonymizeCode(SOURCE, "Test.java", false, false);
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            RecordedEvent file = events.stream()
+                    .filter(event -> event.getEventType().getName().endsWith(".File"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("Test.java", file.getString("fileName"));
+            assertEquals("regex", file.getString("engine"));
+            assertEquals(SOURCE.length(), file.getLong("inputSize"));
+            assertEquals(1, file.getInt("literalsMasked"));
+            assertEquals(2, file.getInt("commentsStripped"));
+            assertEquals(List.of("comments", "literals", "identifiers", "restore"), events.stream()
+                    .filter(event -> event.getEventType().getName().endsWith(".Phase"))
+                    .map(event -> event.getString("phase"))
+                    .toList());
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private DistributionSummary summary(String name, String engine) {
+        return registry.get(name).tag("engine", engine).summary();
+    }
+}
@@ -1,8 +1,12 @@
 package io.github.simoncalundan.code_anonymizer.service;
 
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @Slf4j
@@ -12,13 +16,31 @@ class CodeAnonymizerServiceTest {
     private final LanguageInterpreterService languageService = new LanguageInterpreterService();
 
     private final CodeAnonymizerServiceImpl anonymizerService = new CodeAnonymizerServiceImpl(
-            languageService);
+            languageService, AnonymizerMetrics.disabled());
 
     private void compareResults(String sourceCode, String anonymizedCode) {
         log.info("Source code = {}", sourceCode);
         log.info("anonymize code = {}", anonymizedCode);
     }
 
+    @Test
+    void testRestorePlaceholdersReplacesEachPlaceholderOnce() {
+        Map<String, String> placeholders = new HashMap<>();
+        StringBuilder code = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            placeholders.put("‹" + i + "›", "\"s" + i + "\"");
+            code.append("x = ‹").append(i).append("›;\n");
+            expected.append("x = \"s").append(i).append("\";\n");
+        }
+        // Restored text that looks like a placeholder is not replaced again
+        placeholders.put("§¤COMMENT¤1§", "// ‹0›");
+        code.append("§¤COMMENT¤1§ ‹unknown› §LIT_9§");
+        expected.append("// ‹0› ‹unknown› §LIT_9§");
+
+        assertEquals(expected.toString(), CodeAnonymizerServiceImpl.restorePlaceholders(code.toString(), placeholders));
+    }
+
     @Test
     void testEmptyCodeReturnsEmptyString() {
         String result = anonymizerService.anonymizeCode("", TEST_FILE_NAME, false, true);
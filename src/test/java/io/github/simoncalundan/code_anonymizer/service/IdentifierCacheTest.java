@@ -0,0 +1,53 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentifierCacheTest {
+
+    @Test
+    void testAsksSymbolTableOncePerIdentifier() {
+        List<String> requested = new ArrayList<>();
+        LocalSymbolTable local = new LocalSymbolTable();
+        IdentifierCache cache = new IdentifierCache(identifier -> {
+            requested.add(identifier);
+            return local.nameFor(identifier);
+        });
+        String source = "count = count + total; total = count;";
+
+        assertEquals("var1", cache.nameFor(source, 0, 5));
+        assertEquals("var1", cache.nameFor(source, 8, 13));
+        assertEquals("var2", cache.nameFor(source, 16, 21));
+        assertSame(cache.nameFor(source, 16, 21), cache.nameFor(source, 23, 28));
+        assertEquals(List.of("count", "total"), requested);
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        IdentifierCache cache = new IdentifierCache(new LocalSymbolTable());
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            source.append("name").append(i).append(' ');
+        }
+
+        int offset = 0;
+        for (int i = 0; i < 5_000; i++) {
+            int end = source.indexOf(" ", offset);
+            assertEquals("var" + (i + 1), cache.nameFor(source, offset, end));
+            offset = end + 1;
+        }
+        assertEquals(5_000, cache.size());
+        assertEquals("var4321", cache.nameFor("name4320", 0, 8));
+    }
+
+    @Test
+    void testPrecomputedNames() {
+        assertSame(VariableNames.of(7), VariableNames.of(7));
+        assertEquals("var1024", VariableNames.of(VariableNames.PRECOMPUTED));
+        assertEquals("var1025", VariableNames.of(VariableNames.PRECOMPUTED + 1));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    @Test
+    void testMatchesWholeSlicesOnly() {
+        KeywordMatcher matcher = KeywordMatcher.of(Set.of("int", "interface", "String"));
+        String source = "interface Stringy int";
+
+        assertTrue(matcher.matches(source, 0, 9));
+        assertTrue(matcher.matches(source, 0, 3));
+        assertTrue(matcher.matches(source, 18, 21));
+        assertTrue(matcher.matches(source, 10, 16));
+        assertFalse(matcher.matches(source, 0, 5), "Prefix of a keyword must not match");
+        assertFalse(matcher.matches(source, 10, 17));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void testDuplicatesAreCountedOnce() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("if", "else", "if"));
+
+        assertEquals(2, matcher.size());
+        assertTrue(matcher.matches("if"));
+        assertTrue(matcher.matches("else"));
+    }
+
+    @Test
+    void testLargeKeywordSet() {
+        Set<String> keywords = IntStream.range(0, 20_000)
+                .mapToObj(i -> "Type" + i)
+                .collect(Collectors.toSet());
+        KeywordMatcher matcher = KeywordMatcher.of(keywords);
+
+        assertEquals(keywords.size(), matcher.size());
+        for (String keyword : keywords) {
+            assertTrue(matcher.matches(keyword), keyword);
+        }
+        assertFalse(matcher.matches("Type20000"));
+        assertFalse(matcher.matches("type1"));
+    }
+
+    @Test
+    void testFilteredSetRejectsOtherWords() {
+        List<String> keywords = IntStream.range(0, KeywordMatcher.FILTER_THRESHOLD * 2)
+                .mapToObj(i -> "api" + i)
+                .toList();
+        KeywordMatcher matcher = KeywordMatcher.of(keywords);
+        String source = "xapi17 api17 api";
+
+        assertTrue(matcher.matches(source, 7, 12));
+        assertFalse(matcher.matches(source, 0, 6));
+        assertFalse(matcher.matches(source, 13, 16));
+        for (int i = 0; i < 50_000; i++) {
+            assertFalse(matcher.matches("local" + i));
+        }
+    }
+
+    @Test
+    void testInterpretersShareTheirMatcher() {
+        assertSame(new DefaultInterpreter().getKeywordMatcher(), new DefaultInterpreter().getKeywordMatcher());
+        assertTrue(new JavaInterpreter().getKeywordMatcher().matches("synchronized"));
+    }
+}
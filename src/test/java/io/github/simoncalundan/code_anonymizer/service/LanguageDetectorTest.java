@@ -0,0 +1,105 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageDetectorTest {
+
+    private static final String PYTHON = """
+            import os
+
+            def load(path):
+                if path is None:
+                    return None
+                with open(path) as handle:
+                    return [line for line in handle if line != '']
+
+            class Loader:
+                def __init__(self):
+                    self.cache = {}
+            """;
+
+    private final LanguageDetector detector = new LanguageDetector(Set.of("java", "py", "js", "ts", "go", "cs"));
+
+    @Test
+    void testShebang() {
+        assertEquals("py", detector.detect("bin/deploy", "#!/usr/bin/python3\nprint('hi')\n"));
+        assertEquals("py", detector.detect("bin/deploy", "#!/usr/bin/env python3.12\n"));
+        assertEquals("js", detector.detect("bin/serve", "#!/usr/bin/env -S node --no-warnings\n"));
+        assertEquals("ts", detector.detect("bin/task", "#!/usr/bin/env deno run\n"));
+        // A shell script is not mistaken for Python even if it looks like it
+        assertNull(detector.detect("bin/setup", "#!/bin/bash\n" + PYTHON));
+    }
+
+    @Test
+    void testModelines() {
+        assertEquals("py", detector.detect("Buildfile", "# -*- mode: python; coding: utf-8 -*-\nx = 1\n"));
+        assertEquals("py", detector.detect("Tiltfile", "# -*- python -*-\n"));
+        assertEquals("go", detector.detect("generated.tmpl", "// vim: set ft=go:\npackage main\n"));
+        assertEquals("java", detector.detect("Snippet", "/* vim: filetype=java */\n"));
+    }
+
+    @Test
+    void testKeywordFrequency() {
+        assertEquals("py", detector.detect("tools/migrate", PYTHON));
+        assertEquals("go", detector.detect("snippets/a.txt", """
+                func main() {
+                    results := make(chan int)
+                    defer close(results)
+                    if err != nil {
+                        fmt.Println(err)
+                    }
+                }
+                """));
+        assertNull(detector.detect("README", "This project reads files and writes them back out again."));
+    }
+
+    @Test
+    void testOnlyLooksAtPrefix() {
+        String content = " ".repeat(LanguageDetector.PREFIX_LENGTH) + PYTHON;
+
+        assertNull(detector.detect("scripts/late", content));
+    }
+
+    @Test
+    void testScoringIsCachedPerPattern() {
+        assertEquals("py", detector.detect("tools/migrate", PYTHON));
+        // Same directory and no extension, so the cached decision is reused
+        assertEquals("py", detector.detect("tools/cleanup", "x = 1\n"));
+        assertEquals(1, detector.cachedPatterns());
+        // A shebang still decides for itself
+        assertEquals("js", detector.detect("tools/serve", "#!/usr/bin/env node\n"));
+        assertNull(detector.detect("other/cleanup", "x = 1\n"));
+        assertEquals(2, detector.cachedPatterns());
+    }
+
+    @Test
+    void testPatterns() {
+        assertEquals("tools/*", LanguageDetector.patternOf("tools/migrate"));
+        assertEquals("tools/*.txt", LanguageDetector.patternOf("tools/Notes.TXT"));
+        assertEquals("*", LanguageDetector.patternOf("Jenkinsfile"));
+        assertEquals("conf.d/*", LanguageDetector.patternOf("conf.d/.hidden"));
+    }
+
+    @Test
+    void testExtensionlessScriptIsAnonymizedAsPython() throws IOException {
+        LanguageInterpreterService languageService = new LanguageInterpreterService();
+        LexerCodeAnonymizerServiceImpl anonymizerService =
+                new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+        String script = "#!/usr/bin/env python3\nretries = 3  # // not a C comment\n";
+
+        StringWriter output = new StringWriter();
+        anonymizerService.anonymize(new StringReader(script), output, "bin/retry", true, false, new LocalSymbolTable());
+
+        assertEquals("var1 = 3  \n", output.toString());
+        assertEquals("py", languageService.getLanguageForFile("bin/retry", script));
+        assertEquals(LanguageInterpreterService.OTHER_LANGUAGE, languageService.getLanguageForFile("bin/retry"));
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.service.languages.CSharpInterpreter;
+import io.github.simoncalundan.code_anonymizer.service.languages.GoInterpreter;
+import io.github.simoncalundan.code_anonymizer.service.languages.JavaScriptInterpreter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageInterpreterRegistryTest {
+
+    private final LanguageInterpreterRegistry registry = LanguageInterpreterRegistry.shared();
+
+    @Test
+    void testDiscoversBundledInterpreters() {
+        assertInstanceOf(JavaInterpreter.class, registry.forExtension("java"));
+        assertInstanceOf(JavaScriptInterpreter.class, registry.forExtension("js"));
+        assertInstanceOf(JavaScriptInterpreter.class, registry.forExtension("tsx"));
+        assertInstanceOf(GoInterpreter.class, registry.forExtension("go"));
+        assertInstanceOf(CSharpInterpreter.class, registry.forExtension("cs"));
+        assertEquals(CommentStyle.PYTHON_STYLE, registry.forExtension("py").getCommentStyle());
+    }
+
+    @Test
+    void testInterpretersAreShared() {
+        assertSame(registry.forExtension("ts"), registry.forExtension("js"));
+        assertSame(registry.forExtension("go"), new LanguageInterpreterService().getInterpreterForFile("cmd/main.go"));
+        assertSame(registry.defaultInterpreter(), registry.forExtension("rb"));
+        assertSame(registry.defaultInterpreter(), new LanguageInterpreterService().getInterpreterForFile("Makefile"));
+    }
+
+    @Test
+    void testLanguageTags() {
+        LanguageInterpreterService languageService = new LanguageInterpreterService();
+
+        assertEquals("cs", languageService.getLanguageForFile("Program.CS"));
+        assertEquals("other", languageService.getLanguageForFile("script.rb"));
+        assertTrue(registry.supports("mjs"));
+        assertFalse(registry.supports("rb"));
+    }
+
+    @Test
+    void testLanguageKeywordsAreKept() {
+        LexerCodeAnonymizerServiceImpl anonymizerService =
+                new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+
+        assertEquals("func main() { var1 := make(map[string]int); fmt.Println(len(var1)) }",
+                anonymizerService.anonymizeCode("func main() { counts := make(map[string]int); fmt.Println(len(counts)) }",
+                        "main.go", true, true, new LocalSymbolTable()));
+        assertEquals("export const var1 = async (var2: string): Promise<number> => await var3(var2);",
+                anonymizerService.anonymizeCode("export const load = async (id: string): Promise<number> => await fetchCount(id);",
+                        "load.ts", true, true, new LocalSymbolTable()));
+        assertEquals("public sealed class var1 { public required string var2 { get; init; } }",
+                anonymizerService.anonymizeCode("public sealed class Customer { public required string Name { get; init; } }",
+                        "Customer.cs", true, true, new LocalSymbolTable()));
+    }
+}
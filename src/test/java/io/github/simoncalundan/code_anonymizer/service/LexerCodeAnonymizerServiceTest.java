@@ -0,0 +1,221 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.metrics.RunStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexerCodeAnonymizerServiceTest {
+    public static final String TEST_FILE_NAME = "test.java";
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+
+    private final CodeAnonymizerServiceImpl regexService = new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    private final LexerCodeAnonymizerServiceImpl lexerService = new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "int userAge = 30;\nString userName = \"John\";",
+            "if (true) {\n  int x = 10;\n}",
+            """
+                    public class Example {
+                        private int count;
+                        public void calculateTotal(int base) {
+                            int total = base * count + 0x1F + 10L;
+                        }
+                    }
+                    """,
+            """
+                    @Service
+                    public class TestClass<T, K, V> {
+                        private Map<String, Object> mapping = new HashMap<>();
+                        private Supplier<String> getter = () -> "test";
+                        @SuppressWarnings("unused")
+                        public <E> void testMethod(List<E> items) {}
+                    }
+                    """,
+            """
+                    /* User data */
+                    int age = 25; // Age in years
+
+                    // Current user
+                    String name = "John"; /* Full name */
+                    String url = "http://example.com"; int after = 1;
+                    /* Store user's full name
+                     * in this variable */ String last = "a\\"b";""",
+            "int a = 1; /* first */ int b = 2;\r\nint x; /* second\r\n spans */ int c = 3;\r\n\r\nint d = 4;",
+            "String s = \"\"; String t = \"x\" + \"y\"; int unterminated = \"oops;"
+    })
+    void testSameOutputAsRegexEngine(String sourceCode) {
+        for (boolean preserveStrings : new boolean[]{true, false}) {
+            for (boolean preserveComments : new boolean[]{true, false}) {
+                assertEquals(
+                        regexService.anonymizeCode(sourceCode, TEST_FILE_NAME, preserveStrings, preserveComments),
+                        lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, preserveStrings, preserveComments),
+                        "preserveStrings=" + preserveStrings + ", preserveComments=" + preserveComments);
+            }
+        }
+    }
+
+    static Stream<String> streamingSources() {
+        return Stream.of(
+                "int userAge = 30;\nString userName = \"John\";",
+                """
+                        /* User data */
+                        int age = 25; // Age in years
+
+                        // Current user
+                        char quote = '"'; String name = "John"; /* Full name */
+                        String escaped = "a\\"b\\\\"; int after = 0x1F;
+                        /* Store user's full name
+                         * in this variable */ String last = "a\\"b";""",
+                "int a = 1; /* first */ int b = 2; /* second\r\n spans */ int c = 3;\r\n\r\nint d = 4;\n",
+                "// only a comment",
+                "String longLiteral = \"" + "x".repeat(40_000) + "\"; /* " + "y\n".repeat(20_000) + "*/ int tail;"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("streamingSources")
+    void testStreamingMatchesInMemoryOutput(String sourceCode) throws IOException {
+        for (boolean preserveStrings : new boolean[]{true, false}) {
+            for (boolean preserveComments : new boolean[]{true, false}) {
+                String expected = lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, preserveStrings, preserveComments);
+                for (int chunkSize : new int[]{1, 2, 3, 7, 8192}) {
+                    StringWriter writer = new StringWriter();
+                    lexerService.anonymize(new ChunkedReader(sourceCode, chunkSize), writer, TEST_FILE_NAME,
+                            preserveStrings, preserveComments, new LocalSymbolTable());
+                    assertEquals(expected, writer.toString(), "chunkSize=" + chunkSize + ", preserveStrings="
+                            + preserveStrings + ", preserveComments=" + preserveComments);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("streamingSources")
+    void testWritingMatchesInMemoryOutput(String sourceCode) throws IOException {
+        for (boolean preserveStrings : new boolean[]{true, false}) {
+            for (boolean preserveComments : new boolean[]{true, false}) {
+                StringWriter writer = new StringWriter();
+                lexerService.anonymizeCode(sourceCode, writer, TEST_FILE_NAME, preserveStrings, preserveComments,
+                        new LocalSymbolTable());
+                assertEquals(lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, preserveStrings, preserveComments),
+                        writer.toString(), "preserveStrings=" + preserveStrings + ", preserveComments=" + preserveComments);
+            }
+        }
+    }
+
+    @Test
+    void testEmptyAndNullCodeReturnEmptyString() {
+        assertEquals("", lexerService.anonymizeCode("", TEST_FILE_NAME, true, true));
+        assertEquals("", lexerService.anonymizeCode(null, TEST_FILE_NAME, true, true));
+    }
+
+    @Test
+    void testCharLiteralsAreNotRewritten() {
+        String sourceCode = "char quote = '\"'; char letter = 'a'; String text = \"b\";";
+        String anonymizedCode = lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, true, true);
+
+        assertEquals("char var1 = '\"'; char var2 = 'a'; String var3 = \"b\";", anonymizedCode);
+    }
+
+    @Test
+    void testCommentMarkersInsideLiteralsAndCommentsAreIgnored() {
+        String sourceCode = """
+                // it's "quoted
+                String path = "/* not a comment */"; // trailing
+                int value = 1;""";
+        String anonymizedCode = lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, true, false);
+
+        assertEquals("String var1 = \"/* not a comment */\"; \nint var2 = 1;\n", anonymizedCode);
+    }
+
+    @Test
+    void testStripsEveryBlockCommentOnALine() {
+        String sourceCode = "int a = 1; /* first */ int b = 2; /* second */ int c = 3;";
+        String anonymizedCode = lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, true, false);
+
+        assertEquals("int var1 = 1;  int var2 = 2;  int var3 = 3;\n", anonymizedCode);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testCommentsSplitAcrossChunksAreCountedOnce(boolean preserveComments) throws IOException {
+        String sourceCode = "int a = 1; /* a block\n comment */ int b = 2; // a line comment\nint c;\n";
+        RunStatistics statistics = new RunStatistics();
+        statistics.start();
+        LexerCodeAnonymizerServiceImpl counting = new LexerCodeAnonymizerServiceImpl(languageService,
+                AnonymizerMetrics.collecting(statistics));
+
+        counting.anonymize(new ChunkedReader(sourceCode, 5), new StringWriter(), TEST_FILE_NAME, true,
+                preserveComments, new LocalSymbolTable());
+
+        assertEquals(preserveComments ? 2 : 0, statistics.commentsPreserved());
+        assertEquals(preserveComments ? 0 : 2, statistics.commentsStripped());
+    }
+
+    @Test
+    void testStreamsLongSingleLineWithoutWaitingForItsEnd() throws IOException {
+        StringBuilder minified = new StringBuilder();
+        for (int i = 0; minified.length() < 1024 * 1024; i++) {
+            minified.append("int value").append(i).append('=').append(i).append(';');
+        }
+        String sourceCode = minified.toString();
+        ChunkedReader source = new ChunkedReader(sourceCode, 4096);
+        long[] readWhenFirstWritten = {-1};
+        StringWriter target = new StringWriter() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                if (readWhenFirstWritten[0] < 0) {
+                    readWhenFirstWritten[0] = source.charsRead;
+                }
+                super.write(buffer, offset, length);
+            }
+        };
+
+        lexerService.anonymize(source, target, TEST_FILE_NAME, true, false, new LocalSymbolTable());
+
+        assertTrue(readWhenFirstWritten[0] >= 0 && readWhenFirstWritten[0] < sourceCode.length() / 2,
+                "first output after reading " + readWhenFirstWritten[0] + " of " + sourceCode.length() + " chars");
+        assertEquals(lexerService.anonymizeCode(sourceCode, TEST_FILE_NAME, true, false), target.toString());
+    }
+
+    /**
+     * Hands out the source in chunks of at most {@code chunkSize} characters,
+     * so tokens are split at every possible position.
+     */
+    private static final class ChunkedReader extends Reader {
+        private final StringReader delegate;
+        private final int chunkSize;
+        private long charsRead;
+
+        private ChunkedReader(String source, int chunkSize) {
+            this.delegate = new StringReader(source);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, Math.min(length, chunkSize));
+            charsRead += Math.max(read, 0);
+            return read;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameListsTest {
+    private static final String SOURCE = """
+            import java.util.concurrent.ConcurrentHashMap;
+            @Service
+            class Registry {
+                ConcurrentHashMap<String, Integer> counts = new ConcurrentHashMap<>();
+            }
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadsFilesAndClassPathResources() throws IOException {
+        Path keep = Files.writeString(tempDir.resolve("keep.txt"), """
+                # JDK
+                java.util.concurrent.ConcurrentHashMap
+
+                  Registry \s
+                """);
+
+        NameLists nameLists = NameLists.load(List.of(keep.toString(), "classpath:keep-names.txt"), List.of());
+
+        assertEquals(10, nameLists.keepCount());
+        assertEquals(0, nameLists.renameCount());
+        KeywordMatcher keywords = nameLists.keywordsOf(new JavaInterpreter());
+        for (String name : List.of("java", "concurrent", "ConcurrentHashMap", "Registry", "SdkClient", "retryPolicy", "int")) {
+            assertTrue(keywords.matches(name), name);
+        }
+        assertFalse(keywords.matches("counts"));
+    }
+
+    @Test
+    void testRejectsMissingListsAndInvalidNames() throws IOException {
+        Path invalid = Files.writeString(tempDir.resolve("invalid.txt"), "valid\nnot a name\n");
+
+        assertThrows(FileNotFoundException.class, () -> NameLists.load(List.of("classpath:missing.txt"), List.of()));
+        IOException error = assertThrows(IOException.class, () -> NameLists.load(List.of(), List.of(invalid.toString())));
+        assertEquals(invalid + ":2: not a name: not a name", error.getMessage());
+    }
+
+    @Test
+    void testEnginesKeepAndRenameListedNames() {
+        NameLists nameLists = NameLists.of(List.of("java", "util", "concurrent", "ConcurrentHashMap", "Registry"),
+                List.of("Service", "Registry"));
+        LanguageInterpreterService languageService = new LanguageInterpreterService().withNameLists(nameLists);
+
+        for (CodeAnonymizerService service : List.<CodeAnonymizerService>of(
+                new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()),
+                new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()))) {
+            String anonymized = service.anonymizeCode(SOURCE, "Registry.java", true, true, new LocalSymbolTable());
+
+            assertTrue(anonymized.startsWith("import java.util.concurrent.ConcurrentHashMap;"), anonymized);
+            assertTrue(anonymized.contains("ConcurrentHashMap<String, Integer>"), anonymized);
+            assertFalse(anonymized.contains("Service"), "Listed keyword must be renamed: " + anonymized);
+            assertFalse(anonymized.contains("Registry"), "Rename must win over keep: " + anonymized);
+            assertFalse(anonymized.contains("counts"), anonymized);
+        }
+    }
+
+    @Test
+    void testMatcherIsCompiledOncePerInterpreter() {
+        LanguageInterpreterService plain = new LanguageInterpreterService();
+        LanguageInterpreterService listed = plain.withNameLists(NameLists.of(List.of("Registry"), List.of()));
+        JavaInterpreter interpreter = new JavaInterpreter();
+
+        assertSame(plain, plain.withNameLists(NameLists.NONE));
+        assertSame(interpreter.getKeywordMatcher(), plain.getKeywordMatcher(interpreter));
+        assertSame(listed.getKeywordMatcher(interpreter), listed.getKeywordMatcher(interpreter));
+        assertEquals(interpreter.getKeywordMatcher().size() + 1, listed.getKeywordMatcher(interpreter).size());
+    }
+
+    @Test
+    void testFingerprintIgnoresOrder() {
+        NameLists lists = NameLists.of(List.of("a", "b"), List.of("c"));
+
+        assertEquals("", NameLists.NONE.fingerprint());
+        assertEquals(lists.fingerprint(), NameLists.of(List.of("b", "a"), List.of("c")).fingerprint());
+        assertNotEquals(lists.fingerprint(), NameLists.of(List.of("a", "b", "c"), List.of()).fingerprint());
+    }
+}
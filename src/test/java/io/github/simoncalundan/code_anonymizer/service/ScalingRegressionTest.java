@@ -0,0 +1,186 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails when the time to anonymize a file grows faster than its size.
+ * <p>
+ * Every configuration anonymizes generated Java sources of doubling length,
+ * from 1024 lines up to {@code scaling.maxLines} (65536 by default, the
+ * {@code scaling} profile goes up to a million). Timing depends on the
+ * machine, so the suite is tagged and only runs in the {@code scaling}
+ * profile. Each line adds identifiers,
+ * a string literal and a comment, so work that is repeated per literal or
+ * comment over the whole text shows up as a steeper curve. The exponent of
+ * {@code time ~ lines^k} is fitted by least squares on a log-log scale over
+ * the fastest of several runs per size, and must stay below
+ * {@code 1 + scaling.tolerance}. Small sizes are repeated for a while, so a
+ * pause of the garbage collector or the JIT does not bend the curve.
+ * <p>
+ * On machines with at least four cores, anonymizing the largest source in
+ * segments must also be clearly faster than the lexer engine alone.
+ */
+@Tag("scaling")
+class ScalingRegressionTest {
+    private static final int MIN_LINES = 1024;
+    private static final int MAX_LINES = Integer.getInteger("scaling.maxLines", 65536);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("scaling.tolerance", "0.35"));
+    private static final int RUNS = 3;
+    private static final long WARM_UP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MEASURE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    // Segments on four cores must take at most this share of the time of the lexer alone
+    private static final double MAX_SEGMENTED_SHARE = 0.8;
+
+    private static final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private static final LexerCodeAnonymizerServiceImpl lexerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @TestFactory
+    Stream<DynamicTest> anonymizationScalesLinearly() {
+        return Stream.of(
+                configuration("regex, literals and comments preserved",
+                        new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()), true, true),
+                configuration("regex, literals masked and comments stripped",
+                        new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()), false, false),
+                configuration("lexer, literals and comments preserved", lexerService, true, true),
+                configuration("lexer, literals masked and comments stripped", lexerService, false, false),
+                // Small enough that even the smallest source is split
+                configuration("lexer in segments",
+                        new SegmentingAnonymizerService(lexerService, 8 * 1024, ForkJoinPool.commonPool()), true, true));
+    }
+
+    /**
+     * The segments of the largest source must be anonymized faster than the
+     * lexer engine anonymizes the whole source, which only holds when the
+     * split itself is not a sequential pass over the source.
+     */
+    @Test
+    void segmentsAreFasterThanTheLexer() {
+        assumeTrue(ForkJoinPool.commonPool().getParallelism() >= 4, "needs at least four cores");
+        String source = generate(MAX_LINES);
+        CodeAnonymizerService segmenting =
+                new SegmentingAnonymizerService(lexerService, source.length() / 16, ForkJoinPool.commonPool());
+        for (long warmUpEnd = System.nanoTime() + WARM_UP_NANOS; System.nanoTime() < warmUpEnd; ) {
+            anonymize(lexerService, source, false, false);
+            anonymize(segmenting, source, false, false);
+        }
+
+        long lexer = fastest(lexerService, source);
+        long segmented = fastest(segmenting, source);
+        assertTrue(segmented < MAX_SEGMENTED_SHARE * lexer, String.format(
+                "segments took %.2f ms, the lexer %.2f ms", segmented / 1e6, lexer / 1e6));
+    }
+
+    private static long fastest(CodeAnonymizerService service, String source) {
+        long fastest = Long.MAX_VALUE;
+        long measureEnd = System.nanoTime() + MEASURE_NANOS;
+        for (int run = 0; run < RUNS || System.nanoTime() < measureEnd; run++) {
+            long start = System.nanoTime();
+            anonymize(service, source, false, false);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    private static DynamicTest configuration(String name, CodeAnonymizerService service,
+                                             boolean preserveStringLiterals, boolean preserveComments) {
+        return DynamicTest.dynamicTest(name, () -> {
+            List<Integer> sizes = new ArrayList<>();
+            List<String> sources = new ArrayList<>();
+            for (int lines = MIN_LINES; lines <= MAX_LINES; lines *= 2) {
+                sizes.add(lines);
+                sources.add(generate(lines));
+            }
+            // Compiles the hot paths with the profile of every size before anything is measured
+            String warmUp = sources.get(Math.min(2, sources.size() - 1));
+            long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+            while (System.nanoTime() < warmUpEnd) {
+                anonymize(service, warmUp, preserveStringLiterals, preserveComments);
+            }
+            for (String source : sources) {
+                anonymize(service, source, preserveStringLiterals, preserveComments);
+            }
+
+            List<Long> nanos = new ArrayList<>();
+            for (String source : sources) {
+                long fastest = Long.MAX_VALUE;
+                long measureEnd = System.nanoTime() + MEASURE_NANOS;
+                for (int run = 0; run < RUNS || System.nanoTime() < measureEnd; run++) {
+                    long start = System.nanoTime();
+                    anonymize(service, source, preserveStringLiterals, preserveComments);
+                    fastest = Math.min(fastest, System.nanoTime() - start);
+                }
+                nanos.add(fastest);
+            }
+
+            double exponent = exponent(sizes, nanos);
+            StringBuilder curve = new StringBuilder();
+            for (int i = 0; i < sizes.size(); i++) {
+                curve.append(String.format("%n  %8d lines %10.2f ms", sizes.get(i), nanos.get(i) / 1e6));
+            }
+            assertTrue(exponent < 1 + TOLERANCE, String.format(
+                    "%s grows as lines^%.2f, more than lines^%.2f:%s", name, exponent, 1 + TOLERANCE, curve));
+        });
+    }
+
+    private static void anonymize(CodeAnonymizerService service, String source, boolean preserveStringLiterals,
+                                  boolean preserveComments) {
+        String result = service.anonymizeCode(source, "Generated.java", preserveStringLiterals, preserveComments,
+                new LocalSymbolTable());
+        assertFalse(result.isEmpty());
+    }
+
+    /**
+     * Least squares slope of {@code log(nanos)} over {@code log(lines)}.
+     */
+    static double exponent(List<Integer> sizes, List<Long> nanos) {
+        int n = sizes.size();
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.log(sizes.get(i));
+            double y = Math.log(nanos.get(i));
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+
+    /**
+     * Java source with a string literal, a line comment and a block comment in
+     * every four lines, and identifiers that repeat as often as in real code.
+     */
+    static String generate(int lines) {
+        StringBuilder source = new StringBuilder(lines * 40);
+        for (int i = 0; i < lines; i++) {
+            int name = i % 512;
+            switch (i % 4) {
+                case 0 -> source.append("    int count").append(name).append(" = total").append(name / 2)
+                        .append(" + 1;\n");
+                case 1 -> source.append("    String label").append(name).append(" = \"label ").append(i)
+                        .append("\";\n");
+                case 2 -> source.append("    // update the total of entry ").append(i).append('\n');
+                default -> source.append("    total").append(name / 2).append(" += count").append(name)
+                        .append("; /* entry ").append(i).append(" */\n");
+            }
+        }
+        return source.toString();
+    }
+}
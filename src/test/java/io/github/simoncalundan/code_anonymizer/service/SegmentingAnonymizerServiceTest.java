@@ -0,0 +1,144 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentingAnonymizerServiceTest {
+
+    private static final String JAVA_CLASS = """
+            /* Service number %1$d
+             * spans lines */
+            class Service%1$d {
+                private String label%1$d = "name %1$d\\" { still a string";
+                private char brace = '{';
+
+                int compute(int input) { // return the input { not a block
+                    String multi = "line one
+                    line two";
+                    return input * helper%2$d(shared) + count;
+                }
+            }
+
+            """;
+
+    private final LexerCodeAnonymizerServiceImpl lexerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    void testMatchesSequentialOutput() {
+        String sourceCode = javaSource(200);
+        for (int segmentSize : new int[]{1, 100, 1_000, 7_919}) {
+            SegmentingAnonymizerService service = new SegmentingAnonymizerService(lexerService, segmentSize, pool);
+            for (boolean preserveStrings : new boolean[]{true, false}) {
+                for (boolean preserveComments : new boolean[]{true, false}) {
+                    SharedSymbolTable sequentialTable = new SharedSymbolTable();
+                    SharedSymbolTable segmentedTable = new SharedSymbolTable();
+                    String options = "segmentSize=" + segmentSize + ", preserveStrings=" + preserveStrings
+                            + ", preserveComments=" + preserveComments;
+
+                    assertEquals(
+                            lexerService.anonymizeCode(sourceCode, "Service.java", preserveStrings, preserveComments, sequentialTable),
+                            service.anonymizeCode(sourceCode, "Service.java", preserveStrings, preserveComments, segmentedTable),
+                            options);
+                    assertEquals(sequentialTable.getNameMapping(), segmentedTable.getNameMapping(), options);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testStreamedAndWrittenOutputMatch() throws IOException {
+        String sourceCode = "# comment\nvalue = compute(\"a # b\")\n".repeat(500) + "last = value";
+        String expected = lexerService.anonymizeCode(sourceCode, "script.py", false, false);
+        SegmentingAnonymizerService service = new SegmentingAnonymizerService(lexerService, 500, pool);
+
+        StringWriter streamed = new StringWriter();
+        service.anonymize(new StringReader(sourceCode), streamed, "script.py", false, false, new LocalSymbolTable());
+        StringWriter written = new StringWriter();
+        service.anonymizeCode(sourceCode, written, "script.py", false, false, new LocalSymbolTable());
+
+        assertEquals(expected, streamed.toString());
+        assertEquals(expected, written.toString());
+    }
+
+    @Test
+    void testSplitsAtTopLevelLines() {
+        String sourceCode = javaSource(50);
+        List<SegmentingAnonymizerService.Segment> segments = split(sourceCode, "Service.java", 500);
+
+        assertTrue(segments.size() > 10);
+        assertEquals(0, segments.get(0).start());
+        assertEquals(sourceCode.length(), segments.get(segments.size() - 1).end());
+        for (int i = 1; i < segments.size(); i++) {
+            SegmentingAnonymizerService.Segment segment = segments.get(i);
+            assertEquals(segments.get(i - 1).end(), segment.start());
+            // Every class is smaller than a segment, so each split lands on the blank line after a class
+            String rest = sourceCode.substring(segment.start());
+            assertTrue(rest.startsWith("\n/* Service number") || rest.equals("\n"), "split at " + segment.start());
+        }
+    }
+
+    @Test
+    void testGuessesInsideCommentsAndLiteralsAreMerged() {
+        // Every blank and unindented line but the comment starts is inside a comment or a text block
+        StringBuilder blocks = new StringBuilder("int first = 1;\n");
+        for (int i = 0; i < 100; i++) {
+            // Comments of different lengths move the guesses around the blocks
+            blocks.append("""
+                    /*
+
+                    comment %s
+                    */
+                        String text = \"""
+
+                    unindented
+                    \""";
+                    """.formatted("x".repeat(i % 5 * 8)));
+        }
+        String sourceCode = blocks.append("    int last = first;\n").toString();
+        List<SegmentingAnonymizerService.Segment> segments = split(sourceCode, "Text.java", 40);
+
+        assertTrue(segments.size() > 10, segments.size() + " segments");
+        assertTrue(segments.size() < SegmentingAnonymizerService.guessSegmentStarts(sourceCode, 40).size() + 1);
+        for (SegmentingAnonymizerService.Segment segment : segments.subList(1, segments.size())) {
+            String rest = sourceCode.substring(segment.start());
+            assertTrue(rest.startsWith("/*") || rest.startsWith("    String") || rest.startsWith("    int last"),
+                    "split at " + segment.start());
+        }
+        SegmentingAnonymizerService service = new SegmentingAnonymizerService(lexerService, 40, pool);
+        assertEquals(lexerService.anonymizeCode(sourceCode, "Text.java", false, false),
+                service.anonymizeCode(sourceCode, "Text.java", false, false));
+    }
+
+    @Test
+    void testShortSourcesAreNotSplit() {
+        SegmentingAnonymizerService service = new SegmentingAnonymizerService(lexerService, 1_000_000, pool);
+
+        assertEquals("int var1 = var2;", service.anonymizeCode("int count = total;", "A.java", true, true));
+    }
+
+    private List<SegmentingAnonymizerService.Segment> split(String sourceCode, String fileName, int segmentSize) {
+        LanguageInterpreterService languageService = lexerService.languageService();
+        LanguageInterpreter interpreter = languageService.getInterpreter(
+                languageService.getLanguageForFile(fileName, sourceCode));
+        return new SegmentingAnonymizerService(lexerService, segmentSize, pool)
+                .split(sourceCode, lexerService.lexer(interpreter), languageService.getKeywordMatcher(interpreter));
+    }
+
+    private static String javaSource(int classes) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            source.append(JAVA_CLASS.formatted(i, i % 7));
+        }
+        return source.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.simoncalundan.code_anonymizer.service;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedSymbolTableTest {
+
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(new LanguageInterpreterService(), AnonymizerMetrics.disabled());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameNameAcrossFiles() {
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+
+        String first = anonymizerService.anonymizeCode("class UserService { int count; }", "A.java", true, true, symbolTable);
+        String second = anonymizerService.anonymizeCode("UserService service = lookup();", "B.java", true, true, symbolTable);
+
+        assertEquals("class var1 { int var2; }", first);
+        assertEquals("var1 var3 = var4();", second);
+    }
+
+    @Test
+    void testConcurrentCallersAgreeOnNames() {
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        List<String> identifiers = IntStream.range(0, 1_000).mapToObj(i -> "name" + i).toList();
+        Map<String, String> seen = new ConcurrentHashMap<>();
+
+        IntStream.range(0, 8).parallel().forEach(worker -> {
+            for (String identifier : identifiers) {
+                String name = symbolTable.nameFor(identifier);
+                String previous = seen.putIfAbsent(identifier, name);
+                assertTrue(previous == null || previous.equals(name));
+            }
+        });
+
+        assertEquals(identifiers.size(), symbolTable.size());
+        assertEquals(identifiers.size(), new HashSet<>(symbolTable.getNameMapping().values()).size(),
+                "Every identifier must get a distinct name");
+    }
+
+    @Test
+    void testSaveAndLoadContinuesNumbering() throws IOException {
+        SharedSymbolTable symbolTable = new SharedSymbolTable();
+        symbolTable.nameFor("UserService");
+        symbolTable.nameFor("findUser");
+        Path mappingFile = tempDir.resolve("mapping/names.json");
+        symbolTable.save(mappingFile);
+
+        SharedSymbolTable loaded = SharedSymbolTable.load(mappingFile);
+
+        assertEquals(symbolTable.getNameMapping(), loaded.getNameMapping());
+        assertEquals("var1", loaded.nameFor("UserService"));
+        assertEquals("var3", loaded.nameFor("emailAddress"));
+    }
+
+    @Test
+    void testKeyedNamesDoNotDependOnOrder() {
+        byte[] key = "project secret".getBytes(StandardCharsets.UTF_8);
+        SharedSymbolTable first = new SharedSymbolTable(new KeyedNames(key));
+        SharedSymbolTable second = new SharedSymbolTable(new KeyedNames(key));
+
+        String firstOutput = anonymizerService.anonymizeCode("class UserService { int count; }", "A.java", true, true, first);
+        String secondOutput = anonymizerService.anonymizeCode("int count = UserService.size;", "B.java", true, true, second);
+
+        String userService = first.nameFor("UserService");
+        assertTrue(userService.matches("v[a-z2-7]{12}"), userService);
+        assertEquals("class " + userService + " { int " + first.nameFor("count") + "; }", firstOutput);
+        assertEquals(userService, second.nameFor("UserService"));
+        assertEquals(first.nameFor("count"), second.nameFor("count"));
+        assertTrue(secondOutput.startsWith("int " + first.nameFor("count") + " = " + userService + "."));
+    }
+
+    @Test
+    void testKeyedNamesDependOnKey() {
+        KeyedNames first = new KeyedNames("first".getBytes(StandardCharsets.UTF_8));
+        KeyedNames second = new KeyedNames("second".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(first.nameFor("UserService", 0), first.nameFor("UserService", 0));
+        assertNotEquals(first.nameFor("UserService", 0), second.nameFor("UserService", 0));
+        assertNotEquals(first.nameFor("UserService", 0), first.nameFor("UserService", 1));
+    }
+
+    @Test
+    void testKeyedCollisionsAreResolved() {
+        // Single character names leave 32 candidates, so 20 identifiers are bound to collide
+        SharedSymbolTable symbolTable = new SharedSymbolTable(new KeyedNames(new byte[]{1, 2, 3}, 1));
+        List<String> identifiers = IntStream.range(0, 20).mapToObj(i -> "name" + i).toList();
+
+        identifiers.parallelStream().forEach(symbolTable::nameFor);
+
+        assertEquals(identifiers.size(), new HashSet<>(symbolTable.getNameMapping().values()).size(),
+                "Every identifier must get a distinct name");
+        assertTrue(symbolTable.collisions() > 0);
+    }
+
+    @Test
+    void testKeyedTableKeepsLoadedNames() throws IOException {
+        SharedSymbolTable numbered = new SharedSymbolTable();
+        numbered.nameFor("UserService");
+        Path mappingFile = tempDir.resolve("names.json");
+        numbered.save(mappingFile);
+        KeyedNames keyedNames = new KeyedNames("secret".getBytes(StandardCharsets.UTF_8));
+
+        SharedSymbolTable loaded = SharedSymbolTable.load(mappingFile, keyedNames);
+
+        assertEquals("var1", loaded.nameFor("UserService"));
+        assertEquals(keyedNames.nameFor("findUser", 0), loaded.nameFor("findUser"));
+    }
+
+    @Test
+    void testKeyFileIgnoresSurroundingWhitespace() throws IOException {
+        Path keyFile = Files.writeString(tempDir.resolve("key"), "  secret\n");
+
+        assertEquals(new KeyedNames("secret".getBytes(StandardCharsets.UTF_8)).nameFor("count", 0),
+                KeyedNames.fromFile(keyFile).nameFor("count", 0));
+        assertThrows(IOException.class, () -> KeyedNames.fromFile(Files.writeString(tempDir.resolve("empty"), "\n")));
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CSharpLanguageTest {
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @Test
+    void testVerbatimInterpolatedAndRawStringsAreMasked() throws IOException {
+        String code = """
+                var name = "secret value";
+                var path = @"C:\\temp\\""quoted""\";
+                var text = $"{name} secret";
+                var raw = \"""
+                secret "raw"
+                \""";
+                char c = 'x';
+                """;
+        String expected = """
+                var var1 = "var1";
+                var var2 = "var2";
+                var var3 = "var3";
+                var var4 = "var4";
+                char var5 = 'x';
+                """;
+
+        assertEquals(expected, anonymizerService.anonymizeCode(code, "App.cs", false, true, new LocalSymbolTable()));
+        StringWriter streamed = new StringWriter();
+        anonymizerService.anonymize(new StringReader(code), streamed, "App.cs", false, true, new LocalSymbolTable());
+        assertEquals(expected, streamed.toString());
+    }
+}
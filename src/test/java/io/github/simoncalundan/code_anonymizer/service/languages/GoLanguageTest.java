@@ -0,0 +1,40 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GoLanguageTest {
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @Test
+    void testRawStringsAreMaskedAndRunesKept() throws IOException {
+        String code = """
+                name := "secret value"
+                query := `SELECT secret
+                FROM users`
+                r := 'x'
+                """;
+        String expected = """
+                var1 := "var1"
+                var2 := "var2"
+                var3 := 'x'
+                """;
+
+        assertEquals(expected, anonymizerService.anonymizeCode(code, "main.go", false, true, new LocalSymbolTable()));
+        StringWriter streamed = new StringWriter();
+        anonymizerService.anonymize(new StringReader(code), streamed, "main.go", false, true, new LocalSymbolTable());
+        assertEquals(expected, streamed.toString());
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.simoncalundan.code_anonymizer.service.languages;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JavaScriptLanguageTest {
+
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
+    @Test
+    void testSingleQuotedAndTemplateLiteralsAreMasked() throws IOException {
+        String code = """
+                const name = 'secret value';
+                const html = `<p>${name} and more
+                lines</p>`;
+                const quote = "it's";
+                """;
+        String expected = """
+                const var1 = "var1";
+                const var2 = "var2";
+                const var3 = "var3";
+                """;
+
+        assertEquals(expected, anonymizerService.anonymizeCode(code, "app.js", false, true, new LocalSymbolTable()));
+        StringWriter streamed = new StringWriter();
+        anonymizerService.anonymize(new StringReader(code), streamed, "app.js", false, true, new LocalSymbolTable());
+        assertEquals(expected, streamed.toString());
+    }
+}
@@ -1,13 +1,74 @@
 package io.github.simoncalundan.code_anonymizer.service.languages;
 
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LocalSymbolTable;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 public class PythonLanguageTest {
 
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final LexerCodeAnonymizerServiceImpl anonymizerService =
+            new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled());
+
     @Test
     void testEmptyCodeReturnsEmptyString() {
         assertEquals(true, true);
     }
+
+    @Test
+    void testPythonFilesUsePythonInterpreter() {
+        assertInstanceOf(PythonInterpreter.class, languageService.getInterpreterForFile("app/main.py"));
+        assertEquals("py", languageService.getLanguageForFile("app/main.py"));
+    }
+
+    @Test
+    void testHashCommentsAndBuiltinsAreHandled() {
+        String code = """
+                def total(items):  # sum of prices
+                    return sum(item.price for item in items if item is not None)
+                """;
+
+        String anonymized = anonymizerService.anonymizeCode(code, "cart.py", true, false, new LocalSymbolTable());
+
+        assertEquals("def var1(var2):  \n    return sum(var3.var4 for var3 in var2 if var3 is not None)\n", anonymized);
+    }
+
+    @Test
+    void testSingleQuotedRawAndTripleQuotedStringsAreMasked() throws IOException {
+        String code = """
+                name = 'secret value'
+                path = r'C:\\temp\\x' + rb"raw"
+                doc = '''multi
+                line 'quoted' text'''
+                label = f"{name}!"  # done
+                """;
+        String expected = """
+                var1 = "var1"
+                var2 = "var2" + "var3"
+                var3 = "var4"
+                var4 = "var5"  # done
+                """;
+
+        assertEquals(expected, anonymizerService.anonymizeCode(code, "app.py", false, true, new LocalSymbolTable()));
+        StringWriter streamed = new StringWriter();
+        anonymizerService.anonymize(new StringReader(code), streamed, "app.py", false, true, new LocalSymbolTable());
+        assertEquals(expected, streamed.toString());
+    }
+
+    @Test
+    void testWordsInsidePreservedStringsAreNotRenamed() {
+        String code = "doc = \"\"\"total of\nall items\"\"\"\n";
+
+        assertEquals("var1 = \"\"\"total of\nall items\"\"\"\n",
+                anonymizerService.anonymizeCode(code, "app.py", true, true, new LocalSymbolTable()));
+    }
 }
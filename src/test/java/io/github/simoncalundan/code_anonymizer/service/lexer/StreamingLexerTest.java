@@ -0,0 +1,112 @@
+package io.github.simoncalundan.code_anonymizer.service.lexer;
+
+import io.github.simoncalundan.code_anonymizer.model.CommentStyle;
+import io.github.simoncalundan.code_anonymizer.model.StringStyle;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingLexerTest {
+
+    static Stream<Arguments> sources() {
+        return Stream.of(
+                Arguments.of(CommentStyle.JAVA_STYLE, StringStyle.JAVA_STYLE,
+                        "String text = \"\"\"\n  a \\\"\"\" b\n\"\"\"; char c = '\\''; // note\nint x = \"\\\\\";"),
+                Arguments.of(CommentStyle.PYTHON_STYLE, StringStyle.PYTHON_STYLE,
+                        "name = 'it\\'s'\nraw = rb'''x''' + F\"{y}\" + '' # c\nresult = b\"\"\"a\n\"b\"\n\"\"\""),
+                Arguments.of(CommentStyle.JAVA_STYLE, StringStyle.JAVASCRIPT_STYLE,
+                        "const a = `x ${y}\n`; const b = 'c' /* d */;"),
+                Arguments.of(CommentStyle.JAVA_STYLE, StringStyle.GO_STYLE,
+                        "q := `raw \\` + \"s\\\"\" + string('r')"),
+                Arguments.of(CommentStyle.JAVA_STYLE, StringStyle.CSHARP_STYLE,
+                        "var p = @\"a\"\"b\"\"\" + $@\"{x}\"\"\" + \"\"\"\nraw \"\" \n\"\"\" + @x;"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("sources")
+    void testChunksDoNotChangeTheTokens(CommentStyle commentStyle, StringStyle stringStyle, String source)
+            throws IOException {
+        TokenRecorder expected = new TokenRecorder();
+        new SourceLexer(commentStyle, stringStyle).lex(source, expected);
+
+        for (int bufferSize : IntStream.rangeClosed(2, 9).toArray()) {
+            TokenRecorder streamed = new TokenRecorder();
+            new StreamingLexer(commentStyle, stringStyle, bufferSize).lex(new StringReader(source), streamed);
+            assertEquals(expected.tokens, streamed.tokens, "buffer size " + bufferSize);
+        }
+        assertTrue(expected.tokens.stream().anyMatch(token -> token.startsWith("string:")));
+    }
+
+    /**
+     * Records tokens as {@code kind:text}, joining the parts of code,
+     * literals and comments that a chunk boundary split.
+     */
+    private static final class TokenRecorder implements TokenHandler {
+        private final List<String> tokens = new ArrayList<>();
+        private String lastKind;
+
+        @Override
+        public void code(CharSequence source, int start, int end) {
+            add("code", source, start, end);
+        }
+
+        @Override
+        public void identifier(CharSequence source, int start, int end) {
+            lastKind = null;
+            add("identifier", source, start, end);
+        }
+
+        @Override
+        public void stringLiteral(CharSequence source, int start, int end) {
+            lastKind = null;
+            add("string", source, start, end);
+        }
+
+        @Override
+        public void stringLiteralContinued(CharSequence source, int start, int end) {
+            add("string", source, start, end);
+        }
+
+        @Override
+        public void charLiteral(CharSequence source, int start, int end) {
+            lastKind = null;
+            add("char", source, start, end);
+        }
+
+        @Override
+        public void comment(CharSequence source, int start, int end, boolean block) {
+            lastKind = null;
+            add(block ? "block" : "line", source, start, end);
+        }
+
+        @Override
+        public void commentContinued(CharSequence source, int start, int end, boolean block) {
+            add(block ? "block" : "line", source, start, end);
+        }
+
+        @Override
+        public void newline() {
+            lastKind = null;
+            tokens.add("newline");
+        }
+
+        private void add(String kind, CharSequence source, int start, int end) {
+            String text = source.subSequence(start, end).toString();
+            if (kind.equals(lastKind)) {
+                tokens.set(tokens.size() - 1, tokens.getLast() + text);
+            } else {
+                tokens.add(kind + ":" + text);
+            }
+            lastKind = kind.equals("identifier") ? null : kind;
+        }
+    }
+}
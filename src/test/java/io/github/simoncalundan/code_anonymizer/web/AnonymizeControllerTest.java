@@ -0,0 +1,95 @@
+package io.github.simoncalundan.code_anonymizer.web;
+
+import io.github.simoncalundan.code_anonymizer.metrics.AnonymizerMetrics;
+import io.github.simoncalundan.code_anonymizer.model.AnonymizerEngine;
+import io.github.simoncalundan.code_anonymizer.service.AnonymizerEngines;
+import io.github.simoncalundan.code_anonymizer.service.CodeAnonymizerServiceImpl;
+import io.github.simoncalundan.code_anonymizer.service.LanguageInterpreterService;
+import io.github.simoncalundan.code_anonymizer.service.LexerCodeAnonymizerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AnonymizeControllerTest {
+    private final LanguageInterpreterService languageService = new LanguageInterpreterService();
+    private final AnonymizerServerProperties properties =
+            new AnonymizerServerProperties(DataSize.ofKilobytes(1), 2, AnonymizerEngine.LEXER, DataSize.ofMegabytes(1),
+                    List.of(), List.of());
+
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new AnonymizeController(new AnonymizerEngines(
+                    new CodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled()),
+                    new LexerCodeAnonymizerServiceImpl(languageService, AnonymizerMetrics.disabled())),
+                    languageService, AnonymizerMetrics.disabled(), properties))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .addFilters(new RequestSizeLimitFilter(properties))
+            .build();
+
+    @Test
+    void testAnonymizeSingleFile() throws Exception {
+        mockMvc.perform(post("/api/anonymize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"sourceCode": "int userAge = 30; // age", "fileName": "User.java", "preserveComments": false}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.anonymizedCode").value("int var1 = 30; \n"))
+                .andExpect(jsonPath("$.mapping.var1").value("userAge"));
+    }
+
+    @Test
+    void testBatchSharesNamesAcrossFiles() throws Exception {
+        mockMvc.perform(post("/api/anonymize/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"files": [
+                                  {"path": "a/UserService.java", "content": "class UserService {}"},
+                                  {"path": "b/Main.java", "content": "UserService service;"}
+                                ]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.files[0].path").value("a/UserService.java"))
+                .andExpect(jsonPath("$.files[0].content").value("class var1 {}"))
+                .andExpect(jsonPath("$.files[1].content").value("var1 var2;"))
+                .andExpect(jsonPath("$.mapping.var2").value("service"));
+    }
+
+    @Test
+    void testMissingFieldsAreRejected() throws Exception {
+        mockMvc.perform(post("/api/anonymize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sourceCode\": \"int a;\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBatchFileLimit() throws Exception {
+        mockMvc.perform(post("/api/anonymize/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"files": [
+                                  {"path": "A.java", "content": "int a;"},
+                                  {"path": "B.java", "content": "int b;"},
+                                  {"path": "C.java", "content": "int c;"}
+                                ]}
+                                """))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void testRequestSizeLimit() throws Exception {
+        String sourceCode = "int a;".repeat(500);
+        mockMvc.perform(post("/api/anonymize")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sourceCode\": \"" + sourceCode + "\", \"fileName\": \"A.java\"}"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}